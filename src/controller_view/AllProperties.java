@@ -80,7 +80,12 @@ public enum AllProperties {
 	/**
 	 * Used to notify a Screen that a Node has been moused over
 	 */
-	MOUSE_OVER_EVENT("mouse_over_event");
+	MOUSE_OVER_EVENT("mouse_over_event"),
+	
+	/**
+	 * Used when the AssetLoader finishes decoding an asset
+	 */
+	ASSET_LOADED("asset_loaded");
 	
 	private final String property;
 	
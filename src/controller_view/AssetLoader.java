@@ -0,0 +1,354 @@
+package controller_view;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.media.Media;
+
+/**
+ * Decodes images and audio on background threads so the window can be shown before
+ * every asset is ready.
+ *
+ * Requests are served in priority order, then in the order they were made.  Screens ask
+ * to be called back when an image is ready, and the callback runs on the JavaFX application
+ * thread.  Every time an asset finishes an ASSET_LOADED event is fired on the JavaFX
+ * application thread, carrying the fraction of requested assets which are ready.
+ *
+ * Images may be requested at the size they are shown at, in which case they are decoded
+ * just large enough to cover that size rather than at the resolution of the file.  Each
+ * size of an image is a separate asset.
+ *
+ * Decoded images are only softly held, so images no screen is showing can be reclaimed
+ * when memory runs low and are decoded again the next time they are needed.
+ *
+ * @author Andrew Dennison
+ */
+public class AssetLoader {
+
+	/**
+	 * Priority of assets needed for the first frame
+	 */
+	public static final int URGENT = 0;
+
+	/**
+	 * Priority of assets for screens which are built but not shown
+	 */
+	public static final int NORMAL = 1;
+
+	/**
+	 * Priority of assets which are only needed later, such as sounds
+	 */
+	public static final int BACKGROUND = 2;
+
+	/**
+	 * One asset waiting to be decoded
+	 * @param resource	Classpath resource of the asset
+	 * @param width		Width in pixels the image must cover, or 0 to decode it at its own size
+	 * @param height	Height in pixels the image must cover, or 0 to decode it at its own size
+	 * @param isSound	True to decode the asset as audio, false as an image
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 * @param order		Sequence number of the request, so equal priorities are first come first served
+	 */
+	private record Request(String resource, double width, double height, boolean isSound, int priority, long order) implements Comparable<Request> {
+		
+		/**
+		 * Get the name the decoded asset is stored under
+		 * @return	The resource, followed by the size it was decoded at if any
+		 */
+		String key() {
+			return AssetLoader.key(resource, width, height);
+		}
+
+		@Override
+		public int compareTo(Request o) {
+			return priority != o.priority ? Integer.compare(priority, o.priority) : Long.compare(order, o.order);
+		}
+	}
+
+	private final PriorityBlockingQueue<Request> queue = new PriorityBlockingQueue<Request>();
+	private final AtomicLong nextOrder = new AtomicLong();
+
+	/**
+	 * Every decoded asset, or the resource itself if it could not be decoded.  Images are
+	 * held through a SoftReference.
+	 */
+	private final Map<String, Object> loaded = new ConcurrentHashMap<String, Object>();
+	private final Map<String, Boolean> requested = new ConcurrentHashMap<String, Boolean>();
+
+	/**
+	 * Callbacks waiting for an asset, only touched on the JavaFX application thread
+	 */
+	private final Map<String, List<Consumer<Object>>> waiting = new HashMap<String, List<Consumer<Object>>>();
+
+	private final AtomicInteger requestCount = new AtomicInteger();
+	private final AtomicInteger loadedCount = new AtomicInteger();
+
+	private EventBus events = new EventBus(this);
+
+	/**
+	 * Create a loader and start its threads
+	 * @param threads	The number of assets to decode at once
+	 */
+	public AssetLoader(int threads) {
+		for (int i = 0; i < Math.max(1, threads); i++) {
+			Thread t = new Thread(this::drain, "asset-loader-" + i);
+			t.setDaemon(true);
+			t.setPriority(Thread.MIN_PRIORITY);
+			t.start();
+		}
+	}
+
+	/**
+	 * Get the events of this loader, to listen for ASSET_LOADED events
+	 * @return	The bus to add listeners to
+	 */
+	public EventBus events() {
+		return events;
+	}
+
+	/**
+	 * Queue an image to be decoded.  Requesting an image again with a more urgent priority moves it up the queue.
+	 * @param resource	Classpath resource of the image
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 */
+	public void loadImage(String resource, int priority) {
+		request(resource, 0, 0, false, priority);
+	}
+
+	/**
+	 * Queue an image to be decoded just large enough to cover an area
+	 * @param resource	Classpath resource of the image
+	 * @param width		Width in pixels the image is shown at
+	 * @param height	Height in pixels the image is shown at
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 */
+	public void loadImage(String resource, double width, double height, int priority) {
+		request(resource, width, height, false, priority);
+	}
+
+	/**
+	 * Queue a sound to be decoded
+	 * @param resource	Classpath resource of the sound
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 */
+	public void loadSound(String resource, int priority) {
+		request(resource, 0, 0, true, priority);
+	}
+
+	private void request(String resource, double width, double height, boolean isSound, int priority) {
+		Request r = new Request(resource, width, height, isSound, priority, nextOrder.getAndIncrement());
+		if (loaded.containsKey(r.key())) {
+			return;
+		}
+
+		if (requested.putIfAbsent(r.key(), Boolean.TRUE) == null) {
+			requestCount.incrementAndGet();
+		}
+		queue.add(r);
+	}
+
+	private static String key(String resource, double width, double height) {
+		return width <= 0 ? resource : resource + "@" + (int) Math.ceil(width) + "x" + (int) Math.ceil(height);
+	}
+
+	/**
+	 * Run code with an image as soon as it has been decoded.  Must be called on the JavaFX
+	 * application thread, which is also where the callback runs.
+	 * @param resource	Classpath resource of the image
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 * @param callback	Receives the image, or null if it could not be decoded
+	 */
+	public void whenImageReady(String resource, int priority, Consumer<Image> callback) {
+		whenImageReady(resource, 0, 0, priority, callback);
+	}
+
+	/**
+	 * Run code with an image decoded just large enough to cover an area, as soon as it is ready.
+	 * Must be called on the JavaFX application thread, which is also where the callback runs.
+	 * @param resource	Classpath resource of the image
+	 * @param width		Width in pixels the image is shown at, or 0 for the image's own size
+	 * @param height	Height in pixels the image is shown at, or 0 for the image's own size
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 * @param callback	Receives the image, or null if it could not be decoded
+	 */
+	public void whenImageReady(String resource, double width, double height, int priority, Consumer<Image> callback) {
+		String key = key(resource, width, height);
+		Object asset = loaded.get(key);
+		if (asset instanceof SoftReference) {
+			asset = ((SoftReference<?>) asset).get();
+			
+			// The image was reclaimed, so decode it again
+			if (asset == null) {
+				loaded.remove(key);
+			}
+		}
+		
+		if (asset != null) {
+			callback.accept(asset instanceof Image ? (Image) asset : null);
+			return;
+		}
+
+		waiting.computeIfAbsent(key, (k) -> new ArrayList<Consumer<Object>>()).add((a) -> {
+			callback.accept(a instanceof Image ? (Image) a : null);
+		});
+		request(resource, width, height, false, priority);
+	}
+
+	/**
+	 * Run code with a sound as soon as it has been decoded.  Must be called on the JavaFX
+	 * application thread, which is also where the callback runs.
+	 * @param resource	Classpath resource of the sound
+	 * @param priority	URGENT, NORMAL or BACKGROUND
+	 * @param callback	Receives the sound, or null if it could not be decoded
+	 */
+	public void whenSoundReady(String resource, int priority, Consumer<Media> callback) {
+		Object asset = loaded.get(resource);
+		if (asset != null) {
+			callback.accept(asset instanceof Media ? (Media) asset : null);
+			return;
+		}
+
+		waiting.computeIfAbsent(resource, (k) -> new ArrayList<Consumer<Object>>()).add((a) -> {
+			callback.accept(a instanceof Media ? (Media) a : null);
+		});
+		loadSound(resource, priority);
+	}
+
+	/**
+	 * Get a sound, decoding it now if it has not been decoded yet
+	 * @param resource	Classpath resource of the sound
+	 * @return			The sound, or null if it could not be found
+	 */
+	public Media sound(String resource) {
+		Object asset = loaded.get(resource);
+		if (asset == null) {
+			asset = decode(new Request(resource, 0, 0, true, URGENT, 0));
+			store(resource, asset);
+		}
+
+		return asset instanceof Media ? (Media) asset : null;
+	}
+
+	/**
+	 * Get the fraction of requested assets which have been decoded
+	 * @return	A value from 0.0 to 1.0
+	 */
+	public double progress() {
+		int total = requestCount.get();
+		return total == 0 ? 1 : Math.min(1, (double) loadedCount.get() / total);
+	}
+
+	private void drain() {
+		while (true) {
+			Request r;
+			try {
+				r = queue.take();
+			} catch (InterruptedException ex) {
+				return;
+			}
+
+			// The same asset may have been queued more than once at different priorities
+			if (!loaded.containsKey(r.key())) {
+				store(r.key(), decode(r));
+			}
+		}
+	}
+
+	private Object decode(Request r) {
+		URL url = getClass().getResource(r.resource());
+		if (url == null) {
+			System.err.println("Missing asset " + r.resource());
+			return r.resource();
+		}
+
+		try {
+			if (r.isSound()) {
+				return new Media(url.toExternalForm());
+			}
+
+			Image img;
+			if (r.width() > 0) {
+				double scale = coverScale(r);
+				img = new Image(url.toExternalForm(), r.width() * scale, r.height() * scale, true, true);
+			} else {
+				img = new Image(url.toExternalForm());
+			}
+			return img.isError() ? r.resource() : img;
+		} catch (RuntimeException ex) {
+			ex.printStackTrace();
+			return r.resource();
+		}
+	}
+
+	/**
+	 * Find how much larger than the requested area an image must be decoded so it covers the
+	 * area without being stretched.  Only the header of the image is read.
+	 * @param r	The request for the image
+	 * @return	A scale of at least 1, or 1 if the image's size could not be read
+	 */
+	private double coverScale(Request r) {
+		try (InputStream in = getClass().getResourceAsStream(r.resource());
+				ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+			Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+			if (!readers.hasNext()) {
+				return 1;
+			}
+
+			ImageReader reader = readers.next();
+			try {
+				reader.setInput(iis);
+				double aspect = (double) reader.getWidth(0) / reader.getHeight(0);
+
+				// Decoded with its aspect ratio kept, the image fits inside the requested box, so
+				// widen whichever side would otherwise come up short
+				return Math.max(aspect * r.height() / r.width(), r.width() / (aspect * r.height()));
+			} finally {
+				reader.dispose();
+			}
+		} catch (IOException ex) {
+			ex.printStackTrace();
+			return 1;
+		}
+	}
+
+	private void store(String resource, Object asset) {
+		Object held = asset instanceof Image ? new SoftReference<Image>((Image) asset) : asset;
+		if (loaded.putIfAbsent(resource, held) != null) {
+			return;
+		}
+
+		// Assets decoded again after being reclaimed were already counted
+		if (requested.replace(resource, Boolean.TRUE, Boolean.FALSE)) {
+			loadedCount.incrementAndGet();
+		}
+
+		Platform.runLater(() -> {
+			List<Consumer<Object>> callbacks = waiting.remove(resource);
+			if (callbacks != null) {
+				for (Consumer<Object> c : callbacks) {
+					c.accept(asset);
+				}
+			}
+
+			events.post(AllProperties.ASSET_LOADED, progress());
+		});
+	}
+}
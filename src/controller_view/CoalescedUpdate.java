@@ -0,0 +1,90 @@
+package controller_view;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+/**
+ * Carries a stream of values from any thread to the JavaFX application thread, applying
+ * only the latest value and at most once per pulse.
+ *
+ * Setting a value stores it in an atomic slot.  The first value set since the last pulse
+ * also queues this update for the next pulse, so however quickly a model produces values,
+ * the JavaFX event queue receives nothing and the screen is updated once per frame with
+ * the newest value.  One AnimationTimer applies every pending update, and stops itself
+ * once there are none.
+ *
+ * @param <T>	The type of value shown on screen
+ * @author Andrew Dennison
+ */
+public class CoalescedUpdate<T> {
+
+	/**
+	 * Updates with a value waiting to be applied
+	 */
+	private static final ConcurrentLinkedQueue<CoalescedUpdate<?>> pending = new ConcurrentLinkedQueue<CoalescedUpdate<?>>();
+
+	/**
+	 * True while the timer is started or about to be
+	 */
+	private static final AtomicBoolean running = new AtomicBoolean();
+
+	private static final AnimationTimer pulse = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			// Only apply the updates queued before this pulse, so each is applied at most once per pulse
+			boolean applied = false;
+			CoalescedUpdate<?> u;
+			for (int n = pending.size(); n > 0 && (u = pending.poll()) != null; n--) {
+				u.apply();
+				applied = true;
+			}
+
+			// Stop when idle, unless a value arrived while stopping
+			if (!applied) {
+				stop();
+				running.set(false);
+				if (!pending.isEmpty() && running.compareAndSet(false, true)) {
+					start();
+				}
+			}
+		}
+	};
+
+	private final AtomicReference<T> latest = new AtomicReference<T>();
+	private final AtomicBoolean queued = new AtomicBoolean();
+	private final Consumer<T> apply;
+
+	/**
+	 * Create an update which shows values on screen
+	 * @param apply	Shows a value, always run on the JavaFX application thread
+	 */
+	public CoalescedUpdate(Consumer<T> apply) {
+		this.apply = apply;
+	}
+
+	/**
+	 * Set the value to show on the next pulse, replacing any value not yet shown.  May be
+	 * called from any thread.
+	 * @param value	The newest value
+	 */
+	public void set(T value) {
+		latest.set(value);
+		if (queued.compareAndSet(false, true)) {
+			pending.add(this);
+			if (running.compareAndSet(false, true)) {
+				Platform.runLater(pulse::start);
+			}
+		}
+	}
+
+	private void apply() {
+		// Clear the flag first, so a value set while applying is queued for the next pulse
+		queued.set(false);
+		apply.accept(latest.get());
+	}
+}
@@ -0,0 +1,179 @@
+package controller_view;
+
+import java.util.Arrays;
+
+import javafx.application.Platform;
+
+/**
+ * Delivers the notifications fired by one object, such as a Board or a screen, to the
+ * listeners of each kind of notification.
+ *
+ * Listeners subscribe to a single AllProperties value and are kept in an array per value,
+ * so posting an event is an array lookup rather than a comparison of property names, and
+ * no event object is created.  Events which carry a number, such as UPDATE_SPECIAL, can be
+ * posted as an int and are only boxed if a listener subscribed without an IntListener.
+ *
+ * Listeners may ask to be called on the JavaFX application thread, for events which are
+ * posted from other threads but update the screen.
+ *
+ * @author Andrew Dennison
+ */
+public class EventBus {
+
+	/**
+	 * Receives events which carry objects
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * Handle an event
+		 * @param source	The object which posted the event
+		 * @param oldValue	The previous value, or null if the event does not have one
+		 * @param newValue	The value carried by the event
+		 */
+		void onEvent(Object source, Object oldValue, Object newValue);
+	}
+
+	/**
+	 * Receives events which carry a single int
+	 */
+	@FunctionalInterface
+	public interface IntListener {
+		/**
+		 * Handle an event
+		 * @param source	The object which posted the event
+		 * @param value		The value carried by the event
+		 */
+		void onEvent(Object source, int value);
+	}
+
+	private static final Listener[] NO_LISTENERS = new Listener[0];
+	private static final IntListener[] NO_INT_LISTENERS = new IntListener[0];
+
+	private final Object source;
+
+	/*
+	 * Listeners of each property, indexed by ordinal.  The arrays are replaced rather than
+	 * changed, so events can be posted from any thread while listeners are added.
+	 */
+	private volatile Listener[][] listeners = new Listener[AllProperties.values().length][];
+	private volatile IntListener[][] intListeners = new IntListener[AllProperties.values().length][];
+
+	/**
+	 * Create a bus for the events of one object
+	 * @param source	The object posting the events, which every listener is given
+	 */
+	public EventBus(Object source) {
+		this.source = source;
+		Arrays.fill(listeners, NO_LISTENERS);
+		Arrays.fill(intListeners, NO_INT_LISTENERS);
+	}
+
+	/**
+	 * Call a listener whenever an event of a given kind is posted
+	 * @param type	The kind of event to listen for
+	 * @param l		The listener to add
+	 */
+	public synchronized void subscribe(AllProperties type, Listener l) {
+		Listener[][] all = listeners.clone();
+		all[type.ordinal()] = append(all[type.ordinal()], l);
+		listeners = all;
+	}
+
+	/**
+	 * Call a listener whenever an event of a given kind is posted
+	 * @param type			The kind of event to listen for
+	 * @param l				The listener to add
+	 * @param onFxThread	True to call the listener on the JavaFX application thread,
+	 * 						whichever thread the event is posted from
+	 */
+	public void subscribe(AllProperties type, Listener l, boolean onFxThread) {
+		subscribe(type, onFxThread ? (Listener) (src, o, n) -> runOnFxThread(() -> l.onEvent(src, o, n)) : l);
+	}
+
+	/**
+	 * Call a listener whenever an int event of a given kind is posted
+	 * @param type	The kind of event to listen for
+	 * @param l		The listener to add
+	 */
+	public synchronized void subscribe(AllProperties type, IntListener l) {
+		IntListener[][] all = intListeners.clone();
+		all[type.ordinal()] = append(all[type.ordinal()], l);
+		intListeners = all;
+	}
+
+	/**
+	 * Call a listener whenever an int event of a given kind is posted
+	 * @param type			The kind of event to listen for
+	 * @param l				The listener to add
+	 * @param onFxThread	True to call the listener on the JavaFX application thread,
+	 * 						whichever thread the event is posted from
+	 */
+	public void subscribe(AllProperties type, IntListener l, boolean onFxThread) {
+		subscribe(type, onFxThread ? (IntListener) (src, v) -> runOnFxThread(() -> l.onEvent(src, v)) : l);
+	}
+
+	/**
+	 * Remove every listener of every kind of event
+	 */
+	public synchronized void clear() {
+		Listener[][] all = new Listener[listeners.length][];
+		IntListener[][] allInt = new IntListener[intListeners.length][];
+		Arrays.fill(all, NO_LISTENERS);
+		Arrays.fill(allInt, NO_INT_LISTENERS);
+		listeners = all;
+		intListeners = allInt;
+	}
+
+	/**
+	 * Post an event which carries a value
+	 * @param type		The kind of event
+	 * @param newValue	The value carried by the event
+	 */
+	public void post(AllProperties type, Object newValue) {
+		post(type, null, newValue);
+	}
+
+	/**
+	 * Post an event which carries a value and the value it replaces
+	 * @param type		The kind of event
+	 * @param oldValue	The previous value
+	 * @param newValue	The value carried by the event
+	 */
+	public void post(AllProperties type, Object oldValue, Object newValue) {
+		for (Listener l : listeners[type.ordinal()]) {
+			l.onEvent(source, oldValue, newValue);
+		}
+	}
+
+	/**
+	 * Post an event which carries an int.  IntListeners receive the value as it is, and
+	 * other listeners of the event receive it boxed.
+	 * @param type	The kind of event
+	 * @param value	The value carried by the event
+	 */
+	public void post(AllProperties type, int value) {
+		for (IntListener l : intListeners[type.ordinal()]) {
+			l.onEvent(source, value);
+		}
+
+		Listener[] boxed = listeners[type.ordinal()];
+		if (boxed.length != 0) {
+			post(type, null, Integer.valueOf(value));
+		}
+	}
+
+	private static void runOnFxThread(Runnable r) {
+		if (Platform.isFxApplicationThread()) {
+			r.run();
+		} else {
+			Platform.runLater(r);
+		}
+	}
+
+	private static <T> T[] append(T[] array, T item) {
+		T[] longer = Arrays.copyOf(array, array.length + 1);
+		longer[array.length] = item;
+		return longer;
+	}
+}
@@ -0,0 +1,126 @@
+package controller_view;
+
+import java.util.ArrayDeque;
+
+import model.board.GameClock;
+
+/**
+ * Holds the commands a player has given until the game is ready for them, so input is never
+ * lost while a turn plays out and is never handled in the middle of another command.
+ *
+ * Every command is stamped with the game time it was given at.  A command equal to one still
+ * waiting in the queue is dropped, as is a command repeating the last one accepted within a
+ * short window, such as a double click or a held key.  The queue holds a bounded number of
+ * commands, and drops commands given once it is full.
+ *
+ * Not thread safe, so only use it from the JavaFX application thread.
+ *
+ * @param <C>	The type of command, which must implement equals
+ * @author Andrew Dennison
+ */
+public class InputQueue<C> {
+
+	/**
+	 * A command and when it was given
+	 * @param command	The command
+	 * @param time		Game time in nanoseconds it was given at
+	 */
+	public record Timed<C>(C command, long time) {}
+
+	/**
+	 * How soon a command may be repeated by default, a little longer than a fast double click
+	 */
+	public static final long DEFAULT_REPEAT_NANOS = 150_000_000;
+
+	/**
+	 * How many commands are held by default
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	private final ArrayDeque<Timed<C>> queued = new ArrayDeque<Timed<C>>();
+	private final long repeatNanos;
+	private final int capacity;
+
+	/**
+	 * The last command accepted, which may already have been taken
+	 */
+	private Timed<C> last;
+
+	/**
+	 * Create a queue with the default repeat window and capacity
+	 */
+	public InputQueue() {
+		this(DEFAULT_REPEAT_NANOS, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Create a queue
+	 * @param repeatNanos	Nanoseconds of game time within which a repeated command is dropped
+	 * @param capacity		The most commands held at once
+	 */
+	public InputQueue(long repeatNanos, int capacity) {
+		this.repeatNanos = repeatNanos;
+		this.capacity = Math.max(1, capacity);
+	}
+
+	/**
+	 * Add a command to the back of the queue, unless it repeats a command already given
+	 * @param command	The command
+	 * @return			True if the command was queued, false if it was dropped
+	 */
+	public boolean offer(C command) {
+		long now = GameClock.getDefault().now();
+		if (last != null && last.command().equals(command) && now - last.time() < repeatNanos) {
+			return false;
+		}
+
+		if (queued.size() >= capacity || isQueued(command)) {
+			return false;
+		}
+
+		last = new Timed<C>(command, now);
+		queued.add(last);
+		return true;
+	}
+
+	private boolean isQueued(C command) {
+		for (Timed<C> t : queued) {
+			if (t.command().equals(command)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Take the command at the front of the queue
+	 * @return	The oldest command, or null if the queue is empty
+	 */
+	public Timed<C> poll() {
+		return queued.poll();
+	}
+
+	/**
+	 * Get the number of commands waiting
+	 * @return	The number of commands in the queue
+	 */
+	public int size() {
+		return queued.size();
+	}
+
+	/**
+	 * Determine whether any command is waiting
+	 * @return	True if the queue is empty
+	 */
+	public boolean isEmpty() {
+		return queued.isEmpty();
+	}
+
+	/**
+	 * Drop every waiting command, and forget the last one given
+	 */
+	public void clear() {
+		queued.clear();
+		last = null;
+	}
+}
@@ -0,0 +1,55 @@
+package controller_view;
+
+import model.animations.HitResultAnimation;
+
+/**
+ * How quickly turns are played out on screen.  Pacing only changes how long moves take to
+ * show, never how they are resolved.
+ *
+ * @author Andrew Dennison
+ */
+public enum Pacing {
+	/**
+	 * Every move plays its full animation before the AI replies
+	 */
+	NORMAL("Normal", 1),
+
+	/**
+	 * Animations play at four times the normal speed
+	 */
+	FAST("Fast", 0.25),
+
+	/**
+	 * Turns are resolved as quickly as the game can, and only their results are drawn
+	 */
+	INSTANT("Instant", 0);
+
+	private final String label;
+	private final double scale;
+
+	private Pacing(String label, double scale) {
+		this.label = label;
+		this.scale = scale;
+	}
+
+	/**
+	 * Get how long the animation of a move lasts at this pacing
+	 * @return	Nanoseconds from a move being drawn to its marker being left, or 0 for no animation
+	 */
+	public long hitNanos() {
+		return (long) (HitResultAnimation.HIT_DURATION * 1000000 * scale);
+	}
+
+	/**
+	 * Get the pacing which follows this one, so a single button can cycle through them all
+	 * @return	The next pacing, wrapping back to NORMAL
+	 */
+	public Pacing next() {
+		return values()[(ordinal() + 1) % values().length];
+	}
+
+	@Override
+	public String toString() {
+		return label;
+	}
+}
@@ -1,8 +1,6 @@
 package controller_view;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.util.ArrayList;
+import java.lang.ref.SoftReference;
 
 import controller_view.screens.GameOverScreen;
 import controller_view.screens.GamePlayScreen;
@@ -10,21 +8,23 @@ import controller_view.screens.HelpScreen;
 import controller_view.screens.OptionsScreen;
 import controller_view.screens.ShipPickScreen;
 import controller_view.screens.StartScreen;
+import controller_view.screens.LoadingScreen;
 import javafx.application.Application;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.layout.BorderPane;
-import javafx.scene.media.Media;
-import javafx.scene.media.MediaPlayer;
 import javafx.stage.Stage;
 import model.ai.Difficulties;
+import model.board.GameClock;
 
 /**
  * The overaching container which runs the entire Battleship game
  * 
  * @author Andrew Dennison
  */
-public class PlayBattleship extends Application implements PropertyChangeListener{
+public class PlayBattleship extends Application {
 	
 	/**
 	 * When the game is launched, immediately start the JavaFX application
@@ -34,12 +34,20 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 		launch();
 	}
 	
+	/*
+	 * Screens are created the first time they are navigated to, so null means not yet created
+	 */
 	private StartScreen 	startScene;
 	private ShipPickScreen 	shipPickScene;
 	private OptionsScreen 	optionsScene;
 	private GamePlayScreen 	gamePlayScene;
 	private GameOverScreen 	gameOverScene;
-	private HelpScreen 	   	helpScene;
+	
+	/**
+	 * The help screen is rarely opened and holds large images, so it may be reclaimed
+	 * once it is no longer shown and is created again when it is next opened
+	 */
+	private SoftReference<HelpScreen> helpScene = new SoftReference<HelpScreen>(null);
 	
 	/**
 	 * The stage on which all screens are displayed
@@ -67,53 +75,150 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 	private static Difficulties playerDifficulty;
 	
 	/**
-	 * True if the game is in fullscreen mode, false otherwise
+	 * How quickly turns are played out
 	 */
-	private boolean isFullscreen;
+	private Pacing pacing = Pacing.NORMAL;
 	
 	/**
-	 * Current volume of all sound effects from 0.0 to 1.0
+	 * True if the game is in fullscreen mode, false otherwise
 	 */
-	private double soundSetting;
+	private boolean isFullscreen;
 	
 	/**
-	 * A list of all MediaPlayers currently producing sound
+	 * Plays every sound of the game
 	 */
-	private ArrayList<MediaPlayer> activeMediaPlayers;
+	private SoundEngine sounds;
 	
 	/**
 	 * True if a game is being played, false if the user is in the menu but not at the gameplay screen yet
 	 */
 	private boolean gameRunning = false;
+	
+	/**
+	 * Decodes images and sounds in the background
+	 */
+	private AssetLoader assets;
+	
+	/**
+	 * True while the window is minimized or another window has focus, when the game is paused
+	 */
+	private boolean inBackground;
+	
+	/**
+	 * The background of the StartScreen, which is decoded before anything else
+	 */
+	private static final String START_BACKGROUND = "/img/jersey.jpg";
+	
+	/**
+	 * Backgrounds of the other screens, in the order a player usually reaches them
+	 */
+	private static final String[] SCREEN_BACKGROUNDS = { "/img/west.jpg", "/img/bo.jpg", "/img/sunset.jpg" };
 				
 	@Override
 	public void start(Stage mainStage) throws Exception {
 		instance = this;
 		
+		// Leave a processor free for the JavaFX application thread
+		assets = new AssetLoader(Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+		// Backgrounds are decoded at the size the screens are created at
+		assets.loadImage(START_BACKGROUND, LAUNCH_WIDTH, LAUNCH_HEIGHT, AssetLoader.URGENT);
+		for (String background : SCREEN_BACKGROUNDS) {
+			assets.loadImage(background, LAUNCH_WIDTH, LAUNCH_HEIGHT, AssetLoader.NORMAL);
+		}
+		
 		initSound();
-		initScenes();
 		
 		stage = mainStage;
-		stage.setScene(startScene);
+		LoadingScreen loadingScene = new LoadingScreen(new BorderPane(), LAUNCH_WIDTH, LAUNCH_HEIGHT);
+		assets.events().subscribe(AllProperties.ASSET_LOADED, (source, oldValue, progress) -> {
+			loadingScene.setProgress((double) progress);
+		});
+		stage.setScene(loadingScene);
 		String imgPath = getClass().getResource("/img/patrolTDL.png").toExternalForm();
 		stage.getIcons().add(new Image(imgPath));
 		stage.setTitle("Battleship");
-		stage.show();		
+		
+		// Save power while nobody is looking at the game
+		InvalidationListener backgroundChanged = (observable) -> setInBackground(stage.isIconified() || !stage.isFocused());
+		stage.iconifiedProperty().addListener(backgroundChanged);
+		stage.focusedProperty().addListener(backgroundChanged);
+		stage.show();
+		
+		// Build the StartScreen after the first frame, and show it once its background is ready
+		Platform.runLater(() -> {
+			startScene = (StartScreen) getNewScreen("start");
+			assets.whenImageReady(START_BACKGROUND, LAUNCH_WIDTH, LAUNCH_HEIGHT, AssetLoader.URGENT, (img) -> {
+				changeScene(startScene);
+			});
+		});
+	}
+	
+	@Override
+	public void stop() {
+		if (gameOverScene != null) {
+			gameOverScene.close();
+		}
 	}
 	
 	/**
-	 * Create and register each Screen with the main application
+	 * Get the OptionsScreen, creating it on first use
+	 * @return	The options screen
 	 */
-	private void initScenes() {
-		helpScene 		= (HelpScreen) 		getNewScreen("help");
-		startScene 		= (StartScreen) 	getNewScreen("start");
-		shipPickScene 	= (ShipPickScreen) 	getNewScreen("shipPicker");
-		optionsScene 	= (OptionsScreen) 	getNewScreen("options");
-		gamePlayScene 	= (GamePlayScreen) 	getNewScreen("gameplay");
-		gameOverScene 	= (GameOverScreen) 	getNewScreen("gameover");
-
-		shipPickScene.addListener(gamePlayScene);
-		gamePlayScene.addListener(gameOverScene);
+	private OptionsScreen optionsScene() {
+		if (optionsScene == null) {
+			optionsScene = (OptionsScreen) getNewScreen("options");
+		}
+		return optionsScene;
+	}
+	
+	/**
+	 * Get the ShipPickScreen, creating it on first use.  The GamePlayScreen it hands the
+	 * player's ships to is created along with it.
+	 * @return	The ship picking screen
+	 */
+	private ShipPickScreen shipPickScene() {
+		if (shipPickScene == null) {
+			shipPickScene = (ShipPickScreen) getNewScreen("shipPicker");
+			gamePlayScene().listenTo(shipPickScene.events());
+		}
+		return shipPickScene;
+	}
+	
+	/**
+	 * Get the GamePlayScreen, creating it on first use along with the GameOverScreen
+	 * which listens for the end of the game
+	 * @return	The gameplay screen
+	 */
+	private GamePlayScreen gamePlayScene() {
+		if (gamePlayScene == null) {
+			gamePlayScene = (GamePlayScreen) getNewScreen("gameplay");
+			gameOverScene().listenTo(gamePlayScene.events());
+		}
+		return gamePlayScene;
+	}
+	
+	/**
+	 * Get the GameOverScreen, creating it on first use
+	 * @return	The game over screen
+	 */
+	private GameOverScreen gameOverScene() {
+		if (gameOverScene == null) {
+			gameOverScene = (GameOverScreen) getNewScreen("gameover");
+		}
+		return gameOverScene;
+	}
+	
+	/**
+	 * Get the HelpScreen, creating it again if it has been reclaimed
+	 * @return	The help screen
+	 */
+	private HelpScreen helpScene() {
+		HelpScreen help = helpScene.get();
+		if (help == null) {
+			help = (HelpScreen) getNewScreen("help");
+			helpScene = new SoftReference<HelpScreen>(help);
+		}
+		return help;
 	}
 	
 	/**
@@ -142,68 +247,72 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 			
 		}
 		
-		s.addListener(this);
+		s.events().subscribe(AllProperties.SWITCH_SCREEN, this::onSwitchScreen);
+		s.events().subscribe(AllProperties.SET_FULLSCREEN, this::onToggleFullscreen);
+		s.events().subscribe(AllProperties.HELP_SCREEN, (source, from, to) -> switchScreenTo(AllProperties.HELP_SCREEN));
 		return s;
 	}
 
-	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		String prop = evt.getPropertyName();
+	/**
+	 * Logic for switching screens
+	 * @param source	The screen asking to switch
+	 * @param from		The screen being left, or RESET_GAME to reset the game on the way
+	 * @param to		The screen to show
+	 */
+	private void onSwitchScreen(Object source, Object from, Object to) {
+		AllProperties goingTo = (AllProperties) to;	
+		AllProperties comingFrom = (AllProperties) from;
 		
-		// Logic for switching screens
-		if (prop.equals(AllProperties.SWITCH_SCREEN.property())) {
-			AllProperties goingTo = (AllProperties) evt.getNewValue();	
-			AllProperties comingFrom = (AllProperties) evt.getOldValue();
-			
-			// Store the last screen if we are going to the options screen
-			if (goingTo == AllProperties.OPEN_OPTIONS) {
-				optionsScene.setReturn(comingFrom);
-			}
-			
-			// Reset each scene if the gameplay loop is restarting
-			if (comingFrom == AllProperties.RESET_GAME) {
+		// Store the last screen if we are going to the options screen
+		if (goingTo == AllProperties.OPEN_OPTIONS) {
+			optionsScene().setReturn(comingFrom);
+		}
+		
+		// Reset each scene if the gameplay loop is restarting, unless it has not been created yet
+		if (comingFrom == AllProperties.RESET_GAME) {
+			if (shipPickScene != null) {
 				shipPickScene.reset();
-				gamePlayScene.reset();
 			}
-			
-			switchScreenTo(goingTo);
-		} 
-		
-		// Logic for manipulating fullscreen mode
-		if (prop.equals(AllProperties.SET_FULLSCREEN.property())) {
-			isFullscreen = !isFullscreen;
-			stage.setMaximized(isFullscreen);
-			stage.setFullScreen(isFullscreen);
-			if (!isFullscreen) {
-				stage.setWidth(LAUNCH_WIDTH);
-				stage.setHeight(LAUNCH_HEIGHT);
+			if (gamePlayScene != null) {
+				gamePlayScene.reset();
 			}
 		}
 		
-	    // Check if the property change event is for switching to the Help Screen
-	    if (prop.equals(AllProperties.HELP_SCREEN.property())) {
-	        switchScreenTo(AllProperties.HELP_SCREEN); // Switch to the Help Screen
-	    }
+		switchScreenTo(goingTo);
+	}
+	
+	/**
+	 * Logic for manipulating fullscreen mode
+	 */
+	private void onToggleFullscreen(Object source, Object from, Object to) {
+		isFullscreen = !isFullscreen;
+		stage.setMaximized(isFullscreen);
+		stage.setFullScreen(isFullscreen);
+		if (!isFullscreen) {
+			stage.setWidth(LAUNCH_WIDTH);
+			stage.setHeight(LAUNCH_HEIGHT);
+		}
 	}
 	
 	/**
 	 * Utility function to queue up a different stage than is currently on the screen.
+	 * Screens are created the first time they are switched to.
 	 * @param nextScreen	Enum representation of the screen to switch to.
 	 */
 	private void switchScreenTo(AllProperties nextScreen) {
 		switch(nextScreen) {
-			case OPEN_OPTIONS:	changeScene(optionsScene);		break;
+			case OPEN_OPTIONS:	changeScene(optionsScene());	break;
 			case BACK_TO_MENU: 	changeScene(startScene);		break;
-			case START_GAME:	changeScene(shipPickScene);		break;
-			case HELP_SCREEN:	changeScene(helpScene);			break;
+			case START_GAME:	changeScene(shipPickScene());	break;
+			case HELP_SCREEN:	changeScene(helpScene());		break;
 			case DISPLAY_BOARD:
 				if (!gameRunning) {
 					gameRunning = true;
 				}
-				changeScene(gamePlayScene);
+				changeScene(gamePlayScene());
 				break;
 				
-			case GAME_OVER:		changeScene(gameOverScene);		break;
+			case GAME_OVER:		changeScene(gameOverScene());	break;
 			default:											break;
 		}
 	}
@@ -213,17 +322,46 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 	 * @param s	Scene to change to
 	 */
 	private void changeScene(Scene s) {
+		if (stage.getScene() instanceof SwitchableScreen old && old != s) {
+			old.onHidden();
+		}
+		
 		stage.setScene(s);
+		if (s instanceof SwitchableScreen next) {
+			next.onShown();
+		}
+		
 		stage.setMaximized(isFullscreen);
 		stage.setFullScreen(isFullscreen);
 	}
 	
 	/**
-	 * Initialize the game's sound.
+	 * Pause the whole game while it is in the background, and carry it on seamlessly when it
+	 * comes back.  The game clock holds every timer and animation, and the sound engine the
+	 * music, so nothing is left running and the game uses next to no processor time.
+	 * @param background	True if the window was minimized or lost focus
+	 */
+	private void setInBackground(boolean background) {
+		if (background == inBackground) {
+			return;
+		}
+		inBackground = background;
+		
+		if (background) {
+			GameClock.getDefault().pause();
+			sounds.suspend();
+		} else {
+			GameClock.getDefault().resume();
+			sounds.resume();
+		}
+	}
+	
+	/**
+	 * Initialize the game's sound, preloading the sound every screen plays.
 	 */
 	private void initSound() {
-		soundSetting = 0.01;
-		activeMediaPlayers = new ArrayList<MediaPlayer>();
+		sounds = new SoundEngine(assets, 0.01);
+		sounds.preload(SwitchableScreen.BUTTON_CLICK_SOUND);
 	}
 	
 	/**
@@ -232,24 +370,11 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 	 * @param isInfinite	True if this should loop indefinitely, false otherwise
 	 */
 	public void playSound(String resource, boolean isInfinite) {
-		Media m = new Media(getClass().getResource(resource).toExternalForm());
-		MediaPlayer mp = new MediaPlayer(m);
-		
 		if (isInfinite) {
-			mp.setOnEndOfMedia(()->{
-				mp.seek(mp.getStartTime());
-				mp.setVolume(soundSetting);
-				mp.play();
-			});
+			sounds.loop(resource);
 		} else {
-			mp.setOnEndOfMedia(()->{
-				activeMediaPlayers.remove(mp);
-			});
+			sounds.play(resource);
 		}
-				
-		mp.setVolume(soundSetting);
-		activeMediaPlayers.add(mp);
-		mp.play();
 	}
 	
 	/**
@@ -260,6 +385,22 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 		return instance;
 	}
 	
+	/**
+	 * Get the loader decoding this instance's images and sounds
+	 * @return	The asset loader
+	 */
+	public AssetLoader getAssets() {
+		return assets;
+	}
+	
+	/**
+	 * Get the engine playing this instance's sounds
+	 * @return	The sound engine
+	 */
+	public SoundEngine getSounds() {
+		return sounds;
+	}
+	
 	/**
 	 * Get the current difficulty setting for the game
 	 * @return	The currently active difficulty setting
@@ -273,11 +414,7 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 	 * @param newSoundLevel	New sound level from 0.0 to 1.0
 	 */
 	public void setSoundLevel(double newSoundLevel) {
-		soundSetting = newSoundLevel;
-		
-		for (MediaPlayer mp : activeMediaPlayers) {
-			mp.setVolume(soundSetting);
-		}
+		sounds.setVolume(newSoundLevel);
 	}
 	
 	/**
@@ -287,5 +424,21 @@ public class PlayBattleship extends Application implements PropertyChangeListene
 	public void setDifficulty(Difficulties d) {
 		playerDifficulty = d;
 	}
+	
+	/**
+	 * Get how quickly turns are played out
+	 * @return	The pacing chosen in the options
+	 */
+	public Pacing getPacing() {
+		return pacing;
+	}
+	
+	/**
+	 * Set how quickly turns are played out, from the next time the game is shown
+	 * @param p	The new pacing
+	 */
+	public void setPacing(Pacing p) {
+		pacing = p;
+	}
 
 }
@@ -0,0 +1,219 @@
+package controller_view;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javafx.beans.property.DoubleProperty;
+import javafx.beans.property.SimpleDoubleProperty;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+/**
+ * Plays every sound in the game from a fixed set of reusable players.
+ *
+ * Each sound effect gets a small pool of MediaPlayers, created once the sound is decoded,
+ * which are rewound and replayed rather than created for every play.  A pool never grows:
+ * once all of its voices are playing, the voice which started longest ago is cut off and
+ * reused.  Plays of the same effect closer together than a single frame are dropped, since
+ * they cannot be heard apart.
+ *
+ * Every player's volume is bound to one volume bus, so changing the volume touches no players.
+ * Must only be used from the JavaFX application thread.
+ *
+ * @author Andrew Dennison
+ */
+public class SoundEngine {
+
+	/**
+	 * The most copies of one sound effect which can play at once
+	 */
+	public static final int VOICES_PER_EFFECT = 4;
+
+	/**
+	 * Plays of the same effect closer together than this are dropped
+	 */
+	private static final long MIN_RETRIGGER_NANOS = 16_000_000;
+
+	/**
+	 * The pool of players for one sound effect
+	 */
+	private class Voices {
+		private final MediaPlayer[] players = new MediaPlayer[VOICES_PER_EFFECT];
+
+		/**
+		 * The player to use next, which is always the one started longest ago
+		 */
+		private int next;
+		private long lastStart;
+
+		Voices(Media m) {
+			for (int i = 0; i < players.length; i++) {
+				players[i] = newPlayer(m);
+			}
+			lastStart = System.nanoTime() - MIN_RETRIGGER_NANOS;
+		}
+
+		void stop() {
+			for (MediaPlayer mp : players) {
+				mp.stop();
+			}
+		}
+
+		void play() {
+			long now = System.nanoTime();
+			if (now - lastStart < MIN_RETRIGGER_NANOS) {
+				return;
+			}
+			lastStart = now;
+
+			// Steal the voice if it is still playing, rather than adding another player
+			MediaPlayer mp = players[next];
+			next = (next + 1) % players.length;
+			mp.stop();
+			mp.play();
+		}
+	}
+
+	private final AssetLoader assets;
+
+	/**
+	 * The volume of every sound from 0.0 to 1.0
+	 */
+	private final DoubleProperty volume = new SimpleDoubleProperty();
+
+	/**
+	 * The voices of each sound effect, by resource.  Sounds which could not be decoded map to null.
+	 */
+	private final Map<String, Voices> effects = new HashMap<String, Voices>();
+
+	/**
+	 * The sound being looped, and its resource
+	 */
+	private MediaPlayer music;
+	private String musicResource;
+
+	/**
+	 * True while the game is in the background, when no sound plays
+	 */
+	private boolean suspended;
+
+	/**
+	 * Create a sound engine
+	 * @param assets	The loader which decodes the sounds
+	 * @param volume	The starting volume from 0.0 to 1.0
+	 */
+	public SoundEngine(AssetLoader assets, double volume) {
+		this.assets = assets;
+		this.volume.set(volume);
+	}
+
+	/**
+	 * Decode a sound effect in the background and create its voices, so it plays without delay
+	 * the first time
+	 * @param resource	Classpath resource of the sound, e.g. "/audio/buttonClick.mp3"
+	 */
+	public void preload(String resource) {
+		if (effects.containsKey(resource)) {
+			return;
+		}
+
+		assets.whenSoundReady(resource, AssetLoader.BACKGROUND, (m) -> {
+			if (!effects.containsKey(resource)) {
+				effects.put(resource, m == null ? null : new Voices(m));
+			}
+		});
+	}
+
+	/**
+	 * Play a sound effect once.  Sounds which were not preloaded are decoded now.
+	 * @param resource	Classpath resource of the sound
+	 */
+	public void play(String resource) {
+		if (suspended) {
+			return;
+		}
+
+		if (!effects.containsKey(resource)) {
+			Media m = assets.sound(resource);
+			effects.put(resource, m == null ? null : new Voices(m));
+		}
+
+		Voices v = effects.get(resource);
+		if (v != null) {
+			v.play();
+		}
+	}
+
+	/**
+	 * Play a sound over and over, replacing any sound already looping
+	 * @param resource	Classpath resource of the sound
+	 */
+	public void loop(String resource) {
+		if (resource.equals(musicResource)) {
+			return;
+		}
+
+		if (music != null) {
+			music.dispose();
+			music = null;
+		}
+		musicResource = resource;
+
+		Media m = assets.sound(resource);
+		if (m != null) {
+			music = newPlayer(m);
+			music.setCycleCount(MediaPlayer.INDEFINITE);
+			if (!suspended) {
+				music.play();
+			}
+		}
+	}
+
+	/**
+	 * Silence the game while it is in the background.  The music is paused where it is and
+	 * sound effects are cut off, and no sound plays until the engine is resumed.
+	 */
+	public void suspend() {
+		suspended = true;
+		if (music != null) {
+			music.pause();
+		}
+		for (Voices v : effects.values()) {
+			if (v != null) {
+				v.stop();
+			}
+		}
+	}
+
+	/**
+	 * Carry on the music from where it was suspended, and let sound effects play again
+	 */
+	public void resume() {
+		suspended = false;
+		if (music != null) {
+			music.play();
+		}
+	}
+
+	/**
+	 * Set the volume of every sound, including those already playing
+	 * @param level	New volume from 0.0 to 1.0
+	 */
+	public void setVolume(double level) {
+		volume.set(level);
+	}
+
+	/**
+	 * Get the volume of every sound
+	 * @return	The volume from 0.0 to 1.0
+	 */
+	public double getVolume() {
+		return volume.get();
+	}
+
+	private MediaPlayer newPlayer(Media m) {
+		MediaPlayer mp = new MediaPlayer(m);
+		mp.volumeProperty().bind(volume);
+		return mp;
+	}
+}
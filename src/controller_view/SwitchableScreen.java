@@ -1,9 +1,11 @@
 package controller_view;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
-
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.beans.InvalidationListener;
+import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.scene.Scene;
 import javafx.scene.image.Image;
 import javafx.scene.layout.Background;
@@ -14,6 +16,8 @@ import javafx.scene.layout.BackgroundSize;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import javafx.util.Duration;
+import model.board.GameClock;
 
 /**
  * Parent class of all Scenes in the Battleship game.
@@ -23,10 +27,10 @@ import javafx.scene.text.FontWeight;
  * 
  * @author Andrew Dennison
  */
-public abstract class SwitchableScreen extends Scene implements PropertyChangeListener{
+public abstract class SwitchableScreen extends Scene {
 	
 	protected BorderPane window;
-	protected PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+	protected EventBus events = new EventBus(this);
 	protected static final String BUTTON_CLICK_SOUND = "/audio/buttonClick.mp3";
 	
 	/**
@@ -38,47 +42,170 @@ public abstract class SwitchableScreen extends Scene implements PropertyChangeLi
 	 * Smaller than the title font, but larger than any individual elements should be
 	 */
 	protected static final Font BUTTON_FONT = Font.font("Arial", FontWeight.BOLD, 40);
+	
+	/**
+	 * How long the screen must keep the same size before it is laid out again at that size
+	 */
+	private static final Duration RESIZE_DELAY = Duration.millis(250);
+	
+	/**
+	 * Restarted by every change to the screen's size, and calls onResized once they stop
+	 */
+	private PauseTransition resizeTimer = new PauseTransition(RESIZE_DELAY);
+	
+	/**
+	 * The background image of this screen, or null for no image
+	 */
+	private String backgroundResource;
+	
+	/**
+	 * The size in pixels the background was last requested at
+	 */
+	private double backgroundWidth;
+	private double backgroundHeight;
 		
 	/**
 	 * Create a new SwitchableScreen of a particular size
 	 * @param root					The root node of this scene
 	 * @param width					The width of the scene
 	 * @param height				The height of the scene
-	 * @param backgroundResource	The path to the resource containing the background image for this screen
+	 * @param backgroundResource	The path to the resource containing the background image for this screen,
+	 * 								or null for no image
 	 */
 	public SwitchableScreen(BorderPane root, double width, double height, String backgroundResource) {
 		super(root, width, height);
 		window = root;
 		setBackground(backgroundResource);
+		
+		// Resizing the window fires many events, so only act on the size it settles at.  Being put
+		// in a window may also change the density of the screen's pixels.
+		resizeTimer.setOnFinished((event) -> onResized(getWidth(), getHeight()));
+		InvalidationListener sizeChanged = (observable) -> resizeTimer.playFromStart();
+		widthProperty().addListener(sizeChanged);
+		heightProperty().addListener(sizeChanged);
+		windowProperty().addListener(sizeChanged);
 	}
 	
 	/**
-	 * Fire an event for this scene
-	 * @param pce	Event to fire
+	 * Ask the main window to switch to another screen
+	 * @param from	The screen being left, or RESET_GAME to reset the game on the way
+	 * @param to	The screen to show
 	 */
-	protected void fireEvent(PropertyChangeEvent pce) {
-		pcs.firePropertyChange(pce);
+	protected void switchScreen(AllProperties from, AllProperties to) {
+		events.post(AllProperties.SWITCH_SCREEN, from, to);
 	}
 	
 	/**
-	 * Add a listener to this scene
-	 * @param pcl	The listener to add
+	 * Get the events of this scene, to add listeners to
+	 * @return	The bus this scene posts its events to
 	 */
-	public void addListener(PropertyChangeListener pcl) {
-		pcs.addPropertyChangeListener(pcl);
+	public EventBus events() {
+		return events;
 	}
 	
-	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
+	/**
+	 * Called once the size of this screen has stopped changing, such as after switching to
+	 * fullscreen.  Decodes the background again at the new size; screens which draw at a
+	 * size that depends on the window should override this and call it.
+	 * @param width		The new width of the screen in pixels
+	 * @param height	The new height of the screen in pixels
+	 */
+	protected void onResized(double width, double height) {
+		setBackground(backgroundResource);
+	}
+	
+	/**
+	 * Called when this screen is put on the stage
+	 */
+	public void onShown() {
 		// Shell function, which does nothing
 	}
 	
+	/**
+	 * Called when another screen replaces this one on the stage.  Screens should stop
+	 * any timers here, so screens which are no longer used can be reclaimed.
+	 */
+	public void onHidden() {
+		// Shell function, which does nothing
+	}
+	
+	/**
+	 * Play an animation in game time, so it runs at the game clock's speed and holds its
+	 * frame while the clock is paused
+	 * @param animation	The animation to play from the start
+	 */
+	protected static void playOnClock(Animation animation) {
+		GameClock clock = GameClock.getDefault();
+		GameClock.Listener follow = (c) -> Platform.runLater(() -> follow(animation, c));
+		
+		clock.addListener(follow);
+		EventHandler<ActionEvent> finished = animation.getOnFinished();
+		animation.setOnFinished((e) -> {
+			clock.removeListener(follow);
+			if (finished != null) {
+				finished.handle(e);
+			}
+		});
+		
+		animation.playFromStart();
+		follow(animation, clock);
+	}
+	
+	private static void follow(Animation animation, GameClock clock) {
+		if (animation.getStatus() == Animation.Status.STOPPED) {
+			return;
+		}
+		
+		if (clock.isPaused() || clock.getScale() == 0) {
+			animation.pause();
+		} else {
+			animation.setRate(clock.getScale());
+			animation.play();
+		}
+	}
+	
 	protected void playSound(String resource, boolean isInfinite) {
 		PlayBattleship.getInstance().playSound(resource, isInfinite);
 	}
 	
+	/**
+	 * Decode a sound in the background, so it is ready before it is first played
+	 * @param resource	The sound to decode
+	 */
+	protected void preloadSound(String resource) {
+		PlayBattleship.getInstance().getSounds().preload(resource);
+	}
+	
+	/**
+	 * Show an image behind this screen once the AssetLoader has decoded it at the screen's size.
+	 * The current background stays until the new one is ready.
+	 * @param resource	The image to show
+	 */
 	protected void setBackground(String resource) {
-		Image backgroundImage = new Image(getClass().getResource(resource).toExternalForm());
+		backgroundResource = resource;
+		if (resource == null) {
+			return;
+		}
+		
+		// Decode at the size of the screen's pixels, which are larger than its units on high density displays
+		double scale = getWindow() == null ? 1 : getWindow().getOutputScaleX();
+		double width = getWidth() * scale;
+		double height = getHeight() * scale;
+		if (width == backgroundWidth && height == backgroundHeight) {
+			return;
+		}
+		backgroundWidth = width;
+		backgroundHeight = height;
+		
+		PlayBattleship.getInstance().getAssets().whenImageReady(resource, width, height, AssetLoader.NORMAL, (img) -> {
+			// Skip images which were requested for a size the screen has since left
+			if (img != null && resource.equals(backgroundResource) && width == backgroundWidth && height == backgroundHeight) {
+				showBackground(img);
+			}
+		});
+	}
+	
+	private void showBackground(Image backgroundImage) {
 		BackgroundSize bs = new BackgroundSize(100.0, 100.0, true, true, true, true);
 		BackgroundRepeat br = BackgroundRepeat.NO_REPEAT;
 		BackgroundPosition bp = BackgroundPosition.CENTER;
@@ -0,0 +1,208 @@
+package controller_view;
+
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javafx.application.Platform;
+import model.board.GameClock;
+import model.board.GameThread;
+import model.board.MoveResult;
+
+/**
+ * Plays the turns of a game in order, keeping when the rules are resolved apart from how long
+ * their results take to show.
+ *
+ * A turn moves through four states.  While WAITING, the player's next input is taken from the
+ * queue and RESOLVING it begins on the game-logic thread.  Once the result is drawn the turn is
+ * ANIMATING for as long as the pacing says the move takes to show, then the AI's reply is
+ * REPLYING on the game-logic thread, and once the reply is drawn the next input is taken.
+ * At INSTANT pacing the input and the reply are resolved together and only their results drawn.
+ *
+ * Inputs given while a turn is in progress are queued rather than dropped, though an input
+ * repeating one still queued is ignored.  Every method must be called on the JavaFX application
+ * thread, which is also where results are drawn.
+ *
+ * @param <I>	An input of the player, such as a click on a board
+ * @param <T>	What the player's input did, worked out on the game-logic thread
+ * @author Andrew Dennison
+ */
+public class TurnScheduler<I, T> {
+
+	/**
+	 * The stage a turn is in
+	 */
+	public enum State {
+		/**
+		 * No turn is in progress, and the queue is empty
+		 */
+		WAITING,
+
+		/**
+		 * The player's input is being resolved
+		 */
+		RESOLVING,
+
+		/**
+		 * The player's move is being shown before the AI replies
+		 */
+		ANIMATING,
+
+		/**
+		 * The AI's reply is being resolved
+		 */
+		REPLYING
+	}
+
+	/**
+	 * A resolved input, and the AI's reply if it was resolved with it
+	 * @param turn		What the input did
+	 * @param replies	True if the AI answers the input
+	 * @param reply		The AI's reply, or null if it is resolved later or not at all
+	 */
+	private record Resolved<T>(T turn, boolean replies, MoveResult reply) {}
+
+	private final GameThread logic;
+	private final Function<I, T> resolve;
+	private final Predicate<T> expectsReply;
+	private final Supplier<MoveResult> reply;
+	private final Consumer<T> showTurn;
+	private final Consumer<MoveResult> showReply;
+
+	private final InputQueue<I> queued = new InputQueue<I>();
+
+	/**
+	 * Waits on the game clock for the player's move to show, so pausing the game holds the AI's reply
+	 */
+	private GameClock.Timer animation;
+
+	private State state = State.WAITING;
+	private Pacing pacing = Pacing.NORMAL;
+
+	/**
+	 * Incremented by every reset, so results of turns from before the reset are ignored
+	 */
+	private int round;
+
+	/**
+	 * Create a scheduler for one screen's turns
+	 * @param logic			The thread the rules are resolved on
+	 * @param resolve		Resolves an input of the player, on the game-logic thread
+	 * @param expectsReply	Decides whether the AI answers a resolved input, on the game-logic thread
+	 * @param reply			Resolves the AI's reply, on the game-logic thread, or returns null if there is none
+	 * @param showTurn		Draws what an input did, on the JavaFX application thread
+	 * @param showReply		Draws the AI's reply, on the JavaFX application thread
+	 */
+	public TurnScheduler(GameThread logic, Function<I, T> resolve, Predicate<T> expectsReply,
+			Supplier<MoveResult> reply, Consumer<T> showTurn, Consumer<MoveResult> showReply) {
+		this.logic = logic;
+		this.resolve = resolve;
+		this.expectsReply = expectsReply;
+		this.reply = reply;
+		this.showTurn = showTurn;
+		this.showReply = showReply;
+	}
+
+	/**
+	 * Queue an input of the player, which is played as soon as every input before it has been
+	 * @param input	The input to play
+	 * @return		True if the input was queued, false if it repeated an input already given
+	 */
+	public boolean submit(I input) {
+		if (!queued.offer(input)) {
+			return false;
+		}
+
+		if (state == State.WAITING) {
+			nextTurn();
+		}
+		return true;
+	}
+
+	/**
+	 * Change how long moves are shown for, starting with the next turn
+	 * @param p	The pacing chosen in the options
+	 */
+	public void setPacing(Pacing p) {
+		pacing = p;
+	}
+
+	/**
+	 * Get the stage of the current turn
+	 * @return	WAITING if no turn is in progress
+	 */
+	public State getState() {
+		return state;
+	}
+
+	/**
+	 * Drop every queued input and forget the turn in progress, such as when the game ends
+	 */
+	public void reset() {
+		round++;
+		queued.clear();
+		if (animation != null) {
+			animation.cancel();
+			animation = null;
+		}
+		state = State.WAITING;
+	}
+
+	private void nextTurn() {
+		InputQueue.Timed<I> next = queued.poll();
+		if (next == null) {
+			state = State.WAITING;
+			return;
+		}
+		I input = next.command();
+
+		state = State.RESOLVING;
+		int r = round;
+		boolean instant = pacing == Pacing.INSTANT;
+
+		logic.submit(() -> {
+			T turn = resolve.apply(input);
+			boolean replies = expectsReply.test(turn);
+			return new Resolved<T>(turn, replies, instant && replies ? reply.get() : null);
+		}, (resolved) -> {
+			if (r != round) {
+				return;
+			}
+
+			// An input which could not be resolved is skipped, so the inputs after it still play
+			if (resolved == null) {
+				nextTurn();
+				return;
+			}
+
+			showTurn.accept(resolved.turn());
+			if (!resolved.replies()) {
+				nextTurn();
+			} else if (instant) {
+				replied(resolved.reply());
+			} else {
+				state = State.ANIMATING;
+				animation = GameClock.getDefault().schedule(pacing.hitNanos(), Platform::runLater, this::askForReply);
+			}
+		});
+	}
+
+	private void askForReply() {
+		animation = null;
+		state = State.REPLYING;
+		int r = round;
+		logic.submit(reply, (move) -> {
+			if (r == round) {
+				replied(move);
+			}
+		});
+	}
+
+	private void replied(MoveResult move) {
+		if (move != null) {
+			showReply.accept(move);
+		}
+		nextTurn();
+	}
+}
@@ -0,0 +1,238 @@
+package controller_view.board;
+
+import controller_view.AllProperties;
+import controller_view.EventBus;
+import javafx.geometry.Point2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseButton;
+import javafx.scene.paint.Color;
+import model.battleship.Ship;
+import model.battleship.ShipCollection;
+import model.board.Direction;
+
+/**
+ * Draws a whole board onto a single Canvas: the grid, the ships, the hit and miss markers
+ * and the animations of recent moves.
+ *
+ * This is an alternative to a BoardViewer and BoardOverlay, which together need over a
+ * hundred nodes per board.  Mouse positions are mapped to cells arithmetically, and the
+ * canvas fires the same BOARD_CLICK and MOUSE_OVER_EVENT notifications as a BoardViewer.
+ *
+ * @author Andrew Dennison
+ */
+public class BoardCanvas extends Canvas implements EffectLayer {
+
+	private static final int BOARD_SPACES = 10;
+
+	private static final double BORDER_WIDTH = 2;
+
+	/**
+	 * The object used to notify listeners of clicks and mouse overs
+	 */
+	private EventBus events = new EventBus(this);
+
+	private double cellSize;
+	private boolean showPreview;
+
+	/**
+	 * The cell under the mouse, or -1 if the mouse is outside the board
+	 */
+	private int hoveredCell = -1;
+
+	/**
+	 * The cell picked with the keyboard, or -1 if none is
+	 */
+	private int cursor = -1;
+
+	private ShipCollection ships;
+
+	private EffectScheduler effects;
+	private int id;
+
+	/**
+	 * Create a new board canvas
+	 * @param size			The length of one cell on the board
+	 * @param showPreview	True if this board should fire mouseOver events, false otherwise
+	 * @param effects		The scheduler playing the animations of every board on the screen
+	 */
+	public BoardCanvas(double size, boolean showPreview, EffectScheduler effects) {
+		super(size * BOARD_SPACES, size * BOARD_SPACES);
+		cellSize = size;
+		this.showPreview = showPreview;
+		this.effects = effects;
+		id = effects.register(this);
+		initEvents();
+	}
+
+	private void initEvents() {
+		setOnMouseMoved((event) -> {
+			int cell = cellAt(event.getX(), event.getY());
+			if (cell == hoveredCell) {
+				return;
+			}
+
+			hoveredCell = cell;
+			requestDraw();
+			if (cell != -1 && showPreview) {
+				events.post(AllProperties.MOUSE_OVER_EVENT, cell);
+			}
+		});
+
+		setOnMouseExited((event) -> {
+			hoveredCell = -1;
+			requestDraw();
+		});
+
+		setOnMouseClicked((event) -> {
+			int cell = cellAt(event.getX(), event.getY());
+			if (cell != -1 && event.getButton() == MouseButton.PRIMARY) {
+				events.post(AllProperties.BOARD_CLICK, cell);
+			}
+		});
+	}
+
+	/**
+	 * Change the size of every cell, redrawing the board at the new size
+	 * @param size	The new length of one cell on the board
+	 */
+	public void setCellSize(double size) {
+		cellSize = size;
+		setWidth(size * BOARD_SPACES);
+		setHeight(size * BOARD_SPACES);
+		requestDraw();
+	}
+
+	/**
+	 * Highlight the cell picked with the keyboard, as the cell under the mouse is
+	 * @param cell	The cell as y * 10 + x, or -1 to highlight none
+	 */
+	public void setCursor(int cell) {
+		cursor = cell;
+		requestDraw();
+	}
+
+	/**
+	 * Get the events of this canvas.  BOARD_CLICK and MOUSE_OVER_EVENT carry the cell as y * 10 + x.
+	 * @return	The bus to add listeners to
+	 */
+	public EventBus events() {
+		return events;
+	}
+
+	/**
+	 * Change the ships drawn on the board.  Only revealed ships are drawn.
+	 * @param allShips	The ships of the board
+	 */
+	public void setShips(ShipCollection allShips) {
+		ships = allShips;
+		requestDraw();
+	}
+
+	/**
+	 * Play the animation for a move and leave its marker on the cell
+	 * @param pos		Point2D to play the animation at
+	 * @param hitResult	-1 for a shield, 1 for a hit, 0 for a miss
+	 * @param hitNanos	How long the animation lasts before the marker is left, or 0 to leave the marker at once
+	 */
+	public void playMoveAnimation(Point2D pos, int hitResult, long hitNanos) {
+		BoardOverlay.addMoveEffects(effects, id, pos, hitResult, hitNanos);
+	}
+
+	/**
+	 * Clear every marker and animation
+	 */
+	public void reset() {
+		effects.clear(id);
+	}
+
+	/**
+	 * Find the cell under a position on the canvas
+	 * @param x	X coordinate in pixels
+	 * @param y	Y coordinate in pixels
+	 * @return	The cell as y * 10 + x, or -1 if the position is outside the board
+	 */
+	private int cellAt(double x, double y) {
+		int col = (int) Math.floor(x / cellSize);
+		int row = (int) Math.floor(y / cellSize);
+
+		if (col < 0 || col >= BOARD_SPACES || row < 0 || row >= BOARD_SPACES) {
+			return -1;
+		}
+		return row * BOARD_SPACES + col;
+	}
+
+	/**
+	 * Redraw the board on the next pulse
+	 */
+	private void requestDraw() {
+		effects.invalidate(id);
+	}
+
+	@Override
+	public void render(EffectScheduler effects, int id, long now) {
+		GraphicsContext gc = getGraphicsContext2D();
+		gc.clearRect(0, 0, getWidth(), getHeight());
+
+		drawShips(gc);
+		BoardOverlay.drawEffects(gc, effects, id, now, cellSize);
+		drawGrid(gc);
+	}
+
+	private void drawShips(GraphicsContext gc) {
+		if (ships == null) {
+			return;
+		}
+
+		for (Ship s : ships) {
+			if (!s.isRevealed()) {
+				continue;
+			}
+
+			double xPos = s.getStartPos().getX() * cellSize;
+			if (s.getFacingDirection() == Direction.LEFT) {
+				xPos -= (s.getLength() - 1) * cellSize;
+			}
+
+			double yPos = s.getStartPos().getY() * cellSize;
+			if (s.getFacingDirection() == Direction.UP) {
+				yPos -= (s.getLength() - 1) * cellSize;
+			}
+
+			gc.drawImage(SpriteCache.ship(s, cellSize), xPos, yPos);
+		}
+	}
+
+	private void drawGrid(GraphicsContext gc) {
+		gc.setLineWidth(BORDER_WIDTH);
+		gc.setStroke(Color.BLACK);
+
+		// Every cell has its own border, as the buttons of a BoardViewer do
+		for (int cell = 0; cell < BOARD_SPACES * BOARD_SPACES; cell++) {
+			if (cell != hoveredCell && cell != cursor) {
+				strokeCell(gc, cell);
+			}
+		}
+
+		gc.setStroke(Color.WHITE);
+		highlight(gc, hoveredCell);
+		highlight(gc, cursor);
+	}
+
+	/**
+	 * Draw the border of a cell in the current stroke, unless there is no cell
+	 * @param gc	Where to draw the border
+	 * @param cell	The cell as y * 10 + x, or -1 for none
+	 */
+	private void highlight(GraphicsContext gc, int cell) {
+		if (cell != -1) {
+			strokeCell(gc, cell);
+		}
+	}
+
+	private void strokeCell(GraphicsContext gc, int cell) {
+		double inset = BORDER_WIDTH / 2;
+		gc.strokeRect((cell % BOARD_SPACES) * cellSize + inset, (cell / BOARD_SPACES) * cellSize + inset,
+				cellSize - BORDER_WIDTH, cellSize - BORDER_WIDTH);
+	}
+}
@@ -1,24 +1,27 @@
 package controller_view.board;
 
-import java.beans.PropertyChangeListener;
-
+import controller_view.EventBus;
+import controller_view.Pacing;
+import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.geometry.Side;
-import javafx.scene.SnapshotParameters;
 import javafx.scene.image.Image;
-import javafx.scene.image.ImageView;
 import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
 import javafx.scene.layout.BackgroundImage;
 import javafx.scene.layout.BackgroundPosition;
 import javafx.scene.layout.BackgroundRepeat;
 import javafx.scene.layout.BackgroundSize;
+import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
-import javafx.scene.transform.Rotate;
 import model.battleship.Ship;
 import model.battleship.ShipCollection;
 import model.board.Board;
+import model.board.BoardSnapshot;
 import model.board.Direction;
+import model.board.MoveResult;
+import model.dataset.Heatmap;
 
 /**
  * A container which holds a BoardViewer and a BoardOverlay at the same
@@ -28,16 +31,43 @@ import model.board.Direction;
  */
 public class BoardContainer extends StackPane {
 
+	/**
+	 * True if boards are drawn on a single BoardCanvas instead of a BoardViewer and BoardOverlay.
+	 * Enabled by setting the system property battleship.canvas to true.
+	 */
+	public static final boolean USE_CANVAS = Boolean.getBoolean("battleship.canvas");
+
 	private BoardViewer bv;
 	private BoardOverlay bd;
+	private BoardCanvas canvas;
 
 	private Board board;
 
 	private double cellSize;
+	
+	/**
+	 * How long moves take to animate
+	 */
+	private Pacing pacing = Pacing.NORMAL;
+	
+	/**
+	 * The heatmap shaded over the board, or null if none is shown
+	 */
+	private Heatmap heatmap;
+	
+	/**
+	 * The version of the board when it was last drawn, or -1 to draw on the next refresh
+	 */
+	private long drawnVersion = -1;
+	
+	/**
+	 * The ships last drawn, their versions when drawn, and the image drawn for each
+	 */
+	private Ship[] drawnShips = new Ship[5];
+	private long[] drawnShipVersions = new long[5];
+	private BackgroundImage[] shipImages = new BackgroundImage[5];
 
 	private static final int BOARD_SPACES = 10;
-	
-	private SnapshotParameters params;
 	private static final BackgroundRepeat BR = BackgroundRepeat.NO_REPEAT;
 	
 	/**
@@ -47,8 +77,9 @@ public class BoardContainer extends StackPane {
 	 * @param b    			The Board to represent in this container
 	 * @param isAI			False if the board should not include highlight selections, True if it should
 	 * @param showPreview	True if the container should fire mouseOverEvents, false otherwise
+	 * @param effects		The scheduler playing the animations of every board on the screen
 	 */
-	public BoardContainer(double size, Board b, boolean isAI, boolean showPreview) {
+	public BoardContainer(double size, Board b, boolean isAI, boolean showPreview, EffectScheduler effects) {
 		super();
 		cellSize = size / BOARD_SPACES;
 		board = b;
@@ -56,15 +87,19 @@ public class BoardContainer extends StackPane {
 		setMaxWidth(size);
 		setMinWidth(size);
 		setMaxHeight(size);
-		setMaxHeight(size);
-		
-		bv = new BoardViewer(cellSize, isAI, showPreview);
-		bd = new BoardOverlay(cellSize);
+		setMinHeight(size);
 		
-		params = new SnapshotParameters();
-		params.setFill(Color.TRANSPARENT);
+		// Decode the animations in the background now, so the first move of a game does not stall
+		SpriteCache.rescale(cellSize);
 		
-		getChildren().addAll(bv, bd);
+		if (USE_CANVAS) {
+			canvas = new BoardCanvas(cellSize, showPreview, effects);
+			getChildren().add(canvas);
+		} else {
+			bv = new BoardViewer(cellSize, isAI, showPreview);
+			bd = new BoardOverlay(cellSize, effects);
+			getChildren().addAll(bv, bd);
+		}
 	}
 
 	/**
@@ -75,66 +110,115 @@ public class BoardContainer extends StackPane {
 	 * @param showPreview	True if the container should fire mouseOverEvents, false otherwise
 	 */
 	public BoardContainer(double size, boolean isAI, boolean showPreview) {
-		this(size, new Board(new ShipCollection()), isAI, showPreview);
+		this(size, isAI, showPreview, new EffectScheduler());
 	}
 
 	/**
-	 * Initiate a move on the underlying Board at a given position
+	 * Create a new BoardContainer with an empty Board, sharing an animation scheduler with other boards
 	 * 
-	 * @param pos Point2D to make the move at
-	 * @return 0 if false, 1 if true
+	 * @param size			size in pixels of the container
+	 * @param isAI			True if the board includes highlighting, false otherwise
+	 * @param showPreview	True if the container should fire mouseOverEvents, false otherwise
+	 * @param effects		The scheduler playing the animations of every board on the screen
 	 */
-	public int makeMoveOnBoard(Point2D pos) {
-		int hit = board.enterMove(pos, false);
+	public BoardContainer(double size, boolean isAI, boolean showPreview, EffectScheduler effects) {
+		this(size, new Board(new ShipCollection()), isAI, showPreview, effects);
+	}
 
-		// update the boardviewer
+	/**
+	 * Change the size of this container, redrawing the board and its ships at the new size
+	 * 
+	 * @param size	The size in pixels to make this container
+	 */
+	public void setBoardSize(double size) {
+		if (size / BOARD_SPACES == cellSize) {
+			return;
+		}
+		
+		cellSize = size / BOARD_SPACES;
+		setMaxWidth(size);
+		setMinWidth(size);
+		setMaxHeight(size);
+		setMinHeight(size);
+		SpriteCache.rescale(cellSize);
+		
+		if (canvas != null) {
+			canvas.setCellSize(cellSize);
+		} else {
+			bv.setCellSize(cellSize);
+			bd.setCellSize(cellSize);
+		}
+		
+		// Every ship image was rendered for the old size
+		drawnShips = new Ship[5];
+		drawnVersion = -1;
 		refreshBoardViewer();
-
-		// update the boardoverlay
-		bd.playMoveAnimation(pos, hit);
-
-		return hit;
+		if (heatmap != null) {
+			showHeatmap(heatmap);
+		}
 	}
 
 	/**
-	 * Add a shield on underlying Board at a given position
+	 * Draw a move made on the game-logic thread
 	 * 
-	 * @param pos Point2D to add Shield at
-	 * @return 0 if false, -1 if true
+	 * @param r	The move, and the board as it was straight after it
 	 */
-	public int shieldMove(Point2D pos) {
-		int shipBox = board.placeShield(pos);
+	public void showMove(MoveResult r) {
 		// update the boardviewer
-		refreshBoardViewer();
+		draw(r.board());
 
 		// update the boardoverlay
-		bd.playMoveAnimation(pos, shipBox);
-		return shipBox;
+		playMoveAnimation(r.move(), r.hit());
+	}
+
+	/**
+	 * Play a move's animation on whichever renderer this container uses
+	 */
+	private void playMoveAnimation(Point2D pos, int hit) {
+		if (canvas != null) {
+			canvas.playMoveAnimation(pos, hit, pacing.hitNanos());
+		} else {
+			bd.playMoveAnimation(pos, hit, pacing.hitNanos());
+		}
 	}
 	
 	/**
-	 * Generate the underlay of all ships at the correct positions on the board
+	 * Change how long moves take to animate, starting with the next move drawn
+	 * @param p	The pacing chosen in the options
+	 */
+	public void setPacing(Pacing p) {
+		pacing = p;
+	}
+
+	/**
+	 * Generate the underlay of all ships at the correct positions on the board, re-rendering
+	 * only the ships whose version changed since they were last drawn
 	 * 
-	 * @return Generated image
+	 * @return True if any ship looks different, false if the current background is still correct
 	 */
-	private Background generateBackground(ShipCollection allShips) {
-		if (allShips.size() == 0) {
-			return null;
-		}
+	private boolean updateShipImages(ShipCollection allShips) {
+		boolean changed = false;
 		
-		BackgroundImage[] imgs = new BackgroundImage[5];		
 		for (int i = 0; i < 5; i++) {			
-			// Get the image for the current ship
 			Ship currentShip = allShips.getShip(i);
+			long version = currentShip == null ? -1 : currentShip.version();
 			
-			if (currentShip == null || !currentShip.isRevealed()) {
+			if (currentShip == drawnShips[i] && version == drawnShipVersions[i]) {
 				continue;
-			}			
+			}
+			
+			drawnShips[i] = currentShip;
+			drawnShipVersions[i] = version;
 			
-			imgs[i] = renderShip(currentShip);
+			// Damage to a hidden ship changes its version without changing what is drawn
+			BackgroundImage img = currentShip == null || !currentShip.isRevealed() ? null : renderShip(currentShip);
+			if (img != null || shipImages[i] != null) {
+				shipImages[i] = img;
+				changed = true;
+			}
 		}
 		
-		return new Background(imgs);
+		return changed;
 	}
 	
 	/**
@@ -149,19 +233,40 @@ public class BoardContainer extends StackPane {
 		setBackground(new Background(renderShip(s)));
 	}
 
-	private BackgroundImage renderShip(Ship currentShip) {	
-		String imgPath = getClass().getResource(currentShip.getImagePath()).toExternalForm();
-		Image shipImage = new Image(imgPath, cellSize * currentShip.getLength(), cellSize, false, false);
+	/**
+	 * Shade every cell of the board by its value in a heatmap, from transparent for the
+	 * coldest cells to opaque red for the hottest
+	 * @param h		Heatmap to draw, or null to remove the current heatmap
+	 */
+	public void showHeatmap(Heatmap h) {
+		heatmap = h;
+		if (h == null) {
+			setBackground(null);
+			return;
+		}
+		
+		double size = cellSize * BOARD_SPACES;
+		BackgroundFill[] fills = new BackgroundFill[BOARD_SPACES * BOARD_SPACES];
+		
+		for (int y = 0; y < BOARD_SPACES; y++) {
+			for (int x = 0; x < BOARD_SPACES; x++) {
+				// Insets place the fill over a single cell of the container
+				Insets cell = new Insets(y * cellSize, size - (x + 1) * cellSize, size - (y + 1) * cellSize, x * cellSize);
+				Color c = Color.RED.deriveColor(0, 1, 1, h.intensity(x, y) * 0.8);
+				fills[y * BOARD_SPACES + x] = new BackgroundFill(c, CornerRadii.EMPTY, cell);
+			}
+		}
+		
+		setBackground(new Background(fills));
+	}
 
-		// Rotate the ship according to the ship's orientation
-		ImageView imageView = new ImageView(shipImage);
-		imageView.setRotate(currentShip.getFacingDirection().direction() * 90);
+	private BackgroundImage renderShip(Ship currentShip) {	
+		// The cache holds the ship's image already scaled and rotated to its orientation
+		Image rotatedImage = SpriteCache.ship(currentShip, cellSize);
 
 		// Determine where the ship's image should be placed on the board
 		double xPos = currentShip.getStartPos().getX() * cellSize;
 		if (currentShip.getFacingDirection() == Direction.LEFT) {
-			Rotate flipRotation = new Rotate(180,Rotate.X_AXIS);
-			imageView.getTransforms().addAll(flipRotation);
 			xPos -= (currentShip.getLength() - 1) * cellSize;
 		}
 
@@ -169,7 +274,6 @@ public class BoardContainer extends StackPane {
 		if (currentShip.getFacingDirection() == Direction.UP) {
 			yPos -= (currentShip.getLength() - 1) * cellSize;
 		}
-		Image rotatedImage = imageView.snapshot(params, null);
 		
 		BackgroundPosition bgPosition = new BackgroundPosition(Side.LEFT, xPos, false, Side.TOP, yPos, false);
 		// scaled ship image and position
@@ -177,13 +281,13 @@ public class BoardContainer extends StackPane {
 	}
 
 	/**
-	 * Register a listener to the underlying Board
+	 * Get the events fired when the board is clicked or moused over.  The events of the Board
+	 * itself are posted to getBoard().events().
 	 * 
-	 * @param pcl Listener to add to the Board
+	 * @return	The bus of the BoardViewer or BoardCanvas
 	 */
-	public void addListener(PropertyChangeListener pcl) {
-		bv.addListener(pcl);
-		board.addListener(pcl);
+	public EventBus events() {
+		return canvas != null ? canvas.events() : bv.events();
 	}
 
 	/**
@@ -203,11 +307,34 @@ public class BoardContainer extends StackPane {
 	}
 
 	/**
-	 * Rebuild the background if it was changed
+	 * Rebuild the background if it was changed.  Move markers are drawn by the overlay as
+	 * each move is played, so only ships are redrawn here.
 	 */
 	private void refreshBoardViewer() {
-		bv.setBackground(generateBackground(board.getCollection()));
-		bd.refreshOverlay();
+		draw(board.version(), board.getCollection());
+	}
+	
+	/**
+	 * Rebuild the background from a snapshot of the board, if it was changed
+	 */
+	private void draw(BoardSnapshot snapshot) {
+		draw(snapshot.version(), snapshot.getCollection());
+	}
+	
+	private void draw(long version, ShipCollection ships) {
+		if (version == drawnVersion) {
+			return;
+		}
+		drawnVersion = version;
+		
+		if (canvas != null) {
+			canvas.setShips(ships);
+			return;
+		}
+		
+		if (updateShipImages(ships)) {
+			bv.setBackground(new Background(shipImages));
+		}
 	}
 
 	/**
@@ -217,6 +344,7 @@ public class BoardContainer extends StackPane {
 	 */
 	public void setBoard(Board newBoard) {
 		board = newBoard;
+		drawnVersion = -1;
 		refreshBoardViewer();
 	}
 
@@ -240,80 +368,71 @@ public class BoardContainer extends StackPane {
 	}
 	
 	/**
-	 * Check if this container contains a particular BoardViewer by reference
+	 * Check if this container contains a particular BoardViewer or BoardCanvas by reference
 	 * 
 	 * Mainly for usage in determining event origin.
-	 * @param bv	BoardViewer to check
-	 * @return		True if this BoardContainer holds the viewer, otherwise false
+	 * @param source	BoardViewer or BoardCanvas to check
+	 * @return			True if this BoardContainer holds the viewer, otherwise false
 	 */
-	public boolean containsBoardViewer(BoardViewer bv) {
-		return this.bv == bv;
+	public boolean containsBoardViewer(Object source) {
+		return source != null && (source == bv || source == canvas);
 	}
 	
 	/**
-	 * Reset this BoardContainer by clearing the Board, refreshing the background, and resetting the overlay
+	 * Highlight the cell a player has picked with the keyboard
+	 * @param cell	The cell as y * 10 + x, or -1 to highlight none
 	 */
-	public void reset() {
-		board = new Board(new ShipCollection());
-		refreshBoardViewer();
-		bd.reset();
-	}
-
-	/**
-	 * Notify the board the game is beginning
-	 */
-	public void notifyStarted() {
-		board.startStats();
+	public void showCursor(int cell) {
+		if (canvas != null) {
+			canvas.setCursor(cell);
+		} else {
+			bv.setCursor(cell);
+		}
 	}
 	
 	/**
-	 * Check if this board will currently allow a special move
-	 * @return	True if the board will, false otherwise
+	 * Reset this BoardContainer by clearing the Board, refreshing the background, and resetting the overlay
 	 */
-	public boolean checkStatusOfSpecial() {
-		return board.canMakeShieldMove();
+	public void reset() {
+		board = new Board(new ShipCollection());
+		drawnVersion = -1;
+		refreshBoardViewer();
+		if (canvas != null) {
+			canvas.reset();
+		} else {
+			bd.reset();
+		}
 	}
 
 	/**
-	 * Attempt to make a special move at a given point
-	 * @param specialButton	The special button that is currently selected
+	 * Draw a special move made on the game-logic thread
+	 * @param specialButton	The special move which was made, e.g. "nuke"
 	 * @param playerMove	The x and y coordinates of the selected point
-	 * @return				True if the special ability was made, false otherwise
+	 * @param result		The result of each cell the special move hit, from Board.attemptSpecialMove
+	 * @param after			The board as it was straight after the special move
 	 */
-	public boolean attemptSpecialMove(String specialButton, Point2D playerMove) {
-		int[] result = board.attemptSpecialMove(specialButton, playerMove);
-		boolean validMove = result.length != 0;
-		
-		if (validMove) {
-			if (specialButton.equals("nuke")) {
-				// Render the Nuke hits
-				Point2D startPoint = new Point2D(playerMove.getX() - 1, playerMove.getY() - 1);
-				
-				for(int i = 0; i < 3; i++) {
-					for (int j = 0; j < 3; j++) {
-						bd.playMoveAnimation(startPoint.add(i, j), result[(int) ((i * 3) + j)]);
-					}
-				}
-			} 
+	public void showSpecialMove(String specialButton, Point2D playerMove, int[] result, BoardSnapshot after) {
+		if (specialButton.equals("nuke")) {
+			// Render the Nuke hits
+			Point2D startPoint = new Point2D(playerMove.getX() - 1, playerMove.getY() - 1);
 			
-			// Render a strafing run
-			else if (specialButton.equals("strafing run")) {
-				Point2D startPoint = new Point2D(playerMove.getX(), playerMove.getY() - 2);
-				
-				for (int i = 0; i < 5; i++) {
-					bd.playMoveAnimation(startPoint.add(0, i), result[i]);
+			for(int i = 0; i < 3; i++) {
+				for (int j = 0; j < 3; j++) {
+					playMoveAnimation(startPoint.add(i, j), result[(int) ((i * 3) + j)]);
 				}
-			} 
-			
-			//pass through second chance
-			else if (specialButton.equals("second chance")){
-				makeMoveOnBoard(playerMove);
 			}
-		}
+		} 
 		
-		refreshBoardViewer();
+		// Render a strafing run
+		else if (specialButton.equals("strafing run")) {
+			Point2D startPoint = new Point2D(playerMove.getX(), playerMove.getY() - 2);
+			
+			for (int i = 0; i < 5; i++) {
+				playMoveAnimation(startPoint.add(0, i), result[i]);
+			}
+		} 
 		
-		return validMove;
+		draw(after);
 	}
 
 	/**
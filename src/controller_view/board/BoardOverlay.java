@@ -1,147 +1,150 @@
 package controller_view.board;
 
-import java.util.ArrayList;
-
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
 import javafx.geometry.Point2D;
-import javafx.geometry.Side;
-import javafx.scene.image.Image;
-import javafx.scene.layout.Background;
-import javafx.scene.layout.BackgroundImage;
-import javafx.scene.layout.BackgroundPosition;
-import javafx.scene.layout.BackgroundRepeat;
-import javafx.scene.layout.BackgroundSize;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.BorderPane;
-import javafx.util.Duration;
-import model.animations.HitResultAnimation;
 
 /**
- * A BorderPane which displays animations via replacing its background
- * 
+ * A BorderPane which displays animations by drawing them onto a Canvas
+ *
  * @author Andrew Dennison
  */
-public class BoardOverlay extends BorderPane {
-
-	private ArrayList<HitResultAnimation> activeAnimations;
-	private static final String HIT_PATH = "/img/boom.gif";
-	private static final String MISS_PATH = "/img/miss.gif";
-	private static final String MISS_ICON_PATH = "/img/miss.png";
-	private static final String FIRE_PATH = "/img/fire.gif";
-	private static final String SHIELD_PATH = "/img/bubble.png";
-		
+public class BoardOverlay extends BorderPane implements EffectLayer {
+
+	private static final int BOARD_SPACES = 10;
+
 	private double cellSize;
-	
+
+	private Canvas canvas;
+
+	private EffectScheduler effects;
+	private int id;
+
 	/**
 	 * Create a new Board Overlay object, responsible for rendering animations on
 	 * top of a board.
-	 * 
+	 *
 	 * All BoardOverlays cannot be directly interacted with and will not generate
 	 * mouse click events.
-	 * @param size Size in pixels of one cell of the BoardContainer parent
+	 * @param size 		Size in pixels of one cell of the BoardContainer parent
+	 * @param effects	The scheduler playing the animations of every board on the screen
 	 */
-	public BoardOverlay(double size) {
+	public BoardOverlay(double size, EffectScheduler effects) {
 		super();
 		cellSize = size;
 		setPickOnBounds(false);
-		activeAnimations = new ArrayList<HitResultAnimation>();
+
+		canvas = new Canvas(size * BOARD_SPACES, size * BOARD_SPACES);
+		canvas.setMouseTransparent(true);
+		setCenter(canvas);
+
+		this.effects = effects;
+		id = effects.register(this);
+	}
+
+	/**
+	 * Change the size of every cell, redrawing the animations at the new size
+	 * @param size	Size in pixels of one cell of the BoardContainer parent
+	 */
+	public void setCellSize(double size) {
+		cellSize = size;
+		canvas.setWidth(size * BOARD_SPACES);
+		canvas.setHeight(size * BOARD_SPACES);
+		refreshOverlay();
 	}
 
 	/**
 	 * Tell the Overlay to play the appropriate hit or miss animation at a given
 	 * position
-	 * 
-	 * @param pos       Point2D to play the animation at
-	 * @param hitResult True for a hit animation, False for a miss animation
+	 *
+	 * @param pos		Point2D to play the animation at
+	 * @param hitResult	True for a hit animation, False for a miss animation
+	 * @param hitNanos	How long the animation lasts before the marker is left, or 0 to leave the marker at once
 	 */
-	public void playMoveAnimation(Point2D pos, int hitResult) {		
-		Duration hitDuration = new Duration(1500);
-		
-		Timeline t = createNewTimeline(pos, hitDuration, hitResult);
-
-		t.play();
+	public void playMoveAnimation(Point2D pos, int hitResult, long hitNanos) {
+		addMoveEffects(effects, id, pos, hitResult, hitNanos);
 	}
 
-	private Timeline createNewTimeline(Point2D pos, Duration d, int moveType) {
-		HitResultAnimation anim1;
-		HitResultAnimation anim2;
-		
-		if (moveType == -1) {
-			BackgroundImage bubbleImg = generateBackgroundImage(pos, SHIELD_PATH);
-			anim1 = new HitResultAnimation(pos, Duration.INDEFINITE, bubbleImg);
-			anim2 = null;
-
-		} 
-		else if (moveType == 1) {
-			BackgroundImage boomImg = generateBackgroundImage(pos, HIT_PATH);
-			anim1 = new HitResultAnimation(pos, d, boomImg);
-			
-			BackgroundImage fireImg = generateBackgroundImage(pos, FIRE_PATH);
-			anim2 = new HitResultAnimation(pos, Duration.INDEFINITE, fireImg);
-		} 
+	/**
+	 * Schedule the effects of a move: an animation on the cell, followed by the marker left once it ends
+	 * @param effects	The scheduler to add the effects to
+	 * @param id		The layer to draw the effects on
+	 * @param pos		Point2D of the move
+	 * @param hitResult	-1 for a shield, 1 for a hit, 0 for a miss
+	 * @param hitNanos	How long the animation lasts before the marker is left, or 0 to leave the marker at once
+	 */
+	static void addMoveEffects(EffectScheduler effects, int id, Point2D pos, int hitResult, long hitNanos) {
+		if (pos.getX() < 0 || pos.getX() >= BOARD_SPACES || pos.getY() < 0 || pos.getY() >= BOARD_SPACES) {
+			return;
+		}
+
+		int cell = (int) pos.getY() * BOARD_SPACES + (int) pos.getX();
+
+		if (hitResult == -1) {
+			effects.add(id, cell, EffectSprite.SHIELD, 0, EffectScheduler.FOREVER);
+		}
+		else if (hitResult == 1) {
+			if (hitNanos > 0) {
+				effects.add(id, cell, EffectSprite.BOOM, 0, hitNanos);
+			}
+			effects.add(id, cell, EffectSprite.FIRE, hitNanos, EffectScheduler.FOREVER);
+		}
 		else {
-			BackgroundImage boomImg = generateBackgroundImage(pos, MISS_PATH);
-			anim1 = new HitResultAnimation(pos, d, boomImg);
-			BackgroundImage missImg = generateBackgroundImage(pos, MISS_ICON_PATH);
-			anim2 = new HitResultAnimation(pos, Duration.INDEFINITE, missImg);
-		}		
-		
-		activeAnimations.add(anim1);
-		refreshOverlay();
-		
-		Timeline t = new Timeline(
-				new KeyFrame(anim1.duration(), (e) -> {
-					activeAnimations.remove(anim1);
-					if (anim2 != null) {
-						activeAnimations.add(anim2);
-					}
-					refreshOverlay();
-				}));
-		
-		if (moveType == 1) {
-			// Add a KeyFrame with infinite duration
-			t.getKeyFrames().add(
-					new KeyFrame(anim2.duration(), (e)->{}));
-		} else {
-			t.setCycleCount(1);
+			if (hitNanos > 0) {
+				effects.add(id, cell, EffectSprite.SPLASH, 0, hitNanos);
+			}
+			effects.add(id, cell, EffectSprite.MISS, hitNanos, EffectScheduler.FOREVER);
 		}
-		
-		return t;
 	}
-	
-	private BackgroundImage generateBackgroundImage(Point2D pos, String path) {
-		Image img = new Image(getClass().getResource(path).toExternalForm());
-		BackgroundRepeat br = BackgroundRepeat.NO_REPEAT;
-		
-		double xPos = pos.getX() * cellSize;
-		double yPos = pos.getY() * cellSize;
-		
-		BackgroundPosition bgPosition = new BackgroundPosition(Side.LEFT, xPos, false, Side.TOP, yPos, false);
-		BackgroundSize bgSize = new BackgroundSize(cellSize, cellSize, false, false, false, false);
-		
-		return new BackgroundImage (img, br, br, bgPosition, bgSize);
-	}
-
-	protected void refreshOverlay() {
-		setBackground(null);
 
-		BackgroundImage[] imgs = new BackgroundImage[activeAnimations.size()];
-		int index = 0;
+	@Override
+	public void render(EffectScheduler effects, int id, long now) {
+		GraphicsContext gc = canvas.getGraphicsContext2D();
+		gc.clearRect(0, 0, canvas.getWidth(), canvas.getHeight());
+		drawEffects(gc, effects, id, now, cellSize);
+	}
 
-		for (HitResultAnimation hra : activeAnimations) {
-			// Render each animation on the background
-			imgs[index] = hra.getImage();
-			index++;
+	/**
+	 * Draw every effect of a layer which is showing
+	 * @param gc		Where to draw the effects
+	 * @param effects	The scheduler holding the effects
+	 * @param id		The layer to draw
+	 * @param now		The game time of the current pulse
+	 * @param cellSize	Size in pixels of one cell
+	 */
+	static void drawEffects(GraphicsContext gc, EffectScheduler effects, int id, long now, double cellSize) {
+		for (int i = 0; i < effects.size(); i++) {
+			if (!effects.isShowing(i, id, now)) {
+				continue;
+			}
+			
+			EffectSprite sprite = effects.sprite(i);
+			double x = (effects.cell(i) % BOARD_SPACES) * cellSize;
+			double y = (effects.cell(i) / BOARD_SPACES) * cellSize;
+			FrameAtlas atlas = sprite.isAnimated() ? SpriteCache.atlas(sprite.path(), cellSize) : null;
+			
+			if (atlas != null) {
+				// Shared sprites all show the frame for the current pulse, which the atlas looks up once
+				long elapsed = sprite.isShared() ? now : now - effects.startTime(i);
+				atlas.draw(gc, atlas.frameAt(elapsed), x, y, cellSize);
+			} else {
+				gc.drawImage(SpriteCache.image(sprite.path(), cellSize, cellSize), x, y, cellSize, cellSize);
+			}
 		}
+	}
 
-		setBackground(new Background(imgs));
+	/**
+	 * Redraw the Overlay on the next pulse
+	 */
+	protected void refreshOverlay() {
+		effects.invalidate(id);
 	}
-	
+
 	/**
 	 * Clear the Overlay
 	 */
 	protected void reset() {
-		activeAnimations = new ArrayList<HitResultAnimation>();
-		refreshOverlay();
+		effects.clear(id);
 	}
 }
@@ -1,12 +1,9 @@
 package controller_view.board;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
-
 import controller_view.AllProperties;
-import javafx.geometry.Point2D;
+import controller_view.EventBus;
 import javafx.geometry.Pos;
+import javafx.scene.Node;
 import javafx.scene.control.Button;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderPane;
@@ -15,6 +12,7 @@ import javafx.scene.layout.BorderStrokeStyle;
 import javafx.scene.layout.BorderWidths;
 import javafx.scene.layout.CornerRadii;
 import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Region;
 import javafx.scene.paint.Color;
 
 /**
@@ -33,9 +31,9 @@ public class BoardViewer extends BorderPane{
 	private static final int BOARD_SPACES = 10;
 	
 	/**
-	 * The object used to notify listeners of changes
+	 * The object used to notify listeners of clicks and mouse overs
 	 */
-	private PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+	private EventBus events = new EventBus(this);
 	
 	/**
 	 * The GridPane contained in the center of this boardviewer
@@ -45,6 +43,16 @@ public class BoardViewer extends BorderPane{
 	private double cellSize;
 	
 	private boolean showPreview;
+	
+	/**
+	 * Every cell's button, by y * 10 + x
+	 */
+	private BoardButton[] buttons = new BoardButton[BOARD_SPACES * BOARD_SPACES];
+	
+	/**
+	 * The cell picked with the keyboard, or -1 if none is
+	 */
+	private int cursor = -1;
 		
 	/**
 	 * Create a new square board with a side length of size.
@@ -77,18 +85,47 @@ public class BoardViewer extends BorderPane{
 	private void initializeOverlay() {
 		for (int row = BOARD_SPACES - 1; row >= 0; row--) {
 			for (int col = BOARD_SPACES - 1; col >= 0; col--) {
-				BoardButton gridButton = new BoardButton(col, row, this);
+				BoardButton gridButton = new BoardButton(col, row);
+				buttons[row * BOARD_SPACES + col] = gridButton;
 				boardGrid.add(gridButton, col, row);
 			}
 		}
 	}
 
 	/**
-	 * Add a listener to this BoardViewer
-	 * @param pcl	The listener to add.
+	 * Change the size of every cell on the board
+	 * @param size	The new length of one cell on the board
 	 */
-	public void addListener(PropertyChangeListener pcl) {
-		pcs.addPropertyChangeListener(pcl);
+	public void setCellSize(double size) {
+		cellSize = size;
+		for (Node n : boardGrid.getChildren()) {
+			Region cell = (Region) n;
+			cell.setMinSize(size, size);
+			cell.setMaxSize(size, size);
+		}
+	}
+
+	/**
+	 * Highlight the cell picked with the keyboard, as the cell under the mouse is
+	 * @param cell	The cell as y * 10 + x, or -1 to highlight none
+	 */
+	public void setCursor(int cell) {
+		if (cursor != -1) {
+			buttons[cursor].setBorder(UNSELECTED_BORDER);
+		}
+		
+		cursor = cell;
+		if (cursor != -1) {
+			buttons[cursor].setBorder(SELECTED_BORDER);
+		}
+	}
+
+	/**
+	 * Get the events of this BoardViewer.  BOARD_CLICK and MOUSE_OVER_EVENT carry the cell as y * 10 + x.
+	 * @return	The bus to add listeners to
+	 */
+	public EventBus events() {
+		return events;
 	}		
 	
 	private static final BorderWidths SELECTED_WIDTH = new BorderWidths(2, 2, 2, 2);
@@ -116,7 +153,7 @@ public class BoardViewer extends BorderPane{
 		 * @param x	The X coordinate this button represents
 		 * @param y	The Y coordinate this button represents
 		 */
-		public BoardButton(int x, int y, BoardViewer parent) {
+		public BoardButton(int x, int y) {
 			super();
 			setBorder(UNSELECTED_BORDER);
 			setBackground(null);
@@ -125,17 +162,19 @@ public class BoardViewer extends BorderPane{
 			setMinWidth(cellSize);
 			setMaxWidth(cellSize);
 			setOnAction((event)->{
-				pcs.firePropertyChange(new PropertyChangeEvent(parent, AllProperties.BOARD_CLICK.property(), null, new Point2D(x, y)));
+				events.post(AllProperties.BOARD_CLICK, y * BOARD_SPACES + x);
 			});
 			setOnMouseEntered((event)->{
 				setBorder(SELECTED_BORDER);
 				if (showPreview) {
-					pcs.firePropertyChange(AllProperties.MOUSE_OVER_EVENT.property(), null, new Point2D(x, y));
+					events.post(AllProperties.MOUSE_OVER_EVENT, y * BOARD_SPACES + x);
 				}
 			});				
 			
 			setOnMouseExited((event)->{
-				setBorder(UNSELECTED_BORDER);
+				if (y * BOARD_SPACES + x != cursor) {
+					setBorder(UNSELECTED_BORDER);
+				}
 			});
 		}
 	}
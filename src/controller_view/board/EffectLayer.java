@@ -0,0 +1,18 @@
+package controller_view.board;
+
+/**
+ * Something which draws the effects an EffectScheduler holds for it
+ *
+ * @author Andrew Dennison
+ */
+public interface EffectLayer {
+
+	/**
+	 * Redraw this layer.  Called on the JavaFX application thread at most once per pulse, when the
+	 * layer's effects have changed or one of them is animated.
+	 * @param effects	The scheduler holding this layer's effects
+	 * @param id		The id the scheduler gave this layer when it was registered
+	 * @param now		The game time of the current pulse in nanoseconds, as from GameClock.now
+	 */
+	void render(EffectScheduler effects, int id, long now);
+}
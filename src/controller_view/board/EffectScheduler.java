@@ -0,0 +1,263 @@
+package controller_view.board;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import model.board.GameClock;
+
+/**
+ * Plays the move effects of every board on a screen from one AnimationTimer.
+ *
+ * Effects are stored in parallel arrays of cell, sprite, start and end time.  Each pulse
+ * expires finished effects in place and redraws only the layers whose effects changed or
+ * are animated, so a pulse creates no objects.  An effect may start in the future, which
+ * is how a lasting marker follows the animation of the move that made it.  The timer
+ * stops whenever there is nothing left to draw.
+ *
+ * Effects are timed in game time, so while the game clock is paused the timer is stopped
+ * and every effect holds its frame.  The scheduler only listens to the game clock while it
+ * has something to draw, so an idle or disposed scheduler can be reclaimed with its screen.
+ *
+ * @author Andrew Dennison
+ */
+public class EffectScheduler extends AnimationTimer {
+
+	/**
+	 * End time of an effect which lasts until its layer is cleared
+	 */
+	public static final long FOREVER = Long.MAX_VALUE;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	private static final EffectSprite[] SPRITES = EffectSprite.values();
+
+	private ArrayList<EffectLayer> layers = new ArrayList<EffectLayer>();
+	private boolean[] dirty = new boolean[0];
+
+	private int count;
+	private int[] layer = new int[INITIAL_CAPACITY];
+	private byte[] cell = new byte[INITIAL_CAPACITY];
+	private byte[] sprite = new byte[INITIAL_CAPACITY];
+	private long[] start = new long[INITIAL_CAPACITY];
+	private long[] end = new long[INITIAL_CAPACITY];
+
+	private final GameClock clock = GameClock.getDefault();
+
+	private final GameClock.Listener follow = (c) -> Platform.runLater(this::clockChanged);
+
+	private long lastPulse = clock.now();
+	private boolean running;
+
+	/**
+	 * Stop drawing while the game clock is paused, and carry on from the same frame once it resumes
+	 */
+	private void clockChanged() {
+		if (!running) {
+			return;
+		}
+
+		if (clock.isPaused()) {
+			stop();
+		} else {
+			start();
+		}
+	}
+
+	/**
+	 * Register a layer to draw effects for
+	 * @param l	The layer
+	 * @return	The id to add the layer's effects under
+	 */
+	public int register(EffectLayer l) {
+		layers.add(l);
+		dirty = Arrays.copyOf(dirty, layers.size());
+		return layers.size() - 1;
+	}
+
+	/**
+	 * Add an effect to a layer
+	 * @param id		The layer's id
+	 * @param c			The cell to draw the effect on, as y * 10 + x
+	 * @param s			The sprite to draw
+	 * @param delay		Nanoseconds from now until the effect appears
+	 * @param duration	Nanoseconds the effect lasts once it appears, or FOREVER
+	 */
+	public void add(int id, int c, EffectSprite s, long delay, long duration) {
+		if (count == layer.length) {
+			grow();
+		}
+
+		long now = clock.now();
+		layer[count] = id;
+		cell[count] = (byte) c;
+		sprite[count] = (byte) s.ordinal();
+		start[count] = now + delay;
+		end[count] = duration == FOREVER ? FOREVER : now + delay + duration;
+		count++;
+
+		invalidate(id);
+	}
+
+	/**
+	 * Remove every effect of a layer
+	 * @param id	The layer's id
+	 */
+	public void clear(int id) {
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (layer[i] != id) {
+				move(i, kept++);
+			}
+		}
+		count = kept;
+
+		invalidate(id);
+	}
+
+	/**
+	 * Ask for a layer to be redrawn on the next pulse
+	 * @param id	The layer's id
+	 */
+	public void invalidate(int id) {
+		dirty[id] = true;
+		if (!running) {
+			running = true;
+			clock.addListener(follow);
+			if (!clock.isPaused()) {
+				start();
+			}
+		}
+	}
+
+	@Override
+	public void handle(long pulse) {
+		long now = clock.now();
+		boolean animating = false;
+
+		// Expire finished effects, keeping the rest in the order they were added
+		int kept = 0;
+		for (int i = 0; i < count; i++) {
+			if (end[i] <= now) {
+				dirty[layer[i]] = true;
+				continue;
+			}
+
+			if (start[i] > lastPulse && start[i] <= now) {
+				dirty[layer[i]] = true;
+			}
+
+			if (start[i] <= now && SPRITES[sprite[i]].isAnimated()) {
+				dirty[layer[i]] = true;
+				animating = true;
+			}
+
+			// Effects which have not started yet keep the timer running until they do
+			animating |= start[i] > now || end[i] != FOREVER;
+
+			move(i, kept++);
+		}
+		count = kept;
+		lastPulse = now;
+
+		for (int id = 0; id < dirty.length; id++) {
+			if (dirty[id]) {
+				dirty[id] = false;
+				layers.get(id).render(this, id, now);
+			}
+		}
+
+		if (!animating) {
+			dispose();
+		}
+	}
+
+	/**
+	 * Stop drawing and stop following the game clock, such as when the screen is hidden or
+	 * torn down.  The effects are kept, and drawn again once redraw is called.
+	 */
+	public void dispose() {
+		if (running) {
+			running = false;
+			clock.removeListener(follow);
+		}
+		stop();
+	}
+
+	/**
+	 * Redraw every layer, such as when the screen is shown again
+	 */
+	public void redraw() {
+		for (int id = 0; id < layers.size(); id++) {
+			invalidate(id);
+		}
+	}
+
+	/**
+	 * Get the number of effects held for every layer
+	 * @return	The number of effects
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * Check if an effect belongs to a layer and is showing
+	 * @param i		Index of the effect, less than size()
+	 * @param id	The layer's id
+	 * @param now	The current game time in nanoseconds
+	 * @return		True if the layer should draw the effect now
+	 */
+	public boolean isShowing(int i, int id, long now) {
+		return layer[i] == id && start[i] <= now && now < end[i];
+	}
+
+	/**
+	 * Get the cell an effect is drawn on
+	 * @param i	Index of the effect
+	 * @return	The cell as y * 10 + x
+	 */
+	public int cell(int i) {
+		return cell[i];
+	}
+
+	/**
+	 * Get the sprite an effect draws
+	 * @param i	Index of the effect
+	 * @return	The effect's sprite
+	 */
+	public EffectSprite sprite(int i) {
+		return SPRITES[sprite[i]];
+	}
+
+	/**
+	 * Get the time an effect appears
+	 * @param i	Index of the effect
+	 * @return	Start time in nanoseconds of game time
+	 */
+	public long startTime(int i) {
+		return start[i];
+	}
+
+	private void move(int from, int to) {
+		if (from == to) {
+			return;
+		}
+
+		layer[to] = layer[from];
+		cell[to] = cell[from];
+		sprite[to] = sprite[from];
+		start[to] = start[from];
+		end[to] = end[from];
+	}
+
+	private void grow() {
+		int capacity = layer.length * 2;
+		layer = Arrays.copyOf(layer, capacity);
+		cell = Arrays.copyOf(cell, capacity);
+		sprite = Arrays.copyOf(sprite, capacity);
+		start = Arrays.copyOf(start, capacity);
+		end = Arrays.copyOf(end, capacity);
+	}
+}
@@ -0,0 +1,69 @@
+package controller_view.board;
+
+/**
+ * The images played on board cells as the result of a move
+ *
+ * @author Andrew Dennison
+ */
+public enum EffectSprite {
+
+	/**
+	 * Explosion played when a move hits a ship
+	 */
+	BOOM("/img/boom.gif", true, false),
+
+	/**
+	 * Splash played when a move misses
+	 */
+	SPLASH("/img/miss.gif", true, false),
+
+	/**
+	 * Marker left on a cell after a miss
+	 */
+	MISS("/img/miss.png", false, false),
+
+	/**
+	 * Flames left burning on a cell after a hit
+	 */
+	FIRE("/img/fire.gif", true, true),
+
+	/**
+	 * Bubble shown over a shielded cell
+	 */
+	SHIELD("/img/bubble.png", false, false);
+
+	private final String path;
+	private final boolean animated;
+	private final boolean shared;
+
+	private EffectSprite(String path, boolean animated, boolean shared) {
+		this.path = path;
+		this.animated = animated;
+		this.shared = shared;
+	}
+
+	/**
+	 * Get the classpath resource of this sprite's image
+	 * @return	The path of the image, e.g. "/img/boom.gif"
+	 */
+	public String path() {
+		return path;
+	}
+
+	/**
+	 * Check if this sprite changes from frame to frame
+	 * @return	True if the sprite must be redrawn every pulse while it is shown
+	 */
+	public boolean isAnimated() {
+		return animated;
+	}
+
+	/**
+	 * Check if every cell showing this sprite plays the same frame, rather than playing the
+	 * animation from the start of each effect
+	 * @return	True if the sprite's frames are timed from a clock shared by every cell
+	 */
+	public boolean isShared() {
+		return shared;
+	}
+}
@@ -0,0 +1,208 @@
+package controller_view.board;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+
+/**
+ * Every frame of an animated GIF, decoded once and packed into a single sprite sheet at the
+ * size it is drawn.
+ *
+ * Drawing a frame is one blit from the sheet, so any number of cells can show the same
+ * animation without a GIF decoder running for each.  The frame to show at a given time is
+ * remembered, so cells sharing a frame index only look it up once per pulse.
+ *
+ * @author Andrew Dennison
+ */
+public class FrameAtlas {
+
+	/**
+	 * Delay used for frames which do not give one, matching how browsers play them
+	 */
+	private static final int DEFAULT_DELAY_MS = 100;
+
+	private final WritableImage sheet;
+	private final int frameSize;
+	private final int columns;
+
+	/**
+	 * The time each frame ends, in nanoseconds from the start of the animation
+	 */
+	private final long[] frameEnds;
+
+	private long lastTime = -1;
+	private int lastFrame;
+
+	private FrameAtlas(WritableImage sheet, int frameSize, int columns, long[] frameEnds) {
+		this.sheet = sheet;
+		this.frameSize = frameSize;
+		this.columns = columns;
+		this.frameEnds = frameEnds;
+	}
+
+	/**
+	 * Decode every frame of a GIF, scaled to a square cell
+	 * @param resource		Classpath resource of the GIF, e.g. "/img/fire.gif"
+	 * @param cellSize		Size in pixels to draw each frame at
+	 * @return				The packed frames
+	 * @throws IOException	If the GIF could not be read
+	 */
+	public static FrameAtlas decode(String resource, double cellSize) throws IOException {
+		int size = Math.max(1, (int) Math.ceil(cellSize));
+		ArrayList<BufferedImage> frames = new ArrayList<BufferedImage>();
+		ArrayList<Integer> delays = new ArrayList<Integer>();
+
+		ImageReader reader = ImageIO.getImageReadersByFormatName("gif").next();
+		try (InputStream in = FrameAtlas.class.getResourceAsStream(resource);
+				ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+			reader.setInput(iis);
+			int count = reader.getNumImages(true);
+
+			// Frames only hold the pixels which changed, so draw each over the frames before it
+			BufferedImage screen = new BufferedImage(reader.getWidth(0), reader.getHeight(0), BufferedImage.TYPE_INT_ARGB);
+			Graphics2D screenGraphics = screen.createGraphics();
+
+			for (int i = 0; i < count; i++) {
+				BufferedImage frame = reader.read(i);
+				IIOMetadataNode root = (IIOMetadataNode) reader.getImageMetadata(i).getAsTree("javax_imageio_gif_image_1.0");
+				IIOMetadataNode descriptor = child(root, "ImageDescriptor");
+				IIOMetadataNode control = child(root, "GraphicControlExtension");
+
+				int left = descriptor == null ? 0 : Integer.parseInt(descriptor.getAttribute("imageLeftPosition"));
+				int top = descriptor == null ? 0 : Integer.parseInt(descriptor.getAttribute("imageTopPosition"));
+				String disposal = control == null ? "none" : control.getAttribute("disposalMethod");
+				int delay = control == null ? 0 : Integer.parseInt(control.getAttribute("delayTime")) * 10;
+
+				BufferedImage previous = disposal.equals("restoreToPrevious") ? copy(screen) : null;
+				screenGraphics.drawImage(frame, left, top, null);
+
+				frames.add(scale(screen, size));
+				delays.add(delay <= 0 ? DEFAULT_DELAY_MS : delay);
+
+				if (disposal.equals("restoreToBackgroundColor")) {
+					screenGraphics.setComposite(AlphaComposite.Clear);
+					screenGraphics.fillRect(left, top, frame.getWidth(), frame.getHeight());
+					screenGraphics.setComposite(AlphaComposite.SrcOver);
+				} else if (previous != null) {
+					screenGraphics.setComposite(AlphaComposite.Src);
+					screenGraphics.drawImage(previous, 0, 0, null);
+					screenGraphics.setComposite(AlphaComposite.SrcOver);
+				}
+			}
+			screenGraphics.dispose();
+		} finally {
+			reader.dispose();
+		}
+
+		if (frames.isEmpty()) {
+			throw new IOException("No frames in " + resource);
+		}
+
+		// Pack the frames into a roughly square grid to stay within texture size limits
+		int columns = (int) Math.ceil(Math.sqrt(frames.size()));
+		int rows = (frames.size() + columns - 1) / columns;
+		WritableImage sheet = new WritableImage(columns * size, rows * size);
+		int[] argb = new int[size * size];
+		long[] frameEnds = new long[frames.size()];
+		long elapsed = 0;
+
+		for (int i = 0; i < frames.size(); i++) {
+			frames.get(i).getRGB(0, 0, size, size, argb, 0, size);
+			sheet.getPixelWriter().setPixels((i % columns) * size, (i / columns) * size, size, size,
+					PixelFormat.getIntArgbInstance(), argb, 0, size);
+
+			elapsed += delays.get(i) * 1000000L;
+			frameEnds[i] = elapsed;
+		}
+
+		return new FrameAtlas(sheet, size, columns, frameEnds);
+	}
+
+	/**
+	 * Get the number of frames in the animation
+	 * @return	The frame count
+	 */
+	public int frames() {
+		return frameEnds.length;
+	}
+
+	/**
+	 * Find the frame showing at a time into the animation, which loops forever
+	 * @param elapsed	Nanoseconds since the animation started
+	 * @return			Index of the frame to draw
+	 */
+	public int frameAt(long elapsed) {
+		if (elapsed == lastTime) {
+			return lastFrame;
+		}
+
+		long t = Math.floorMod(elapsed, frameEnds[frameEnds.length - 1]);
+		int i = Arrays.binarySearch(frameEnds, t);
+
+		// The frame ending exactly at t is already over, otherwise take the insertion point
+		lastFrame = i >= 0 ? (i + 1) % frameEnds.length : -i - 1;
+		lastTime = elapsed;
+		return lastFrame;
+	}
+
+	/**
+	 * Draw one frame
+	 * @param gc	Where to draw
+	 * @param frame	Index of the frame
+	 * @param x		X position of the frame's top left corner
+	 * @param y		Y position of the frame's top left corner
+	 * @param size	Width and height to draw the frame at
+	 */
+	public void draw(GraphicsContext gc, int frame, double x, double y, double size) {
+		gc.drawImage(sheet, (frame % columns) * frameSize, (frame / columns) * frameSize, frameSize, frameSize,
+				x, y, size, size);
+	}
+
+	/**
+	 * Get the number of bytes of pixels in the sprite sheet
+	 * @return	Approximate memory used by the atlas
+	 */
+	public long bytes() {
+		return (long) sheet.getWidth() * (long) sheet.getHeight() * 4;
+	}
+
+	private static IIOMetadataNode child(IIOMetadataNode parent, String name) {
+		for (int i = 0; i < parent.getLength(); i++) {
+			if (parent.item(i).getNodeName().equals(name)) {
+				return (IIOMetadataNode) parent.item(i);
+			}
+		}
+		return null;
+	}
+
+	private static BufferedImage copy(BufferedImage src) {
+		BufferedImage dst = new BufferedImage(src.getWidth(), src.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = dst.createGraphics();
+		g.drawImage(src, 0, 0, null);
+		g.dispose();
+		return dst;
+	}
+
+	private static BufferedImage scale(BufferedImage src, int size) {
+		BufferedImage dst = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = dst.createGraphics();
+		g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+		g.drawImage(src, 0, 0, size, size, null);
+		g.dispose();
+		return dst;
+	}
+}
@@ -0,0 +1,279 @@
+package controller_view.board;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javafx.application.Platform;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Rotate;
+import model.battleship.Ship;
+import model.board.Direction;
+
+/**
+ * A process-wide cache of decoded images used to draw the boards.
+ *
+ * Images are kept in least recently used order and evicted once their pixels exceed a
+ * fixed budget.  Ship sprites are cached after rotating them, so each ship image is
+ * decoded and rotated once per cell size and direction rather than after every move.
+ *
+ * The cache is only used from the JavaFX application thread, since snapshots must be
+ * taken there.  When boards are created or change size the animations are decoded at that
+ * size on a background thread, and the old sizes are dropped once the new ones are ready.
+ * Decoded animations count towards the budget but are never evicted, since only the
+ * animations of one cell size are kept, so images are evicted to make room for them.
+ *
+ * @author Andrew Dennison
+ */
+public final class SpriteCache {
+
+	/**
+	 * The most bytes of pixels the cache holds before evicting images
+	 */
+	public static final long MAX_BYTES = 32L * 1024 * 1024;
+
+	/**
+	 * Identifies one decoded image
+	 * @param resource	Classpath resource of the source image.  Sunk ships use their own resource.
+	 * @param width		Width to decode at, or 0 for the image's own size
+	 * @param height	Height to decode at, or 0 for the image's own size
+	 * @param rotation	Clockwise rotation in degrees
+	 * @param flip		True if the image is flipped top to bottom after rotating
+	 */
+	private record Key(String resource, double width, double height, int rotation, boolean flip) {}
+
+	private static final Map<Key, Image> images = new LinkedHashMap<Key, Image>(64, 0.75f, true);
+	private static long bytes;
+
+	/**
+	 * Decoded animations, keyed by resource and cell size.  Their bytes are counted in bytes.
+	 */
+	private static final Map<Key, FrameAtlas> atlases = new HashMap<Key, FrameAtlas>();
+
+	private static SnapshotParameters params;
+
+	/**
+	 * The cell size animations were last decoded at by rescale
+	 */
+	private static double rescaledSize;
+
+	/**
+	 * Decodes animations at a new cell size away from the JavaFX application thread
+	 */
+	private static final ExecutorService rescaler = Executors.newSingleThreadExecutor((r) -> {
+		Thread t = new Thread(r, "sprite-rescaler");
+		t.setDaemon(true);
+		t.setPriority(Thread.MIN_PRIORITY);
+		return t;
+	});
+
+	private SpriteCache() {
+	}
+
+	/**
+	 * Get an image at its own size
+	 * @param resource	Classpath resource of the image, e.g. "/img/boom.gif"
+	 * @return			The decoded image
+	 */
+	public static Image image(String resource) {
+		return image(resource, 0, 0);
+	}
+
+	/**
+	 * Get an image decoded at a given size
+	 * @param resource	Classpath resource of the image
+	 * @param width		Width in pixels to decode at
+	 * @param height	Height in pixels to decode at
+	 * @return			The decoded image
+	 */
+	public static Image image(String resource, double width, double height) {
+		Key k = new Key(resource, width, height, 0, false);
+		Image img = images.get(k);
+
+		if (img == null) {
+			String url = SpriteCache.class.getResource(resource).toExternalForm();
+			img = new Image(url, width, height, false, false);
+			put(k, img);
+		}
+
+		return img;
+	}
+
+	/**
+	 * Get the sprite of a ship, scaled to the board's cells and rotated to the ship's direction
+	 * @param s			The ship to draw
+	 * @param cellSize	Size in pixels of one cell of the board
+	 * @return			The rotated sprite
+	 */
+	public static Image ship(Ship s, double cellSize) {
+		Direction d = s.getFacingDirection();
+		Key k = new Key(s.getImagePath(), cellSize * s.getLength(), cellSize, d.direction() * 90, d == Direction.LEFT);
+		Image img = images.get(k);
+
+		if (img == null) {
+			ImageView imageView = new ImageView(image(k.resource(), k.width(), k.height()));
+			imageView.setRotate(k.rotation());
+
+			if (k.flip()) {
+				imageView.getTransforms().add(new Rotate(180, Rotate.X_AXIS));
+			}
+
+			if (params == null) {
+				params = new SnapshotParameters();
+				params.setFill(Color.TRANSPARENT);
+			}
+
+			img = imageView.snapshot(params, null);
+			put(k, img);
+		}
+
+		return img;
+	}
+
+	/**
+	 * Get every frame of an animated GIF, decoded at a cell size.  Each animation is decoded once
+	 * per cell size, however many cells show it.
+	 * @param resource	Classpath resource of the GIF
+	 * @param cellSize	Size in pixels of one cell of the board
+	 * @return			The decoded frames, or null if the GIF could not be read
+	 */
+	public static FrameAtlas atlas(String resource, double cellSize) {
+		Key k = new Key(resource, cellSize, cellSize, 0, false);
+		FrameAtlas atlas = atlases.get(k);
+
+		if (atlas == null && !atlases.containsKey(k)) {
+			try {
+				atlas = FrameAtlas.decode(resource, cellSize);
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+
+			// Remember failures too, so a broken GIF is not decoded again every pulse
+			putAtlas(k, atlas);
+			evict();
+		}
+
+		return atlas;
+	}
+
+	/**
+	 * Decode every animated effect at a cell size in the background, so boards which were just
+	 * created or resized do not stall on their first animation.  Once done, animations and sprites
+	 * decoded at any other cell size are dropped.
+	 * @param cellSize	The new size in pixels of one cell of the board
+	 */
+	public static void rescale(double cellSize) {
+		// Every board on a screen is resized at once, but the sprites only need decoding once
+		if (cellSize == rescaledSize) {
+			return;
+		}
+		rescaledSize = cellSize;
+		
+		rescaler.execute(() -> {
+			HashMap<Key, FrameAtlas> decoded = new HashMap<Key, FrameAtlas>();
+			for (EffectSprite sprite : EffectSprite.values()) {
+				if (!sprite.isAnimated()) {
+					continue;
+				}
+
+				try {
+					decoded.put(new Key(sprite.path(), cellSize, cellSize, 0, false), FrameAtlas.decode(sprite.path(), cellSize));
+				} catch (IOException ex) {
+					ex.printStackTrace();
+				}
+			}
+
+			Platform.runLater(() -> {
+				Iterator<Map.Entry<Key, FrameAtlas>> it = atlases.entrySet().iterator();
+				while (it.hasNext()) {
+					Map.Entry<Key, FrameAtlas> e = it.next();
+					if (e.getKey().width() != cellSize) {
+						bytes -= cost(e.getValue());
+						it.remove();
+					}
+				}
+				
+				for (Map.Entry<Key, FrameAtlas> e : decoded.entrySet()) {
+					putAtlas(e.getKey(), e.getValue());
+				}
+				evictOtherSizes(cellSize);
+				evict();
+			});
+		});
+	}
+
+	/**
+	 * Remove the sprites drawn at any cell size but one.  Every sprite drawn on a board is one
+	 * cell high before it is rotated.
+	 */
+	private static void evictOtherSizes(double cellSize) {
+		Iterator<Map.Entry<Key, Image>> it = images.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Key, Image> e = it.next();
+			Key k = e.getKey();
+			if (k.height() > 0 && k.height() != cellSize) {
+				bytes -= cost(e.getValue());
+				it.remove();
+			}
+		}
+	}
+
+	/**
+	 * Get the number of bytes of pixels currently cached
+	 * @return	Approximate memory used by the cached images and animations
+	 */
+	public static long size() {
+		return bytes;
+	}
+
+	/**
+	 * Remove every image from the cache
+	 */
+	public static void clear() {
+		images.clear();
+		atlases.clear();
+		bytes = 0;
+	}
+
+	private static void put(Key k, Image img) {
+		Image old = images.put(k, img);
+		if (old != null) {
+			bytes -= cost(old);
+		}
+		bytes += cost(img);
+		evict();
+	}
+
+	private static void putAtlas(Key k, FrameAtlas atlas) {
+		FrameAtlas old = atlases.put(k, atlas);
+		bytes += cost(atlas) - cost(old);
+	}
+
+	/**
+	 * Evict the least recently used images until the cache is within budget, but always keep
+	 * the image most recently used
+	 */
+	private static void evict() {
+		Iterator<Map.Entry<Key, Image>> it = images.entrySet().iterator();
+		while (bytes > MAX_BYTES && images.size() > 1) {
+			Map.Entry<Key, Image> eldest = it.next();
+			bytes -= cost(eldest.getValue());
+			it.remove();
+		}
+	}
+
+	private static long cost(Image img) {
+		return (long) img.getWidth() * (long) img.getHeight() * 4;
+	}
+
+	private static long cost(FrameAtlas atlas) {
+		return atlas == null ? 0 : atlas.bytes();
+	}
+}
@@ -1,8 +1,11 @@
 package controller_view.screens;
 
-import java.beans.PropertyChangeEvent;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 import controller_view.AllProperties;
+import controller_view.EventBus;
+import controller_view.PlayBattleship;
 import controller_view.SwitchableScreen;
 import javafx.animation.FadeTransition;
 import javafx.geometry.Insets;
@@ -15,7 +18,11 @@ import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
 import javafx.scene.text.Text;
 import javafx.util.Duration;
+import model.ai.Difficulties;
 import model.board.GameplayRecord;
+import model.stats.GameStatsStore;
+import model.stats.LifetimeStats;
+import model.stats.ResultExporter;
 
 /**
  * The screen to be displayed when the game ends.
@@ -32,6 +39,19 @@ public class GameOverScreen extends SwitchableScreen {
 	private Text ratioStats;
 	private Text sunkStats;
 	private Text gameTimeStats;
+	private Text lifetimeStats;
+	private Text difficultyStats;
+	
+	/**
+	 * History of every finished game, or null if it could not be opened
+	 */
+	private GameStatsStore statsStore;
+	
+	/**
+	 * Streams every finished game to the file named by the battleship.export system property,
+	 * or null if no export was requested
+	 */
+	private ResultExporter exporter;
 	
 	/**
 	 * Create a new statistics screen
@@ -58,11 +78,32 @@ public class GameOverScreen extends SwitchableScreen {
 	public GameOverScreen(BorderPane root, double width, double height) {
 		super(root, width, height, "/img/sunset.jpg");
 		
+		initStatsStore();
 		initButton();
 		initGameOverScreen();
 		initHandlers();
 	}
 	
+	private void initStatsStore() {
+		try {
+			statsStore = GameStatsStore.openDefault();
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
+		
+		String exportFile = System.getProperty("battleship.export");
+		if (exportFile == null) {
+			return;
+		}
+		
+		ResultExporter.Format format = exportFile.contains(".jsonl") ? ResultExporter.Format.JSON_LINES : ResultExporter.Format.CSV;
+		try {
+			exporter = ResultExporter.open(Paths.get(exportFile), format, exportFile.endsWith(".gz"));
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
+	}
+	
 	private void initButton() {
 		//Back to menu button
 		mainMenu.setStyle(CSS.MAIN_SCREEN_BUTTON_DEFAULT);
@@ -95,8 +136,11 @@ public class GameOverScreen extends SwitchableScreen {
 		ratioStats = createStatText("Hit Ratio: ___%");
 		sunkStats = createStatText("Ships Sunk: _");
 		gameTimeStats = createStatText("Game Time: 00:00");
+		lifetimeStats = createStatText("");
+		difficultyStats = createStatText("");
 
-		statsContainer.getChildren().addAll(gameOverText, hitStats, ratioStats, sunkStats, gameTimeStats, mainMenu);
+		statsContainer.getChildren().addAll(gameOverText, hitStats, ratioStats, sunkStats, gameTimeStats, 
+				lifetimeStats, difficultyStats, mainMenu);
 
 		window.setCenter(statsContainer);
 		
@@ -104,7 +148,7 @@ public class GameOverScreen extends SwitchableScreen {
 		FadeTransition fadeIn = new FadeTransition(Duration.seconds(1), statsContainer);
 		fadeIn.setFromValue(0);
 		fadeIn.setToValue(1);
-		fadeIn.play();
+		playOnClock(fadeIn);
 	}
 	
 	
@@ -127,17 +171,18 @@ public class GameOverScreen extends SwitchableScreen {
 		// Notify the main window the user wants to change options
 		mainMenu.setOnAction((event) -> {
 			playSound(BUTTON_CLICK_SOUND, false); // Play sound for startButton click
-			PropertyChangeEvent pce = new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), 
-															AllProperties.RESET_GAME, AllProperties.BACK_TO_MENU);
-			fireEvent(pce);
+			switchScreen(AllProperties.RESET_GAME, AllProperties.BACK_TO_MENU);
 		});
 	}
 	
-	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		if (evt.getPropertyName().equals(AllProperties.GAME_STATS_READY.property())) {
-			loadStatistics((GameplayRecord) evt.getNewValue());
-		}
+	/**
+	 * Show the statistics of each game the GamePlayScreen reports
+	 * @param gameplay	The events of the GamePlayScreen
+	 */
+	public void listenTo(EventBus gameplay) {
+		gameplay.subscribe(AllProperties.GAME_STATS_READY, (source, oldValue, record) -> {
+			loadStatistics((GameplayRecord) record);
+		});
 	}
 
 	private void loadStatistics(GameplayRecord results) {
@@ -155,5 +200,62 @@ public class GameOverScreen extends SwitchableScreen {
 		String gameDuration = String.format("Game Time: %d minutes, %d seconds", (int) (duration / 60), (int) (duration % 60));
 		gameTimeStats.setText(gameDuration);
 		
+		loadLifetimeStatistics(results);
+	}
+	
+	/**
+	 * Record the finished game and show the totals across every game played
+	 * @param results	The statistics of the game that just finished
+	 */
+	private void loadLifetimeStatistics(GameplayRecord results) {
+		Difficulties difficulty = PlayBattleship.getInstance().getDifficulty();
+		
+		try {
+			if (exporter != null) {
+				exporter.export(String.valueOf(difficulty), results);
+			}
+			
+			if (statsStore != null) {
+				statsStore.append(results, difficulty);
+			}
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
+		
+		if (statsStore == null) {
+			return;
+		}
+		
+		LifetimeStats ls = statsStore.getLifetimeStats();
+		String lifetime = String.format("Lifetime: %d games, average hit ratio %.2f%%, recent %.2f%%",
+				ls.gamesPlayed(), ls.meanHitRatio(), ls.movingAverageHitRatio());
+		lifetimeStats.setText(lifetime);
+		
+		if (difficulty == null) {
+			difficultyStats.setText("");
+			return;
+		}
+		
+		String best = ls.bestTime(difficulty) == LifetimeStats.NO_BEST_TIME ? "none" : ls.bestTime(difficulty) + " seconds";
+		String perDifficulty = String.format("%s: %.0f%% of %d games won, best time %s", 
+				difficulty, ls.winRate(difficulty), ls.gamesPlayed(difficulty), best);
+		difficultyStats.setText(perDifficulty);
+	}
+	
+	/**
+	 * Flush and close the statistics history and any export in progress
+	 */
+	public void close() {
+		try {
+			if (statsStore != null) {
+				statsStore.close();
+			}
+			
+			if (exporter != null) {
+				exporter.close();
+			}
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
 	}
 }
@@ -1,14 +1,15 @@
 package controller_view.screens;
 
-import java.beans.PropertyChangeEvent;
-
 import controller_view.AllProperties;
+import controller_view.CoalescedUpdate;
+import controller_view.EventBus;
+import controller_view.Pacing;
 import controller_view.PlayBattleship;
 import controller_view.SwitchableScreen;
+import controller_view.TurnScheduler;
 import controller_view.board.BoardContainer;
-import controller_view.board.BoardViewer;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import controller_view.board.EffectScheduler;
+import javafx.animation.AnimationTimer;
 import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Orientation;
@@ -19,6 +20,7 @@ import javafx.scene.control.RadioButton;
 import javafx.scene.control.ToggleGroup;
 import javafx.scene.effect.DropShadow;
 import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.Border;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.BorderStrokeStyle;
@@ -28,16 +30,19 @@ import javafx.scene.layout.FlowPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.util.Duration;
 import model.ai.BattleshipAI;
 import model.ai.Difficulties;
 import model.ai.EasyAI;
 import model.ai.ExtremeAI;
 import model.ai.HardAI;
 import model.ai.ModerateAI;
-import model.animations.HitResultAnimation;
+import model.ai.PlacementModel;
 import model.board.Board;
+import model.board.BoardSnapshot;
+import model.board.GameClock;
+import model.board.GameThread;
 import model.board.GameplayRecord;
+import model.board.MoveResult;
 
 /**
  * The screen used to actually play the game and enter moves.
@@ -58,14 +63,79 @@ public class GamePlayScreen extends SwitchableScreen {
 	
 	private Label specialLabel;
 	
+	/**
+	 * Carries the board whose special ability charged, which may be reported from another thread
+	 */
+	private CoalescedUpdate<Board> specialCharge = new CoalescedUpdate<Board>(this::showSpecial);
+	
+	/**
+	 * The board whose special ability meter is shown
+	 */
+	private Board meterBoard;
+	
+	/**
+	 * Fills the special ability meter each frame until it shows the board's charge, then stops
+	 */
+	private final AnimationTimer specialMeter = new AnimationTimer() {
+		@Override
+		public void handle(long now) {
+			int shown = meterBoard.shownSpecialCharge(GameClock.getDefault().now());
+			specialLabel.setText("Special Ability: " + shown + "%");
+			if (shown == meterBoard.specialCharge()) {
+				stop();
+			}
+		}
+	};
+	
 	private BoardContainer humanBoard;
 	private BoardContainer aiBoard;
+	private EffectScheduler effects;
 	private BattleshipAI currentAI;
 	private Difficulties difficulty;
 
-	private boolean isWaitingToMove;
+	/**
+	 * Owns both boards and the AI while a game is played.  currentAI is only used on this thread.
+	 */
+	private final GameThread logic = new GameThread(Platform::runLater);
+	
+	/**
+	 * The boards being played on, set when each game starts and only changed by the game-logic thread
+	 */
+	private Board humanModel;
+	private Board aiModel;
+	
+	/**
+	 * One click of the player on a board
+	 * @param target	The cell clicked
+	 * @param onAIBoard	True if the AI's board was clicked, false for the player's own
+	 * @param special	The special move selected when the player clicked, or null if none was
+	 */
+	private record Input(Point2D target, boolean onAIBoard, String special) {}
+	
+	/**
+	 * Everything one click of the player did to the AI's board
+	 * @param special		The special move selected, or null if none was
+	 * @param target		The cell clicked
+	 * @param specialHits	The result of each cell the special move hit, or empty if no special move was made
+	 * @param afterSpecial	The AI's board after the special move
+	 * @param move			The player's normal move, or null if none was made
+	 * @param shield		The shield the player placed on their own board, or null if none was
+	 * @param secondChance	True if the move was a second chance, which the AI does not answer
+	 */
+	private record PlayerTurn(String special, Point2D target, int[] specialHits, BoardSnapshot afterSpecial, MoveResult move, MoveResult shield, boolean secondChance) {}
+	
+	/**
+	 * Resolves each click in turn and paces the AI's replies
+	 */
+	private final TurnScheduler<Input, PlayerTurn> turns = new TurnScheduler<Input, PlayerTurn>(logic,
+			this::resolvePlayerTurn, this::expectsReply, this::resolveAIMove, this::showPlayerTurn, this::showAIMove);
 
 	private ToggleGroup specialToggle = new ToggleGroup();
+	
+	/**
+	 * The cell of the opponent's board aimed at with the keyboard, or -1 before the keyboard is used
+	 */
+	private int cursor = -1;
 
 	/**
 	 * Create a new gameplay screen
@@ -81,28 +151,92 @@ public class GamePlayScreen extends SwitchableScreen {
 		root.setBottom(initStatusPane());
 		
 		initHandlers();
+		
+		for (String sound : new String[] { SR_SOUND, NUKE_SOUND, REVEAL_SOUND, SHIELD_SOUND, SC_SOUND }) {
+			preloadSound(sound);
+		}
+		
+		GameClock.getDefault().addListener((clock) -> Platform.runLater(this::clockChanged));
 	}
 	
 	/**
-	 * Add the ability to access the options screen
+	 * Stop filling the special ability meter while the game is paused, since its charge is
+	 * frozen, and carry on once it resumes
+	 */
+	private void clockChanged() {
+		if (GameClock.getDefault().isPaused()) {
+			specialMeter.stop();
+		} else if (meterBoard != null) {
+			specialMeter.start();
+		}
+	}
+	
+	/**
+	 * Handle every key of the screen in one place.  Aiming and firing are caught before any
+	 * control sees them, so the arrow keys move the cursor rather than the focus.
 	 */
 	private void initHandlers() {
-		getRoot().setOnKeyReleased((e)->{
-			if (e.getCode() == KeyCode.ESCAPE) {
-				fireEvent(new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), AllProperties.DISPLAY_BOARD, AllProperties.OPEN_OPTIONS));
-			}
-			
-			else if (e.getCode() == KeyCode.E) {
-				GameplayRecord gr= new GameplayRecord(17, 100.00, 5, 1);
-				fireEvent(new PropertyChangeEvent(this, AllProperties.GAME_STATS_READY.property(), null, gr));
-				fireEvent(new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), null,
-						AllProperties.GAME_OVER));
-			}
-			
-			else if (e.getCode() == KeyCode.F) {
-				aiBoard.getBoard().cheatWin();
-			}
-		});
+		addEventFilter(KeyEvent.KEY_PRESSED, this::keyPressed);
+		getRoot().setOnKeyReleased(this::keyReleased);
+	}
+	
+	/**
+	 * Aim at the opponent's board with the arrow keys, and fire with enter or space.  Held keys
+	 * repeat, and shots fired while a turn plays out are queued like clicks.
+	 * @param e	The key pressed
+	 */
+	private void keyPressed(KeyEvent e) {
+		switch (e.getCode()) {
+			case UP:		moveCursor(0, -1);		break;
+			case DOWN:		moveCursor(0, 1);		break;
+			case LEFT:		moveCursor(-1, 0);		break;
+			case RIGHT:		moveCursor(1, 0);		break;
+			case ENTER:
+			case SPACE:
+				if (cursor != -1) {
+					boardClicked(cursor, true);
+				}
+				break;
+			default:		return;
+		}
+		e.consume();
+	}
+	
+	/**
+	 * Open the options with escape.  E and F end the game at once, for testing.
+	 * @param e	The key released
+	 */
+	private void keyReleased(KeyEvent e) {
+		if (e.getCode() == KeyCode.ESCAPE) {
+			switchScreen(AllProperties.DISPLAY_BOARD, AllProperties.OPEN_OPTIONS);
+		}
+		
+		else if (e.getCode() == KeyCode.E) {
+			GameplayRecord gr= new GameplayRecord(17, 100.00, 5, 1);
+			events.post(AllProperties.GAME_STATS_READY, gr);
+			switchScreen(null, AllProperties.GAME_OVER);
+		}
+		
+		else if (e.getCode() == KeyCode.F) {
+			logic.execute(aiBoard.getBoard()::cheatWin);
+		}
+	}
+	
+	/**
+	 * Move the cursor on the opponent's board, stopping at its edges.  The first move puts the
+	 * cursor on the top left cell.
+	 * @param dx	Cells to move right
+	 * @param dy	Cells to move down
+	 */
+	private void moveCursor(int dx, int dy) {
+		if (cursor == -1) {
+			cursor = 0;
+		} else {
+			int x = Math.max(0, Math.min(9, cursor % 10 + dx));
+			int y = Math.max(0, Math.min(9, cursor / 10 + dy));
+			cursor = y * 10 + x;
+		}
+		aiBoard.showCursor(cursor);
 	}
 
 	private FlowPane initBoards() {
@@ -112,8 +246,12 @@ public class GamePlayScreen extends SwitchableScreen {
 		
 		BorderPane human = new BorderPane();
 		BorderPane ai = new BorderPane();
-		humanBoard = new BoardContainer(boardHeight, false, false);
-		aiBoard = new BoardContainer(boardHeight, true, false);
+		// Both boards play their animations from one scheduler
+		effects = new EffectScheduler();
+		humanBoard = new BoardContainer(boardHeight, false, false, effects);
+		aiBoard = new BoardContainer(boardHeight, true, false, effects);
+		humanBoard.events().subscribe(AllProperties.BOARD_CLICK, (source, cell) -> boardClicked(cell, false));
+		aiBoard.events().subscribe(AllProperties.BOARD_CLICK, (source, cell) -> boardClicked(cell, true));
 		
 		human.setTop(generateLabel("Your Board"));
 		human.setCenter(humanBoard);
@@ -230,124 +368,197 @@ public class GamePlayScreen extends SwitchableScreen {
 	 */
 	public void startGame(Board b) {
 		difficulty = PlayBattleship.getInstance().getDifficulty();
+		Difficulties d = difficulty;
+		Board target = aiBoard.getBoard();
 
-		if (difficulty == Difficulties.EASY) {
-			currentAI = new EasyAI();
-		} else if (difficulty == Difficulties.MEDIUM) {
-			currentAI = new ModerateAI();
-		} else if (difficulty == Difficulties.HARD) {
-			currentAI = new HardAI(b);
-		} else {
-			System.out.println("starting extreme");
-			currentAI = new ExtremeAI(b);
-		}
-
-		aiBoard.notifyStarted();
+		logic.execute(() -> {
+			if (d == Difficulties.EASY) {
+				currentAI = new EasyAI();
+			} else if (d == Difficulties.MEDIUM) {
+				currentAI = new ModerateAI();
+			} else if (d == Difficulties.HARD) {
+				currentAI = new HardAI(b);
+			} else {
+				System.out.println("starting extreme");
+				currentAI = new ExtremeAI(b);
+			}
+			currentAI.usePlacementModel(PlacementModel.getDefault());
+			
+			target.startStats();
+		});
 	}
 
-	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		
+	/**
+	 * Start each game once the ShipPickScreen hands over both boards
+	 * @param shipPicker	The events of the ShipPickScreen
+	 */
+	public void listenTo(EventBus shipPicker) {
 		// Read in the player's board once it's been offered
-		if (evt.getPropertyName().equals(AllProperties.HUMAN_BOARD_READY.property())) {
-			Board b = (Board) evt.getNewValue();
+		shipPicker.subscribe(AllProperties.HUMAN_BOARD_READY, (source, oldValue, board) -> {
+			Board b = (Board) board;
 			humanBoard.setBoard(b);
+			logic.execute(() -> humanModel = b);
 			startGame(b);
-			humanBoard.addListener(this);
-		}
+			listenToBoard(b);
+		});
 
 		// Read in the AI's board once it's been offered
-		if (evt.getPropertyName().equals(AllProperties.AI_BOARD_READY.property())) {
-			Board b = (Board) evt.getNewValue();
+		shipPicker.subscribe(AllProperties.AI_BOARD_READY, (source, oldValue, board) -> {
+			Board b = (Board) board;
 			aiBoard.setBoard(b);
-			b.startStats();
-			aiBoard.addListener(this);
+			logic.execute(() -> {
+				aiModel = b;
+				b.startStats();
+			});
+			listenToBoard(b);
+		});
+	}
+	
+	/**
+	 * Listen to the Board of one side for the end of the game and for its special ability charging
+	 * @param b	A board which was just handed to this screen
+	 */
+	private void listenToBoard(Board b) {
+		// Moves are made on the game-logic thread, and screens must be switched on the JavaFX application thread
+		b.events().subscribe(AllProperties.GAME_OVER, this::gameOver, true);
+		
+		// Moves may be made off the JavaFX application thread, and the meter reads the charge
+		// from the board itself, so only which board charged is passed on
+		b.events().subscribe(AllProperties.UPDATE_SPECIAL, (source, percent) -> specialCharge.set((Board) source));
+		
+		b.events().subscribe(AllProperties.GAME_STATS_READY, (source, oldValue, record) -> {
+			events.post(AllProperties.GAME_STATS_READY, record);
+		}, true);
+	}
+	
+	/**
+	 * If a board throws the end of the game notification, switch screens
+	 */
+	private void gameOver(Object source, Object oldValue, Object newValue) {
+		// Clicks still queued belong to the game which just ended
+		turns.reset();
+		cursor = -1;
+		aiBoard.showCursor(cursor);
+		switchScreen(null, AllProperties.GAME_OVER);
+		
+		// The AI's board only reports statistics when the player wins, so report a loss here
+		if (source == humanBoard.getBoard()) {
+			Board ai = aiBoard.getBoard();
+			logic.submit(ai::getGameplayRecord, (gr) -> {
+				if (gr != null) {
+					events.post(AllProperties.GAME_STATS_READY, gr);
+				}
+			});
 		}
-
-		// If a board throws the end of the game notification, switch screens
-		if (evt.getPropertyName().equals(AllProperties.GAME_OVER.property())) {
-			fireEvent(new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), null,
-					AllProperties.GAME_OVER));
+	}
+	
+	/**
+	 * If a player clicks on a board
+	 * @param cell				The cell clicked, as y * 10 + x
+	 * @param aiBoardClicked	True if the AI's board was clicked, false for the player's own
+	 */
+	private void boardClicked(int cell, boolean aiBoardClicked) {
+		// The special move goes with the click it was selected for, even if the click waits in the queue
+		RadioButton specialButton = (RadioButton) specialToggle.getSelectedToggle();
+		String special = specialButton == null ? null : specialButton.getText().toLowerCase();
+		specialToggle.selectToggle(null);
+		
+		turns.submit(new Input(new Point2D(cell % 10, cell / 10), aiBoardClicked, special));
+	}
+	
+	/**
+	 * Animate the special ability meter up or down to a board's charge
+	 * @param b	The board whose special ability charged or was spent
+	 */
+	private void showSpecial(Board b) {
+		meterBoard = b;
+		if (!GameClock.getDefault().isPaused()) {
+			specialMeter.start();
 		}
-
-		// If a player clicks on a board
-		if (evt.getPropertyName().equals(AllProperties.BOARD_CLICK.property())) {
-			if (isWaitingToMove) {
-				return;
+	}
+		
+	/**
+	 * Work out what a click did to both boards, on the game-logic thread
+	 * @param in	The click
+	 * @return		Everything the click did
+	 */
+	private PlayerTurn resolvePlayerTurn(Input in) {
+		Point2D playerMove = in.target();
+		String special = in.special();
+		
+		// If we're placing a shield, place it on the human's board
+		if ("shield".equals(special)) {
+			// If the player placed a shield on the AI's board, skip the turn
+			// The player's special ability counter is stored on the ai's board.
+			MoveResult shield = null;
+			if (!in.onAIBoard() && aiModel.canMakeShieldMove()) {
+				shield = new MoveResult(playerMove, humanModel.placeShield(playerMove), humanModel.snapshot());
 			}
-			
-			boolean aiBoardClicked = aiBoard.containsBoardViewer((BoardViewer) evt.getSource());
-			handleHumanMove((Point2D) evt.getNewValue(), aiBoardClicked);			
+			return new PlayerTurn(special, playerMove, new int[0], null, null, shield, false);
 		}
 		
-		// If the board updates the progress of the special ability meter
-		if (evt.getPropertyName().equals(AllProperties.UPDATE_SPECIAL.property())) {
-			// Graphical updates to a JavaFX application must be done from within the application
-			// The UPDATE_SPECIAL notification is run from a separate thread, so here we use
-			// Platform.runLater to run the setting of the text from within the JavaFX application
-			Platform.runLater(()->{
-				String text = String.format("Special Ability: %d", (int) evt.getNewValue());
-				specialLabel.setText(text+ "%");
-			});	
-		}
+		int[] hits = special == null ? new int[0] : aiModel.attemptSpecialMove(special, playerMove);
+		BoardSnapshot afterSpecial = aiModel.snapshot();
 		
-		if (evt.getPropertyName().equals(AllProperties.GAME_STATS_READY.property())) {
-			fireEvent(new PropertyChangeEvent(this, AllProperties.GAME_STATS_READY.property(), null, evt.getNewValue()));
+		// Second chance passes straight through to a normal move, which the AI does not answer
+		boolean secondChance = hits.length != 0 && special.equals("second chance");
+		MoveResult move = null;
+		if (in.onAIBoard() || secondChance) {
+			move = new MoveResult(playerMove, aiModel.enterMove(playerMove, false), aiModel.snapshot());
 		}
+		return new PlayerTurn(special, playerMove, hits, afterSpecial, move, null, secondChance);
 	}
+	
+	/**
+	 * Decide whether the AI answers the player's turn, on the game-logic thread
+	 * @param turn	The player's turn
+	 * @return		True if the player made a normal move and the game is not over
+	 */
+	private boolean expectsReply(PlayerTurn turn) {
+		return turn.move() != null && !turn.secondChance() && !aiModel.isEmpty();
+	}
+	
+	/**
+	 * Make the AI's move, on the game-logic thread
+	 * @return	The AI's move, or null if the game was reset
+	 */
+	private MoveResult resolveAIMove() {
+		if (currentAI == null) {
+			return null;
+		}
 		
-	private void handleHumanMove(Point2D playerMove, boolean onAIBoard) {
-		isWaitingToMove = true;
-		
-		RadioButton specialButton = (RadioButton) specialToggle.getSelectedToggle();
-		if (specialButton != null) {
-			String text = specialButton.getText().toLowerCase();
-			
-			// If we're placing a shield, place it on the human's board
-			if (text.equals("shield")) {
-				// If the player placed a shield on the AI's board, skip the turn
-				if (onAIBoard) {
-					endTurn();
-					return;
-				}
-				
-				// If a shield move is valid, then make it
-				// The player's special ability counter is stored on the ai's board.
-				if (aiBoard.checkStatusOfSpecial()) {
-					humanBoard.shieldMove(playerMove);
-					playSound(SHIELD_SOUND, false);
-				}
-				
-				endTurn();
-				return;
-			}
-			
-			else if(aiBoard.attemptSpecialMove(text, playerMove)) {
-				playSpecialSound(text);
-				if (text.equals("second chance")) {
-					endTurn();
-					return;
-				}
-			}
+		Point2D aiMove = currentAI.nextMove();
+		int hit = humanModel.enterMove(aiMove, false);
+		currentAI.registerHit(aiMove, hit);
+		return new MoveResult(aiMove, hit, humanModel.snapshot());
+	}
+	
+	/**
+	 * Draw the player's turn
+	 * @param turn	Everything the player's click did, worked out on the game-logic thread
+	 */
+	private void showPlayerTurn(PlayerTurn turn) {
+		if (turn.shield() != null) {
+			humanBoard.showMove(turn.shield());
+			playSound(SHIELD_SOUND, false);
 		}
 		
-		// The player clicked on their own board and it wasn't a shield move
-		if (!onAIBoard) {
-			endTurn();
-			return;
+		if (turn.specialHits().length != 0) {
+			aiBoard.showSpecialMove(turn.special(), turn.target(), turn.specialHits(), turn.afterSpecial());
+			playSpecialSound(turn.special());
 		}
 		
-		aiBoard.makeMoveOnBoard(playerMove);
-
-		// Make a timeline that runs for 1.5 seconds and calls the AI move afterwards
-		Timeline t = new Timeline(new KeyFrame(new Duration(HitResultAnimation.HIT_DURATION), (e) -> {
-			Point2D aiMove = currentAI.nextMove();						
-			currentAI.registerHit(aiMove, humanBoard.makeMoveOnBoard(aiMove));
-			endTurn();
-		}));
-
-		t.setCycleCount(1);
-		t.play();
+		if (turn.move() != null) {
+			aiBoard.showMove(turn.move());
+		}
+	}
+	
+	/**
+	 * Draw the AI's move
+	 * @param aiMove	The AI's move, worked out on the game-logic thread
+	 */
+	private void showAIMove(MoveResult aiMove) {
+		humanBoard.showMove(aiMove);
 	}
 	
 	private void playSpecialSound(String text) {
@@ -357,19 +568,46 @@ public class GamePlayScreen extends SwitchableScreen {
 		case "strafing run": playSound(SR_SOUND, false); 	break;
 		case "reveal": playSound(REVEAL_SOUND, false);		break;
 		}
-		specialToggle.selectToggle(null);
 	}
-	
-	private void endTurn() {
-		isWaitingToMove = false;
-		specialToggle.selectToggle(null);
+
+	/**
+	 * Scale both boards with the window, keeping them the size they were created at relative to it
+	 */
+	@Override
+	protected void onResized(double width, double height) {
+		super.onResized(width, height);
+		humanBoard.setBoardSize(height / 1.5);
+		aiBoard.setBoardSize(height / 1.5);
+	}
+
+	/**
+	 * Play turns at the pacing chosen in the options, which may have changed while they were open
+	 */
+	@Override
+	public void onShown() {
+		super.onShown();
+		Pacing pacing = PlayBattleship.getInstance().getPacing();
+		turns.setPacing(pacing);
+		humanBoard.setPacing(pacing);
+		aiBoard.setPacing(pacing);
+		effects.redraw();
+	}
+
+	/**
+	 * Stop drawing the boards while another screen is shown
+	 */
+	@Override
+	public void onHidden() {
+		super.onHidden();
+		effects.dispose();
 	}
 
 	/**
 	 * Reset both BoardContainers on the screen
 	 */
 	public void reset() {
-		currentAI = null;
+		turns.reset();
+		logic.execute(() -> currentAI = null);
 		aiBoard.reset();
 		humanBoard.reset();
 	}
@@ -0,0 +1,57 @@
+package controller_view.screens;
+
+import controller_view.SwitchableScreen;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.Background;
+import javafx.scene.layout.BackgroundFill;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.CornerRadii;
+import javafx.scene.paint.Color;
+
+/**
+ * Shown while the first assets are decoded at launch, with the progress of the AssetLoader.
+ *
+ * This screen has no background image, so it can be shown before any image is ready.
+ *
+ * @author Andrew Dennison
+ */
+public class LoadingScreen extends SwitchableScreen {
+
+	private Label title = new Label("BATTLESHIP");
+	private ProgressBar progress = new ProgressBar(0);
+
+	private static final Insets TITLE_MARGIN = new Insets(40, 0, 0, 0);
+
+	/**
+	 * Create a new loading screen.
+	 *
+	 * @param root   BorderPane which contains this LoadingScreen
+	 * @param width  Width of the main window.
+	 * @param height Height of the main window.
+	 */
+	public LoadingScreen(BorderPane root, double width, double height) {
+		super(root, width, height, null);
+
+		window.setBackground(new Background(new BackgroundFill(Color.MIDNIGHTBLUE, CornerRadii.EMPTY, Insets.EMPTY)));
+
+		title.setFont(TITLE_FONT);
+		title.setStyle(CSS.MAIN_SCREEN_TITLE);
+		BorderPane.setMargin(title, TITLE_MARGIN);
+		BorderPane.setAlignment(title, Pos.CENTER);
+		window.setTop(title);
+
+		progress.setPrefWidth(width / 2);
+		window.setCenter(progress);
+	}
+
+	/**
+	 * Show how much of the AssetLoader's work is done
+	 * @param fraction	A value from 0.0 to 1.0
+	 */
+	public void setProgress(double fraction) {
+		progress.setProgress(fraction);
+	}
+}
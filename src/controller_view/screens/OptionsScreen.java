@@ -1,8 +1,8 @@
 package controller_view.screens;
 
-import java.beans.PropertyChangeEvent;
 
 import controller_view.AllProperties;
+import controller_view.Pacing;
 import controller_view.PlayBattleship;
 import controller_view.SwitchableScreen;
 import javafx.geometry.Insets;
@@ -23,6 +23,7 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
+import model.board.GameClock;
 
 /**
  * A simple screen to provide the user a GUI for switching options.
@@ -44,6 +45,7 @@ public class OptionsScreen extends SwitchableScreen {
 	private Button menuButton = new Button("Quit Game");
 	private Button fullscreenButton = new Button("Fullscreen");
 	private Button backButton = new Button("Exit Options");
+	private Button speedButton = new Button("Speed: " + Pacing.NORMAL);
 	private Slider soundSlider = new Slider(0, 100, 50);
 
 	/**
@@ -59,7 +61,7 @@ public class OptionsScreen extends SwitchableScreen {
 	 * This array is of type Node so non-button elements can be added.
 	 */
 
-	private Node[][] options = { { fullscreenButton, helpButton }, { soundSlider, menuButton } // Replace Button with Slider
+	private Node[][] options = { { fullscreenButton, helpButton, speedButton }, { soundSlider, menuButton } // Replace Button with Slider
 	};
 
 
@@ -172,38 +174,65 @@ public class OptionsScreen extends SwitchableScreen {
 	 * Adds functionality to all options and buttons.
 	 */
 	private void initHandlers() {
-		registerButtonAction(menuButton, AllProperties.SWITCH_SCREEN, AllProperties.RESET_GAME, AllProperties.BACK_TO_MENU);
-		registerButtonAction(backButton, AllProperties.SWITCH_SCREEN, null, returnScene);
-		registerButtonAction(helpButton, AllProperties.SWITCH_SCREEN, null, AllProperties.HELP_SCREEN);
+		registerButtonAction(menuButton, AllProperties.RESET_GAME, AllProperties.BACK_TO_MENU);
+		registerButtonAction(helpButton, null, AllProperties.HELP_SCREEN);
+		
+		// The screen to go back to changes each time the options are opened
+		backButton.setOnAction((e)->{
+			playSound(BUTTON_CLICK_SOUND, false);
+			switchScreen(null, returnScene);
+		});
 		
 		//Fullscreen button requires custom logic to swap 
 		fullscreenButton.setOnAction((e)->{
 			playSound(BUTTON_CLICK_SOUND, false);
-			PropertyChangeEvent pce = new PropertyChangeEvent(this, AllProperties.SET_FULLSCREEN.property(), null, null);
-		    fireEvent(pce);
+		    events.post(AllProperties.SET_FULLSCREEN, null);
 		});
 
 		
 		getRoot().setOnKeyReleased((event)->{
 			if (event.getCode() == KeyCode.ESCAPE) {
-				fireEvent(new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), null, returnScene));
+				switchScreen(null, returnScene);
 			}
 		});
 		
+		// Each press moves on to the next pacing, wrapping back to normal
+		speedButton.setOnAction((e)->{
+			playSound(BUTTON_CLICK_SOUND, false);
+			Pacing next = PlayBattleship.getInstance().getPacing().next();
+			PlayBattleship.getInstance().setPacing(next);
+			speedButton.setText("Speed: " + next);
+		});
+		
 		soundSlider.setOnMouseReleased((e)->{
 			double newLevel = soundSlider.getValue() / 100;
 			PlayBattleship.getInstance().setSoundLevel(newLevel);
 		});
 	}
 	
-	private void registerButtonAction(Button button, AllProperties event, Object oldVal, Object newVal) {
+	private void registerButtonAction(Button button, AllProperties from, AllProperties to) {
 		button.setOnAction((e)->{
 			playSound(BUTTON_CLICK_SOUND, false);
-			PropertyChangeEvent pce = new PropertyChangeEvent(this, event.property(), oldVal, newVal);
-		    fireEvent(pce);
+		    switchScreen(from, to);
 		});
 	}
 
+	/**
+	 * Freeze the game while the options are open, so no timer or animation runs on behind them
+	 */
+	@Override
+	public void onShown() {
+		GameClock.getDefault().pause();
+	}
+
+	/**
+	 * Let the game carry on from where it was when the options were opened
+	 */
+	@Override
+	public void onHidden() {
+		GameClock.getDefault().resume();
+	}
+
 	/**
 	 * Set the screen to return to from the options screen
 	 * @param returnScene	The next scene to go to when the escape key is hit
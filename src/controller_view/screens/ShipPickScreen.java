@@ -1,14 +1,11 @@
 package controller_view.screens;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 
 import controller_view.AllProperties;
 import controller_view.PlayBattleship;
 import controller_view.SwitchableScreen;
 import controller_view.board.BoardContainer;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Point2D;
 import javafx.geometry.Pos;
@@ -26,19 +23,20 @@ import javafx.scene.layout.GridPane;
 import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 import javafx.scene.text.FontWeight;
-import javafx.util.Duration;
 import model.ai.Difficulties;
+import model.ai.PlacementModel;
 import model.battleship.Ship;
 import model.battleship.ShipCollection;
 import model.board.Board;
 import model.board.Direction;
+import model.board.GameClock;
 
 /**
  * The screen used to select the difficulty and place ships onto the board
  * 
  * @author Andrew Dennison
  */
-public class ShipPickScreen extends SwitchableScreen implements PropertyChangeListener {
+public class ShipPickScreen extends SwitchableScreen {
 
 	// The various sub-components within the ShipPickScreen
 	private GridPane difficultyButtons;
@@ -80,7 +78,7 @@ public class ShipPickScreen extends SwitchableScreen implements PropertyChangeLi
 	private void initEventHandlers() {
 		getRoot().setOnKeyReleased((e)->{
 			if (e.getCode() == KeyCode.ESCAPE) {
-				fireEvent(new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), AllProperties.START_GAME, AllProperties.OPEN_OPTIONS));
+				switchScreen(AllProperties.START_GAME, AllProperties.OPEN_OPTIONS);
 			}
 		});
 	}
@@ -130,15 +128,19 @@ public class ShipPickScreen extends SwitchableScreen implements PropertyChangeLi
 	private void startGame() {
 		DifficultyButton selected = (DifficultyButton) currentDifficultySelector.getSelectedToggle();
 		PlayBattleship.getInstance().setDifficulty(selected.difficulty);
+		ShipCollection fleet = boardView.getBoard().getCollection();
 
-		fireEvent(new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), null,
-				AllProperties.DISPLAY_BOARD));
-		fireEvent(
-				new PropertyChangeEvent(this, AllProperties.HUMAN_BOARD_READY.property(), null, boardView.getBoard()));
+		switchScreen(null, AllProperties.DISPLAY_BOARD);
+		events.post(AllProperties.HUMAN_BOARD_READY, boardView.getBoard());
 		Board b = new Board();
 		b.setShipRendering(false);
-		fireEvent(new PropertyChangeEvent(this, AllProperties.AI_BOARD_READY.property(), null, b));
+		events.post(AllProperties.AI_BOARD_READY, b);
 
+		// Only learn the fleet once the game has started, so this game's AI cannot see it
+		PlacementModel placements = PlacementModel.getDefault();
+		if (placements != null) {
+			placements.recordFleet(fleet);
+		}
 	}
 
 	/**
@@ -227,7 +229,8 @@ public class ShipPickScreen extends SwitchableScreen implements PropertyChangeLi
 	 */
 	private void initBoardPicker() {
 		boardView = new BoardContainer(getHeight() / 1.5, true, true);
-		boardView.addListener(this);
+		boardView.events().subscribe(AllProperties.BOARD_CLICK, this::boardClicked);
+		boardView.events().subscribe(AllProperties.MOUSE_OVER_EVENT, this::cellHovered);
 		window.setCenter(boardView);
 	}
 
@@ -390,27 +393,28 @@ public class ShipPickScreen extends SwitchableScreen implements PropertyChangeLi
 	
 	
 
-	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		// Handler for when the BoardViewer has been clicked
-		if (evt.getPropertyName().equals(AllProperties.BOARD_CLICK.property())) {
-			playSound(BUTTON_CLICK_SOUND, false);
-			
-			Ship s = getCurrentShipFromSelector((Point2D) evt.getNewValue());
-			boolean added = boardView.addShipToBoard(s);
-
-			if (added) {
-				((ShipButton) currentShipSelector.getSelectedToggle()).setUsed(true);;
-			} else {
-				highlightInstructions();				
-			}
-		}
+	/**
+	 * Handler for when the BoardViewer has been clicked
+	 * @param source	The BoardViewer
+	 * @param cell		The cell clicked, as y * 10 + x
+	 */
+	private void boardClicked(Object source, int cell) {
+		playSound(BUTTON_CLICK_SOUND, false);
 		
-		else if (evt.getPropertyName().equals(AllProperties.MOUSE_OVER_EVENT.property())) {
-			renderShipPreview((Point2D) evt.getNewValue());
+		Ship s = getCurrentShipFromSelector(new Point2D(cell % 10, cell / 10));
+		boolean added = boardView.addShipToBoard(s);
+
+		if (added) {
+			((ShipButton) currentShipSelector.getSelectedToggle()).setUsed(true);;
+		} else {
+			highlightInstructions();				
 		}
 	}
 	
+	private void cellHovered(Object source, int cell) {
+		renderShipPreview(new Point2D(cell % 10, cell / 10));
+	}
+	
 	private void renderShipPreview(Point2D pos) {
 		Ship s = getCurrentShipFromSelector(pos);
 		if (s == null) {
@@ -435,12 +439,18 @@ public class ShipPickScreen extends SwitchableScreen implements PropertyChangeLi
 		BackgroundFill bf = new BackgroundFill(Color.INDIANRED, CornerRadii.EMPTY, Insets.EMPTY);
 		instructions.setBackground(new Background(bf));
 		
-		Timeline t = new Timeline(new KeyFrame(Duration.millis(1500), (e)->{
+		GameClock.getDefault().schedule(1500000000L, Platform::runLater, () -> {
 			instructions.setBackground(null);
-		}));
-		
-		t.setCycleCount(1);
-		t.play();
+		});
+	}
+
+	/**
+	 * Scale the board with the window, keeping it the size it was created at relative to it
+	 */
+	@Override
+	protected void onResized(double width, double height) {
+		super.onResized(width, height);
+		boardView.setBoardSize(height / 1.5);
 	}
 
 	/**
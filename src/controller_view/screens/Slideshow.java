@@ -0,0 +1,157 @@
+package controller_view.screens;
+
+import java.net.URL;
+import java.util.List;
+
+import javafx.application.Platform;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import model.board.GameClock;
+
+/**
+ * Shows a looping sequence of images in an ImageView.
+ *
+ * Only two slides are held at once: the one being shown and the next one, which is decoded
+ * in the background while the current slide is shown.  Slides are decoded at the size they
+ * are displayed at, and each slide is released once the slide after it is shown.
+ *
+ * @author Andrew Dennison
+ */
+public class Slideshow {
+
+	/**
+	 * One image of a slideshow
+	 * @param resource	Classpath resource of the image, e.g. "/img2/helpRules.png"
+	 * @param seconds	How long the image is shown for
+	 */
+	public record Slide(String resource, double seconds) {}
+
+	private final ImageView view;
+	private final List<Slide> slides;
+	private final double width;
+	private final double height;
+
+	/**
+	 * Ends the current slide on the game clock, or null while paused
+	 */
+	private GameClock.Timer timer;
+
+	/**
+	 * Nanoseconds of game time the current slide has left to be shown, while paused
+	 */
+	private long remaining;
+
+	/**
+	 * Game time the current slide ends at, while playing
+	 */
+	private long due;
+
+	/**
+	 * Counts the timers started, so a timer which fired just as it was cancelled is ignored
+	 */
+	private int started;
+
+	/**
+	 * Index of the slide being shown, or -1 before the first slide
+	 */
+	private int index = -1;
+
+	/**
+	 * The next slide, which may still be decoding
+	 */
+	private Image next;
+
+	/**
+	 * Create a slideshow, which does not start until it is played
+	 * @param view		Where to show the slides
+	 * @param slides	The slides in the order they are shown
+	 * @param width		Width in pixels to show each slide at
+	 * @param height	Height in pixels to show each slide at
+	 */
+	public Slideshow(ImageView view, List<Slide> slides, double width, double height) {
+		this.view = view;
+		this.slides = List.copyOf(slides);
+		this.width = width;
+		this.height = height;
+
+		view.setFitWidth(width);
+		view.setFitHeight(height);
+	}
+
+	/**
+	 * Start the slideshow, or resume it from the slide it was paused on
+	 */
+	public void play() {
+		if (index < 0) {
+			next = decode(0);
+			advance();
+		} else if (timer == null) {
+			showFor(remaining);
+		}
+	}
+
+	/**
+	 * Stop on the current slide until the slideshow is played again
+	 */
+	public void pause() {
+		if (timer != null) {
+			timer.cancel();
+			timer = null;
+			remaining = Math.max(0, due - GameClock.getDefault().now());
+		}
+	}
+
+	/**
+	 * Keep the current slide shown for an amount of game time, then advance
+	 * @param nanos	Nanoseconds of game time
+	 */
+	private void showFor(long nanos) {
+		GameClock clock = GameClock.getDefault();
+		due = clock.now() + nanos;
+		int n = ++started;
+		timer = clock.schedule(nanos, Platform::runLater, () -> {
+			if (timer != null && n == started) {
+				timer = null;
+				advance();
+			}
+		});
+	}
+
+	/**
+	 * Show the next slide and start decoding the one after it
+	 */
+	private void advance() {
+		if (slides.isEmpty()) {
+			return;
+		}
+
+		// Skip slides which could not be found, without looping forever if none can be
+		for (int tries = 0; tries < slides.size(); tries++) {
+			index = (index + 1) % slides.size();
+			Image img = next;
+			next = decode((index + 1) % slides.size());
+
+			if (img != null) {
+				view.setImage(img);
+				showFor((long) (slides.get(index).seconds() * 1e9));
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Start decoding a slide in the background at the size it is shown at
+	 * @param i	Index of the slide
+	 * @return	The image, which may still be loading, or null if the slide could not be found
+	 */
+	private Image decode(int i) {
+		String resource = slides.get(i).resource();
+		URL url = getClass().getResource(resource);
+		if (url == null) {
+			System.err.println("Missing slide " + resource);
+			return null;
+		}
+
+		return new Image(url.toExternalForm(), width, height, false, true, true);
+	}
+}
@@ -1,6 +1,5 @@
 package controller_view.screens;
 
-import java.beans.PropertyChangeEvent;
 
 import controller_view.AllProperties;
 import controller_view.SwitchableScreen;
@@ -95,16 +94,13 @@ public class StartScreen extends SwitchableScreen {
 		// Notify the main window the user wants to start a new game
 		startButton.setOnAction((event) -> {
 			playSound(BUTTON_CLICK_SOUND, false);
-			PropertyChangeEvent startGame = new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), AllProperties.BACK_TO_MENU, AllProperties.START_GAME);
-			fireEvent(startGame);
+			switchScreen(AllProperties.BACK_TO_MENU, AllProperties.START_GAME);
 		});
 
 		// Notify the main window the user wants to change options
 		optionsButton.setOnAction((event) -> {
 			playSound(BUTTON_CLICK_SOUND, false);
-			PropertyChangeEvent openOptions = new PropertyChangeEvent(this, AllProperties.SWITCH_SCREEN.property(), AllProperties.BACK_TO_MENU,
-					AllProperties.OPEN_OPTIONS);
-			fireEvent(openOptions);
+			switchScreen(AllProperties.BACK_TO_MENU, AllProperties.OPEN_OPTIONS);
 		});
 	}
 }
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Random;
 
 import javafx.geometry.Point2D;
+import model.board.Board;
 
 /**
  * Template for all AI Classes
@@ -27,26 +28,92 @@ public abstract class BattleshipAI {
 	 */
 	public static final int BOARD_SIZE = 10;
 	
+	/**
+	 * Every cell of the board, indexed by x * 10 + y.  Point2D never changes, so every AI shares these.
+	 */
+	protected static final Point2D[] ALL_CELLS = new Point2D[BOARD_SIZE * BOARD_SIZE];
+	
+	static {
+		for (int i = 0; i < BOARD_SIZE; i++) {
+			for (int j = 0; j < BOARD_SIZE; j++) {
+				ALL_CELLS[i * BOARD_SIZE + j] = new Point2D(i, j);
+			}
+		}
+	}
+	
 	/**
 	 * The random instance available to all children
 	 */
 	protected Random r;
 	
+	/**
+	 * How often human players have placed a ship over each cell, indexed by x * 10 + y,
+	 * or null if the AI should guess uniformly
+	 */
+	protected long[] placementWeights;
+	
+	/**
+	 * The number of human fleets placementWeights was built from
+	 */
+	protected long placementFleets;
+	
 	/**
 	 * Create a new BattleshipAI with a blank slate of empty moves
 	 */
 	public BattleshipAI() {
 		r = new Random();
-		movesLeft = new ArrayList<Point2D>();
-		for (int i = 0; i < BOARD_SIZE; i++) {
-			for (int j = 0; j < BOARD_SIZE; j++) {
-				movesLeft.add(new Point2D(i, j));
-			}
+		movesLeft = new ArrayList<Point2D>(ALL_CELLS.length);
+		for (Point2D p : ALL_CELLS) {
+			movesLeft.add(p);
 		}
 		
 		shipsLeft = 5;
 	}
 	
+	/**
+	 * Forget every move made, so this AI can play a new game against the same board without
+	 * creating a new AI.  Subclasses which remember more must reset it too.
+	 * @param seed	Seeds the AI's guesses, so the same seed always makes the same guesses
+	 */
+	public void reset(long seed) {
+		r.setSeed(seed);
+		movesLeft.clear();
+		for (Point2D p : ALL_CELLS) {
+			movesLeft.add(p);
+		}
+		
+		shipsLeft = 5;
+	}
+	
+	/**
+	 * Create the AI used for a given difficulty
+	 * @param d			The difficulty to create an AI for
+	 * @param target	The board the AI will attack
+	 * @return			A new AI matching the difficulty
+	 */
+	public static BattleshipAI forDifficulty(Difficulties d, Board target) {
+		switch(d) {
+		case EASY:		return new EasyAI();
+		case MEDIUM:	return new ModerateAI();
+		case HARD:		return new HardAI(target);
+		default:		return new ExtremeAI(target);
+		}
+	}
+	
+	/**
+	 * Bias this AI's guesses towards where human players tend to place their ships
+	 * @param model	The recorded human placements, or null to guess uniformly
+	 */
+	public void usePlacementModel(PlacementModel model) {
+		if (model == null || model.fleets() == 0) {
+			placementWeights = null;
+			return;
+		}
+		
+		placementFleets = model.fleets();
+		placementWeights = model.cellWeights();
+	}
+	
 	/**
 	 * Determine the X and Y coordinates of the next move
 	 * @return	Point2D containing the next move the AI would like to make
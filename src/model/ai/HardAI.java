@@ -49,6 +49,24 @@ public class HardAI extends BattleshipAI {
 		prohibitedDirections = new ArrayList<Direction>();
 	}
 
+	/**
+	 * Forget the ship being hunted as well as every move made, to play a new game against the
+	 * same board
+	 * @param seed	Seeds the AI's guesses, so the same seed always makes the same guesses
+	 */
+	@Override
+	public void reset(long seed) {
+		super.reset(seed);
+		lastMoveHit = false;
+		isHunting = false;
+		axisLocked = false;
+		shipOrigin = null;
+		lastMove = null;
+		moveDir = Direction.UP;
+		currentTarget.clear();
+		prohibitedDirections.clear();
+	}
+
 	@Override
 	public void registerHit(Point2D hitPos, int hit) {
 		lastMoveHit = hit == 1;
@@ -95,7 +113,29 @@ public class HardAI extends BattleshipAI {
 	 * @return	x, y coordinates of a random non-hit location on the board.
 	 */
 	protected Point2D guessRandomly() {
-		return movesLeft.get(r.nextInt(movesLeft.size()));
+		if (placementWeights == null) {
+			return movesLeft.get(r.nextInt(movesLeft.size()));
+		}
+		
+		// Every cell keeps a base chance, and cells human players always use are five times as likely
+		long total = 0;
+		for (Point2D p : movesLeft) {
+			total += placementWeight(p);
+		}
+		
+		long pick = (long) (r.nextDouble() * total);
+		for (Point2D p : movesLeft) {
+			pick -= placementWeight(p);
+			if (pick < 0) {
+				return p;
+			}
+		}
+		
+		return movesLeft.get(movesLeft.size() - 1);
+	}
+	
+	private long placementWeight(Point2D p) {
+		return placementFleets + 4 * placementWeights[(int) p.getX() * BOARD_SIZE + (int) p.getY()];
 	}
 
 	/**
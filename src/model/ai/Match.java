@@ -0,0 +1,149 @@
+package model.ai;
+
+import java.util.Random;
+
+import javafx.geometry.Point2D;
+import model.board.Board;
+import model.board.GameplayRecord;
+
+/**
+ * Two boards and the two AIs attacking them, which play simulated games over and over.
+ *
+ * Every game resets the same boards and AIs rather than creating new ones, so a long
+ * simulation creates next to no garbage.  Each thread keeps its own pool of matches, one
+ * per pairing of difficulties, so simulations running on many threads never share a board.
+ * A ShotListener is told about every shot, so a simulation which records whole games, such
+ * as the self-play generator, plays through the same loop as every other simulation.
+ *
+ * @author Andrew Dennison
+ */
+public class Match {
+
+	/**
+	 * Told about every shot of a game as it is played
+	 */
+	public interface ShotListener {
+
+		/**
+		 * Called after each shot is entered on the board it was aimed at
+		 * @param byFirst	True if the first AI took the shot
+		 * @param move		The cell the shot was aimed at
+		 * @param result	The result Board.enterMove returned for the shot
+		 */
+		void shot(boolean byFirst, Point2D move, int result);
+	}
+
+	private static final Difficulties[] DIFFICULTIES = Difficulties.values();
+
+	/**
+	 * The matches of each thread, indexed by first.ordinal() * number of difficulties + second.ordinal()
+	 */
+	private static final ThreadLocal<Match[]> POOL = ThreadLocal.withInitial(() -> new Match[DIFFICULTIES.length * DIFFICULTIES.length]);
+
+	private final Board firstBoard = new Board();
+	private final Board secondBoard = new Board();
+
+	private final BattleshipAI firstAI;
+	private final BattleshipAI secondAI;
+
+	/**
+	 * Splits the seed of each game into seeds for the boards and AIs
+	 */
+	private final Random seeds = new Random();
+
+	/**
+	 * Create a match between two AIs
+	 * @param first		Difficulty of the AI attacking the second board
+	 * @param second	Difficulty of the AI attacking the first board
+	 */
+	public Match(Difficulties first, Difficulties second) {
+		firstAI = BattleshipAI.forDifficulty(first, secondBoard);
+		secondAI = BattleshipAI.forDifficulty(second, firstBoard);
+	}
+
+	/**
+	 * Get this thread's match between two AIs, creating it the first time it is asked for
+	 * @param first		Difficulty of the AI attacking the second board
+	 * @param second	Difficulty of the AI attacking the first board
+	 * @return			The match, which only this thread uses
+	 */
+	public static Match pooled(Difficulties first, Difficulties second) {
+		Match[] pool = POOL.get();
+		int i = first.ordinal() * DIFFICULTIES.length + second.ordinal();
+		if (pool[i] == null) {
+			pool[i] = new Match(first, second);
+		}
+		return pool[i];
+	}
+
+	/**
+	 * Play a game to completion on freshly reset boards, the first AI moving first each round
+	 * @param seed	Chooses both boards and every guess, so the same seed always plays the same game
+	 * @return		The statistics of the first AI's attacks
+	 */
+	public GameplayRecord play(long seed) {
+		reset(seed);
+		return playOut(null);
+	}
+
+	/**
+	 * Set up a new game with freshly placed fleets, without taking any shots
+	 * @param seed	Chooses both boards and every guess, so the same seed always plays the same game
+	 */
+	public void reset(long seed) {
+		seeds.setSeed(seed);
+		firstBoard.reset(seeds.nextLong());
+		secondBoard.reset(seeds.nextLong());
+		firstAI.reset(seeds.nextLong());
+		secondAI.reset(seeds.nextLong());
+
+		firstBoard.startStats();
+		secondBoard.startStats();
+	}
+
+	/**
+	 * Play the game set up by reset to completion, the first AI moving first each round
+	 * @param listener	Told about every shot, or null
+	 * @return			The statistics of the first AI's attacks
+	 */
+	public GameplayRecord playOut(ShotListener listener) {
+		// The game ends on the shot which sinks the last ship, so the loser never shoots after losing
+		while (true) {
+			makeOneMove(secondBoard, firstAI, true, listener);
+			if (secondBoard.isEmpty()) {
+				return secondBoard.getGameplayRecord();
+			}
+
+			makeOneMove(firstBoard, secondAI, false, listener);
+			if (firstBoard.isEmpty()) {
+				return secondBoard.getGameplayRecord();
+			}
+		}
+	}
+
+	private void makeOneMove(Board b, BattleshipAI ai, boolean byFirst, ShotListener listener) {
+		Point2D next = ai.nextMove();
+		int result = b.enterMove(next, true);
+		ai.registerHit(next, result);
+
+		if (listener != null) {
+			listener.shot(byFirst, next, result);
+		}
+	}
+
+	/**
+	 * Get the board the second AI attacks, which is empty once the second AI has won
+	 * @return	The first AI's board
+	 */
+	public Board getFirstBoard() {
+		return firstBoard;
+	}
+
+	/**
+	 * Get the board the first AI attacks, which is empty once the first AI has won
+	 * @return	The second AI's board
+	 */
+	public Board getSecondBoard() {
+		return secondBoard;
+	}
+}
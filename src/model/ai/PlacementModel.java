@@ -0,0 +1,175 @@
+package model.ai;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import model.battleship.Ship;
+import model.battleship.ShipCollection;
+import model.board.Direction;
+
+/**
+ * How often human players place each kind of ship at each position and direction.
+ *
+ * The counts live in a small memory mapped file with one 64-bit counter for every
+ * combination of ship length, start cell and direction.  Counters are incremented
+ * atomically in place, so recording a fleet takes no locks, and AIs read the counts
+ * straight from the mapping without copying the file.
+ *
+ * @author Andrew Dennison
+ */
+public class PlacementModel {
+
+	private static final long MAGIC = 0x42535048504C4331L;
+
+	private static final int CELLS = BattleshipAI.BOARD_SIZE * BattleshipAI.BOARD_SIZE;
+	private static final int DIRECTIONS = Direction.values().length;
+
+	/**
+	 * Ship lengths 2 through 5 each get their own block of counters
+	 */
+	private static final int MIN_LENGTH = 2;
+	private static final int LENGTHS = 4;
+
+	/**
+	 * Counter slots before the placement counts: the magic number, then the number of fleets
+	 */
+	private static final int HEADER_SLOTS = 2;
+	private static final int FLEETS_SLOT = 1;
+
+	private static final int SLOTS = HEADER_SLOTS + LENGTHS * CELLS * DIRECTIONS;
+
+	/**
+	 * Atomic access to the longs of the mapping
+	 */
+	private static final VarHandle COUNTER = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	/**
+	 * The change in x and y for one step along each Direction, indexed by direction()
+	 */
+	private static final int[] STEP_X = { 1, 0, -1, 0 };
+	private static final int[] STEP_Y = { 0, 1, 0, -1 };
+
+	private static PlacementModel defaultModel;
+
+	private final MappedByteBuffer counts;
+
+	/**
+	 * Open or create a placement model stored in a file
+	 * @param file			The counter file
+	 * @throws IOException	If the file could not be opened or mapped
+	 */
+	public PlacementModel(Path file) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+
+		try (FileChannel fc = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE)) {
+			boolean fresh = fc.size() != (long) SLOTS * Long.BYTES;
+			if (fresh) {
+				fc.truncate(0);
+			}
+
+			// The mapping stays valid after the channel is closed
+			counts = fc.map(FileChannel.MapMode.READ_WRITE, 0, (long) SLOTS * Long.BYTES);
+		}
+
+		if ((long) COUNTER.getVolatile(counts, 0) != MAGIC) {
+			for (int slot = 1; slot < SLOTS; slot++) {
+				COUNTER.setVolatile(counts, slot * Long.BYTES, 0L);
+			}
+			COUNTER.setVolatile(counts, 0, MAGIC);
+		}
+	}
+
+	/**
+	 * Get the model shared by the whole game, stored in the user's home directory
+	 * @return	The shared model, or null if it could not be opened
+	 */
+	public static synchronized PlacementModel getDefault() {
+		if (defaultModel == null) {
+			try {
+				defaultModel = new PlacementModel(Paths.get(System.getProperty("user.home"), ".battleship", "placements.dat"));
+			} catch (IOException ex) {
+				ex.printStackTrace();
+			}
+		}
+
+		return defaultModel;
+	}
+
+	/**
+	 * Count the placement of every ship in a human player's fleet
+	 * @param fleet	The ships the player placed
+	 */
+	public void recordFleet(ShipCollection fleet) {
+		for (Ship s : fleet) {
+			int x = (int) s.getStartPos().getX();
+			int y = (int) s.getStartPos().getY();
+			COUNTER.getAndAdd(counts, offset(s.getLength(), x, y, s.getFacingDirection().direction()), 1L);
+		}
+
+		COUNTER.getAndAdd(counts, FLEETS_SLOT * Long.BYTES, 1L);
+	}
+
+	/**
+	 * Get the number of fleets recorded
+	 * @return	The number of times recordFleet has been called
+	 */
+	public long fleets() {
+		return (long) COUNTER.getVolatile(counts, FLEETS_SLOT * Long.BYTES);
+	}
+
+	/**
+	 * Get how often a ship has been placed in a particular way
+	 * @param length	Length of the ship
+	 * @param x			X coordinate of the ship's start
+	 * @param y			Y coordinate of the ship's start
+	 * @param d			Direction the ship extends from its start
+	 * @return			The number of recorded fleets with that placement
+	 */
+	public long count(int length, int x, int y, Direction d) {
+		return (long) COUNTER.getVolatile(counts, offset(length, x, y, d.direction()));
+	}
+
+	/**
+	 * Estimate how often each cell of the board has held a ship, by adding up the counts of
+	 * every placement covering the cell
+	 * @return	One weight per cell, indexed by x * 10 + y to match the order of BattleshipAI moves
+	 */
+	public long[] cellWeights() {
+		long[] weights = new long[CELLS];
+
+		for (int length = MIN_LENGTH; length < MIN_LENGTH + LENGTHS; length++) {
+			for (int cell = 0; cell < CELLS; cell++) {
+				for (int d = 0; d < DIRECTIONS; d++) {
+					long n = (long) COUNTER.getOpaque(counts, offset(length, cell % 10, cell / 10, d));
+					if (n == 0) {
+						continue;
+					}
+
+					for (int i = 0; i < length; i++) {
+						int px = cell % 10 + i * STEP_X[d];
+						int py = cell / 10 + i * STEP_Y[d];
+						if (px >= 0 && px < 10 && py >= 0 && py < 10) {
+							weights[px * 10 + py] += n;
+						}
+					}
+				}
+			}
+		}
+
+		return weights;
+	}
+
+	private static int offset(int length, int x, int y, int direction) {
+		int slot = HEADER_SLOTS + (((length - MIN_LENGTH) * CELLS + y * 10 + x) * DIRECTIONS + direction);
+		return slot * Long.BYTES;
+	}
+}
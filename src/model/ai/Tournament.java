@@ -0,0 +1,100 @@
+package model.ai;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+import model.board.GameplayRecord;
+import model.stats.ResultExporter;
+
+/**
+ * A headless runner which plays AIs against each other without any user interface.
+ *
+ * Every finished game is handed straight to a ResultExporter, so no results are kept
+ * in memory regardless of how many games are played.  Games are played on this thread's
+ * pooled Match, so the same boards and AIs are reset for every game.
+ *
+ * @author Andrew Dennison
+ */
+public class Tournament {
+
+	private final Difficulties first;
+	private final Difficulties second;
+
+	/**
+	 * Chooses the seed of every game
+	 */
+	private final Random seeds = new Random();
+
+	/**
+	 * Create a tournament between two AIs
+	 * @param first		Difficulty of the AI whose results are reported
+	 * @param second	Difficulty of the opposing AI
+	 */
+	public Tournament(Difficulties first, Difficulties second) {
+		this.first = first;
+		this.second = second;
+	}
+
+	/**
+	 * Play a number of games, exporting the result of each as it finishes
+	 * @param games			The number of games to play
+	 * @param exporter		Where to send each result
+	 * @return				The number of games the first AI won
+	 * @throws IOException	If a result could not be exported
+	 */
+	public int play(int games, ResultExporter exporter) throws IOException {
+		String label = first + " vs " + second;
+		int wins = 0;
+
+		for (int i = 0; i < games; i++) {
+			GameplayRecord gr = playOneGame();
+			if (gr.shipsSunk() == 5) {
+				wins++;
+			}
+
+			exporter.export(label, gr);
+		}
+
+		return wins;
+	}
+
+	/**
+	 * Play a single game to completion
+	 * @return	The statistics of the first AI's attacks
+	 */
+	public GameplayRecord playOneGame() {
+		return Match.pooled(first, second).play(seeds.nextLong());
+	}
+
+	/**
+	 * Run a tournament from the command line.
+	 *
+	 * Usage: Tournament first second games file, e.g. "Tournament HARD EASY 100000 results.csv.gz".
+	 * The file is written as JSON Lines if its name contains ".jsonl", otherwise as CSV, and
+	 * is gzip compressed if its name ends in ".gz".
+	 * @param args			Command line arguments
+	 * @throws IOException	If the results could not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length != 4) {
+			System.out.println("Usage: Tournament <first difficulty> <second difficulty> <games> <file>");
+			return;
+		}
+
+		Tournament t = new Tournament(Difficulties.valueOf(args[0].toUpperCase()),
+				Difficulties.valueOf(args[1].toUpperCase()));
+		int games = Integer.parseInt(args[2]);
+
+		Path file = Paths.get(args[3]);
+		String name = file.getFileName().toString();
+		ResultExporter.Format format = name.contains(".jsonl") ? ResultExporter.Format.JSON_LINES
+				: ResultExporter.Format.CSV;
+
+		try (ResultExporter exporter = ResultExporter.open(file, format, name.endsWith(".gz"))) {
+			int wins = t.play(games, exporter);
+			System.out.println(String.format("%s won %d of %d games", args[0], wins, games));
+		}
+	}
+}
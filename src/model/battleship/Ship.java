@@ -59,6 +59,11 @@ public class Ship {
 	 */
 	private boolean isRevealed;
 	
+	/**
+	 * Incremented every time the ship is damaged, sunk, turned, revealed or hidden
+	 */
+	private long version;
+	
 	/**
 	 * Second optional constructor, based on whichever is easier in the ShipPickScreen
 	 * @param start		Coordinates of the "start" of the ship
@@ -78,6 +83,40 @@ public class Ship {
 		isRevealed = true;
 	}
 	
+	/**
+	 * Create a copy of a Ship, which does not change when the original is damaged, turned or revealed
+	 * @param other	The Ship to copy
+	 */
+	public Ship(Ship other) {
+		startX = other.startX;
+		startY = other.startY;
+		orientation = other.orientation;
+		damages = other.damages.clone();
+		
+		size = other.size;
+		isSub = other.isSub;
+		isSunk = other.isSunk;
+		isRevealed = other.isRevealed;
+		version = other.version;
+	}
+	
+	/**
+	 * Put this Ship back in the water undamaged, so a new game can reuse it instead of creating a new one
+	 * @param x			X coordinate of the "start" of the ship
+	 * @param y			Y coordinate of the "start" of the ship
+	 * @param facing	Direction from the start to the end of the ship
+	 */
+	public void reset(int x, int y, Direction facing) {
+		startX = x;
+		startY = y;
+		orientation = facing;
+		Arrays.fill(damages, false);
+		
+		isSunk = false;
+		isRevealed = true;
+		version++;
+	}
+	
 	/**
 	 * Get the direction this Ship is facing
 	 * 
@@ -101,6 +140,9 @@ public class Ship {
 	 * @param orientation	Which direction the ship extends from its starting position
 	 */
 	public void setFacingDirection(Direction orientation) {
+		if (this.orientation != orientation) {
+			version++;
+		}
 		this.orientation = orientation;
 	}
 	
@@ -122,6 +164,7 @@ public class Ship {
 		
 		isRevealed = true;
 		isSunk = true;
+		version++;
 		return true;
 	}
 	
@@ -143,11 +186,21 @@ public class Ship {
 		
 		if (!isPassive) {
 			damages[position] = true;
+			version++;
 		}
 		
 		return true;
 	}
 	
+	/**
+	 * Determine whether one square of this Ship is damaged
+	 * @param position	The distance from the square to the starting position of the Ship
+	 * @return			True if the square has been hit, false if not or if it is not part of the ship
+	 */
+	public boolean isDamaged(int position) {
+		return position >= 0 && position < damages.length && damages[position];
+	}
+	
 	/**
 	 * Get the [0, 0] of this Ship relative to itself
 	 * @return	The X and Y coordinate on the board of the ship's 0th index
@@ -156,6 +209,22 @@ public class Ship {
 		return new Point2D(startX, startY);
 	}
 	
+	/**
+	 * Get the X coordinate of the ship's 0th index, without creating a Point2D
+	 * @return	The X coordinate on the board of the start of the ship
+	 */
+	int startX() {
+		return startX;
+	}
+	
+	/**
+	 * Get the Y coordinate of the ship's 0th index, without creating a Point2D
+	 * @return	The Y coordinate on the board of the start of the ship
+	 */
+	int startY() {
+		return startY;
+	}
+	
 	/**
 	 * Get the number of tiles this ship extends from its starting position.
 	 * @return	The length of this Ship
@@ -212,9 +281,22 @@ public class Ship {
 	 * @param status	True if this should should always be rendered, false otherwise
 	 */
 	public void setRevealStatus(boolean status) {
+		if (isRevealed != status) {
+			version++;
+		}
 		this.isRevealed = status;
 	}
 	
+	/**
+	 * Get the version of this ship, which changes whenever anything a view could draw changes.
+	 * A view which remembers the version it last drew only needs to redraw the ship when the
+	 * version differs.
+	 * @return	The number of changes made to this ship
+	 */
+	public long version() {
+		return version;
+	}
+	
 	/**
 	 * Get if this Ship is revealed
 	 * @return True if this should should always be rendered, false otherwise
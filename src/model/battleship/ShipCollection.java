@@ -1,6 +1,7 @@
 package model.battleship;
 
 import java.util.Iterator;
+import java.util.Random;
 
 import javafx.geometry.Point2D;
 import model.board.Direction;
@@ -26,11 +27,21 @@ public class ShipCollection implements Iterable<Ship> {
 	 */
 	private int shipsRemaining;
 
+	/**
+	 * Incremented whenever a ship is added or removed
+	 */
+	private long structureVersion;
+
 	/**
 	 * The unchanging length of the five kinds of ships on the board.
 	 */
 	public static final int[] SHIP_LENGTHS = new int[] { 2, 3, 3, 4, 5 };
 
+	/**
+	 * Chooses where reset places the ships, kept so a collection reset for every game creates no objects
+	 */
+	private Random random;
+
 	/**
 	 * Create a new collection with null ships in it.
 	 * 
@@ -68,6 +79,7 @@ public class ShipCollection implements Iterable<Ship> {
 
 		allShips[shipsRemaining] = s;
 		shipsRemaining++;
+		structureVersion++;
 		return true;
 	}
 	
@@ -79,6 +91,8 @@ public class ShipCollection implements Iterable<Ship> {
 	public boolean removeShip(Ship newShip) {
 		for (int i = 0; i < allShips.length; i++) {
 			if (allShips[i]!= null && allShips[i].equals(newShip)) {
+				// Keep version() increasing even though the removed ship's changes no longer count
+				structureVersion += allShips[i].version() + 1;
 				allShips[i] = null;
 				shipsRemaining--;
 				return true;
@@ -88,6 +102,21 @@ public class ShipCollection implements Iterable<Ship> {
 		return false;
 	}
 
+	/**
+	 * Get the version of this collection, which changes whenever a ship is added, removed or
+	 * changed.  Compare each ship's own version to find which ships changed.
+	 * @return	The number of changes made to this collection and its ships
+	 */
+	public long version() {
+		long v = structureVersion;
+		for (Ship s : allShips) {
+			if (s != null) {
+				v += s.version();
+			}
+		}
+		return v;
+	}
+
 	/**
 	 * Get a ship within this collection
 	 * 
@@ -156,36 +185,151 @@ public class ShipCollection implements Iterable<Ship> {
 	 *         Ship.
 	 */
 	public static int tryLengthOfShip(Point2D hitPos, Ship s) {
+		return tryLengthOfShip((int) hitPos.getX(), (int) hitPos.getY(), s);
+	}
+
+	/**
+	 * Given a cell on the board, check if that cell falls into a Ship
+	 * 
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @param s	The Ship that is being checked for a hit.
+	 * @return	-1 if the ship was not hit, otherwise the index of the hit on the Ship.
+	 */
+	public static int tryLengthOfShip(int x, int y, Ship s) {
 		Direction facing = s.getFacingDirection();
 		int length = s.getLength();
-		Point2D start = s.getStartPos();
+		int startX = s.startX();
+		int startY = s.startY();
 
-		if (facing.isVertical() && hitPos.getX() != start.getX() || 
-			!facing.isVertical() && hitPos.getY() != start.getY()) {
+		if (facing.isVertical() && x != startX || !facing.isVertical() && y != startY) {
 			return -1;
 		}
 		
 		if (facing.equals(Direction.LEFT)) {
-			if (hitPos.getX() <= start.getX() && hitPos.getX() > start.getX() - length) {
-				return (int) (start.getX() - hitPos.getX());
+			if (x <= startX && x > startX - length) {
+				return startX - x;
 			}
 		} else if (facing.equals(Direction.UP)) {
-			if (hitPos.getY() <= start.getY() && hitPos.getY() > start.getY() - length) {
-				return (int) (start.getY() - hitPos.getY());
+			if (y <= startY && y > startY - length) {
+				return startY - y;
 			}
 		} else if (facing.equals(Direction.RIGHT)) {
-			if (hitPos.getX() >= start.getX() && hitPos.getX() < start.getX() + length) {
-				return (int) (hitPos.getX() - start.getX());
+			if (x >= startX && x < startX + length) {
+				return x - startX;
 			}
 		} else if (facing.equals(Direction.DOWN)){
-			if (hitPos.getY() >= start.getY() && hitPos.getY() < start.getY() + length) {
-				return (int) (hitPos.getY() - start.getY());
+			if (y >= startY && y < startY + length) {
+				return y - startY;
 			}
 		}
 		
 		return -1;
 	}
 
+	/**
+	 * Check if two ships on the board conflict in their positioning
+	 * 
+	 * @param ship1	The first Ship to check for conflicts
+	 * @param ship2	The second Ship to check for conflicts
+	 * @return		True if the ships conflict, false if they do not
+	 */
+	public static boolean shipsConflict(Ship ship1, Ship ship2) {
+		Direction facing = ship1.getFacingDirection();
+		int dx = facing == Direction.RIGHT ? 1 : facing == Direction.LEFT ? -1 : 0;
+		int dy = facing == Direction.DOWN ? 1 : facing == Direction.UP ? -1 : 0;
+		
+		for (int i = 0; i < ship1.getLength(); i++) {
+			if (tryLengthOfShip(ship1.startX() + i * dx, ship1.startY() + i * dy, ship2) != -1) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+	
+	/**
+	 * Check that all squares a Ship is in are valid squares on the board
+	 * @param s	Ship to check
+	 * @return	false if the ship does not run off the board
+	 */
+	public static boolean fitsOnBoard(Ship s) {
+		switch(s.getFacingDirection()) {
+			case UP: return s.startY() - s.getLength() >= 0;
+			case RIGHT: return s.startX() + s.getLength() < 10;
+			case DOWN: return s.startY() + s.getLength() < 10;
+			default: return s.startX() - s.getLength() >= 0;
+		}		
+	}
+
+	/**
+	 * Place all five ships at random, undamaged, reusing the ships already in this collection
+	 * so simulations playing many games create no new objects.  Ships are placed by trying
+	 * random starting squares and rotating each ship until it fits.
+	 * 
+	 * @param seed	Chooses the placement, so the same seed always places the ships the same way
+	 */
+	public void reset(long seed) {
+		if (random == null) {
+			random = new Random();
+		}
+		random.setSeed(seed);
+		
+		if (allShips.length != SHIP_LENGTHS.length) {
+			allShips = new Ship[SHIP_LENGTHS.length];
+		}
+		
+		for (int i = 0; i < SHIP_LENGTHS.length; i++) {
+			if (allShips[i] == null || allShips[i].getLength() != SHIP_LENGTHS[i]) {
+				allShips[i] = new Ship(new Point2D(0, 0), Direction.LEFT, SHIP_LENGTHS[i], i == 2);
+			}
+			place(i);
+		}
+		
+		shipsRemaining = SHIP_LENGTHS.length;
+		structureVersion++;
+	}
+	
+	/**
+	 * Find a random open spot for a ship which does not conflict with the ships before it
+	 * @param index	Index of the ship to place
+	 */
+	private void place(int index) {
+		Ship newShip = allShips[index];
+		while (true) {
+			int x = random.nextInt(10);
+			int y = random.nextInt(10);
+			
+			// Make sure the start point has no conflict with existing ships
+			boolean conflict = false;
+			for (int i = 0; i < index && !conflict; i++) {
+				conflict = tryLengthOfShip(x, y, allShips[i]) != -1;
+			}
+			
+			// If we detected a conflict, generate a new point
+			if (conflict) {
+				continue;
+			}
+			
+			newShip.reset(x, y, Direction.LEFT);
+			
+			// Rotate the ship until we find an open spot
+			for (int turn = 0; turn < 4; turn++) {
+				newShip.setFacingDirection(newShip.getFacingDirection().rotateRight());
+				
+				conflict = !fitsOnBoard(newShip);
+				for (int i = 0; i < index && !conflict; i++) {
+					conflict = shipsConflict(newShip, allShips[i]);
+				}
+				
+				// If we didn't find any issues with this ship placement, break out.
+				if (!conflict) {
+					return;
+				}
+			}
+		}
+	}
+
 	@Override
 	public Iterator<Ship> iterator() {
 		return new ShipsIterator();
@@ -1,17 +1,13 @@
 package model.board;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
 import java.io.Serializable;
-import java.time.Duration;
-import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.atomic.AtomicReference;
 
 import controller_view.AllProperties;
+import controller_view.EventBus;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Point2D;
@@ -54,14 +50,56 @@ public class Board implements Serializable{
 	ArrayList<Point2D> shieldedBoxes = new ArrayList<Point2D>();
 	
 	/**
-	 * Create a new board with a given collection of Ships
+	 * Notifies listeners of the game ending and of the special ability charging.  Listeners
+	 * are not part of a board's state, so they are not serialized.
+	 */
+	private transient EventBus events = new EventBus(this);
+	
+	/**
+	 * The percentage of the special ability gained by each move on an AI's board
+	 */
+	public static final int SPECIAL_PER_MOVE = 10;
+	
+	/**
+	 * How long the special ability meter takes to show each percent it gains
+	 */
+	public static final long SPECIAL_FILL_NANOS = 45_000_000;
+	
+	/**
+	 * The charge of the special ability at one moment, which is never changed, only replaced.
+	 * 100 percent means a special ability is ready to be used.
+	 * @param shown		The percentage the meter showed when the charge was last changed
+	 * @param percent	The percentage charged, from 0 to 100, which the meter fills up to
+	 * @param since		Game time when the charge was last changed
+	 */
+	private record SpecialCharge(int shown, int percent, long since) implements Serializable {
+		
+		/**
+		 * Work out what the meter shows at a given time, filling one percent every SPECIAL_FILL_NANOS
+		 * @param now	Game time to find the meter at
+		 * @return		The percentage shown, from shown up to percent
+		 */
+		int shownAt(long now) {
+			long elapsed = now - since;
+			
+			// A board loaded from a save was charged in another run, whose clock means nothing in this one
+			if (elapsed < 0 || elapsed / SPECIAL_FILL_NANOS >= percent - shown) {
+				return percent;
+			}
+			return shown + (int) (elapsed / SPECIAL_FILL_NANOS);
+		}
+	}
+	
+	/**
+	 * The charge of a board no move has been made on
 	 */
-	PropertyChangeSupport pcs = new PropertyChangeSupport(this);
+	private static final SpecialCharge NO_CHARGE = new SpecialCharge(0, 0, 0);
 	
 	/**
-	 * A value from 0 to 100 of the current percentage readiness of the special ability.  100 means a special ability is ready to be used.
+	 * The special ability charge, changed only by compare and set so moves and special moves
+	 * made on different threads never lose an update, and read without locking
 	 */
-	public int specialAbilityCounter;
+	private final AtomicReference<SpecialCharge> special = new AtomicReference<SpecialCharge>(NO_CHARGE);
 	
 	/**
 	 * The total number of moves made on this board
@@ -74,9 +112,10 @@ public class Board implements Serializable{
 	private int hitCount;
 	
 	/**
-	 * The start time of the board
+	 * The game time when startStats was called, and whether it has been
 	 */
-	private LocalTime startTime;
+	private long startNanos;
+	private boolean started;
 	
 	/**
 	 * True if this board belongs to an AI, false otherwise
@@ -84,18 +123,39 @@ public class Board implements Serializable{
 	public boolean isAI;
 	
 	/**
-	 * Timer used to increment the special ability counter
+	 * Incremented whenever a move or shield changes a cell
+	 */
+	private long cellChanges;
+	
+	/**
+	 * The version of the board when each cell last changed, indexed by y * 10 + x
+	 */
+	private long[] cellVersions = new long[100];
+	
+	/**
+	 * The version of the board when it was last reset, before which no cell counts as fired upon
+	 */
+	private long resetVersion;
+	
+	/**
+	 * The snapshot last taken of this board, whose unchanged ships the next snapshot shares
+	 */
+	private transient BoardSnapshot lastSnapshot;
+	
+	/**
+	 * The state last read from this board and the version it was read at, whose fleet the next state shares
 	 */
-	private Timer timer;
+	private transient BoardState lastState;
+	private transient long lastStateVersion;
 	
 	/**
 	 * Create a Board with randomly generated ship positions.  This constructor
 	 * is intended for usage with AI players only.
 	 */
 	public Board() {
-		allShips = generateRandomShips();
+		allShips = new ShipCollection();
+		allShips.reset(new Random().nextLong());
 		isAI = true;
-		timer = new Timer();
 	}
 	
 	/**
@@ -108,6 +168,41 @@ public class Board implements Serializable{
 	}
 	
 	
+	/**
+	 * Create a board matching an immutable state, such as one kept in a game's history
+	 * @param state	The state to rebuild, with each cell fired upon counted as one move
+	 */
+	public Board(BoardState state) {
+		this(new ShipCollection(state.fleet().createShips()));
+		
+		for (int y = 0; y < 10; y++) {
+			for (int x = 0; x < 10; x++) {
+				Point2D p = new Point2D(x, y);
+				if (state.isShot(x, y)) {
+					movesCount++;
+					markChanged(p);
+				}
+				
+				// Damage is replayed as it was dealt, so the collection sinks ships and counts them
+				if (state.isHit(x, y)) {
+					allShips.tryMove(p, false);
+					if (state.isShot(x, y)) {
+						allMoves.add(p);
+						hitCount++;
+					}
+				}
+				
+				if (state.isShielded(x, y)) {
+					shieldedBoxes.add(p);
+					markChanged(p);
+				}
+			}
+		}
+		
+		for (int i = 0; i < state.fleet().size(); i++) {
+			allShips.getShip(i).setRevealStatus(state.isRevealed(i));
+		}
+	}
 
 	/**
 	 * Make a move at a given position.
@@ -117,15 +212,26 @@ public class Board implements Serializable{
 	 * @return -1 if the move hit a Shield, 1 if the move hit a Ship, 0 if a miss
 	 */
 	public int enterMove(Point2D move, boolean testing) {
+		// A move on the AI's board charges the player's special ability
+		return makeMove(move, isAI && !testing);
+	}
+	
+	/**
+	 * Make a move at a given position, which may charge the special ability
+	 * @param move		Point2D x, y coordinates on the board to make a move
+	 * @param charges	True if the move charges the special ability, false for the cells a special move hits
+	 * @return -1 if the move hit a Shield, 1 if the move hit a Ship, 0 if a miss
+	 */
+	private int makeMove(Point2D move, boolean charges) {
 		if (move.getX() < 0 || move.getX() > 9 || move.getY() < 0 || move.getY() > 9) {
 			return 0;
 		}
 		
 		movesCount++;
-		// If a move has been made on the AI's board, and we still need to increment the counter
-		// schedule a task to do so
-		if (isAI && specialAbilityCounter < 100 && !testing) {
-			incrementSpecialAbilityCounter();
+		markChanged(move);
+		
+		if (charges) {
+			chargeSpecial();
 		}
 				
 		if(!shieldedBoxes.contains(move)) {
@@ -146,40 +252,65 @@ public class Board implements Serializable{
 		return 0;
 	}
 	
-	private void incrementSpecialAbilityCounter() {
-		specialAbilityCounter++;
-
-		TimerTask t = new TimerTask() {
-			@Override
-			public void run() {
-				if (specialAbilityCounter % 10 != 0) {
-					specialAbilityCounter++;
-					PropertyChangeEvent pce = new PropertyChangeEvent(this, AllProperties.UPDATE_SPECIAL.property(), specialAbilityCounter - 1, specialAbilityCounter);
-					pcs.firePropertyChange(pce);
-				} else {
-					this.cancel();
-					timer.purge();
-				}
+	/**
+	 * Add one move's worth of charge to the special ability, unless it is already full
+	 */
+	private void chargeSpecial() {
+		long now = GameClock.getDefault().now();
+		SpecialCharge current;
+		SpecialCharge next;
+		do {
+			current = special.get();
+			if (current.percent() >= 100) {
+				return;
 			}
-		};
+			
+			// Fill from wherever the meter is now, so a quick second move does not make it jump
+			next = new SpecialCharge(current.shownAt(now), Math.min(100, current.percent() + SPECIAL_PER_MOVE), now);
+		} while (!special.compareAndSet(current, next));
 		
-		timer.schedule(t, 0, 45);
+		events.post(AllProperties.UPDATE_SPECIAL, next.percent());
 	}
-
+	
+	/**
+	 * Get the charge of the special ability
+	 * @return	A value from 0 to 100, where 100 means a special ability is ready to be used
+	 */
+	public int specialCharge() {
+		return special.get().percent();
+	}
+	
+	/**
+	 * Get the percentage the special ability meter shows at a given time.  The meter fills
+	 * gradually after each move, so screens animating it can call this every frame until it
+	 * reaches specialCharge().
+	 * @param now	Game time from GameClock.now()
+	 * @return		A value from 0 to specialCharge()
+	 */
+	public int shownSpecialCharge(long now) {
+		return special.get().shownAt(now);
+	}
+	
 	private void endGame() {
 		// Notify all listeners the game is over				
-		PropertyChangeEvent pce = new PropertyChangeEvent(this, AllProperties.GAME_OVER.property(), false, true);
-		pcs.firePropertyChange(pce);
+		events.post(AllProperties.GAME_OVER, false, true);
 		
 		// Present statistics to listeners if this was a board a player was attacking
 		if(isAI) {
-			Duration gameLength = Duration.between(LocalTime.now(), startTime);
-			double hitRatio = ((double) hitCount) / movesCount * 100;
-			GameplayRecord gr = new GameplayRecord(hitCount, hitRatio, 5 - size(), gameLength.toSeconds());
-			PropertyChangeEvent pce2 = new PropertyChangeEvent(this, AllProperties.GAME_STATS_READY.property(), null, gr);
-			pcs.firePropertyChange(pce2);
+			events.post(AllProperties.GAME_STATS_READY, getGameplayRecord());
 		}
 	}
+	
+	/**
+	 * Summarize the moves made on this board since startStats was called
+	 * @return	The statistics of the attacks made against this board
+	 */
+	public GameplayRecord getGameplayRecord() {
+		// Game time stops while the game is paused, so time spent in the options is not counted
+		long gameLength = started ? (GameClock.getDefault().now() - startNanos) / 1000000000 : 0;
+		double hitRatio = movesCount == 0 ? 0 : ((double) hitCount) / movesCount * 100;
+		return new GameplayRecord(hitCount, hitRatio, 5 - size(), gameLength);
+	}
 
 	/**
 	 * Add a shield at given position
@@ -190,6 +321,7 @@ public class Board implements Serializable{
 	public int placeShield(Point2D pos) {
 		if (allShips.tryMove(pos, true) && !shieldedBoxes.contains(pos)) {
 			shieldedBoxes.add(pos);
+			markChanged(pos);
 			return -1;
 		}
 		else {
@@ -197,119 +329,82 @@ public class Board implements Serializable{
 		}
 	}
 	
+	private void markChanged(Point2D cell) {
+		cellChanges++;
+		cellVersions[(int) cell.getY() * 10 + (int) cell.getX()] = version();
+	}
+	
 	/**
-	 * Determine whether this board has any valid targets left.
-	 * @return	True if all ships are sunk, false otherwise
+	 * Get the version of this board, which changes whenever a cell or any ship changes.
+	 * A view which remembers the version it last drew can skip redrawing while the version is
+	 * unchanged, and use cellChangedSince and each Ship's version to find what to redraw.
+	 * @return	The number of changes made to this board and its ships
 	 */
-	public boolean isEmpty() {
-		return allShips.isEmpty();
+	public long version() {
+		return cellChanges + allShips.version();
 	}
 	
 	/**
-	 * Get the logical size of the underlying ShipCollection
-	 * @return	Number of ships left on the board
+	 * Take a snapshot of this board which can be drawn on another thread while the board keeps
+	 * changing.  Must be called on the thread which changes the board.
+	 * @return	The board as it is now, which is the same snapshot as last time if nothing changed
 	 */
-	public int size() {
-		return allShips.size();
+	public BoardSnapshot snapshot() {
+		if (lastSnapshot == null || lastSnapshot.version() != version()) {
+			lastSnapshot = new BoardSnapshot(this, lastSnapshot);
+		}
+		return lastSnapshot;
 	}
 	
 	/**
-	 * Generate a collection of ships in random positions and directions
-	 * @return	The collection containing five randomly generated ships
+	 * Get the state of this board as an immutable value, which shares where the ships lie with
+	 * the board's previous state.  A shielded cell is read as not fired upon.
+	 * @return	The board as it is now, which is the same state as last time if nothing changed
 	 */
-	private ShipCollection generateRandomShips() {
-		ShipCollection sc = new ShipCollection();
-		Random rand = new Random();
-		int shipsAdded = 0;
-		
-		for (int lengthOfShip : ShipCollection.SHIP_LENGTHS) {
-			while(true) {
-				// Generate a new Random point
-				Point2D currPoint = new Point2D(rand.nextInt(10), rand.nextInt(10));
-				
-				// Make sure the start point has no conflict with existing ships
-				boolean conflict = false;
-				for (Ship s : sc) {
-					if (ShipCollection.tryLengthOfShip(currPoint, s) != -1) {
-						conflict = true;
-						break;
-					}
-				}
-								
-				// If we detected a conflict, generate a new point
-				if (conflict) {
-					continue;
-				}
-				
-				Ship newShip = new Ship(currPoint, Direction.LEFT, lengthOfShip, shipsAdded == 2);
-
-				
-				// Rotate the ship until we find an open spot
-				for (int i = 0; i < 4; i++) {
-					conflict = false;
-					newShip.setFacingDirection(newShip.getFacingDirection().rotateRight());
-					
-					// If the ship runs off the board, skip to the next rotation
-					conflict = !checkShipPlacementOnBoard(newShip);					
-					if (conflict) continue;
-					
-					// If there's a conflict between this ship and any other ship on the board,
-					// skip to the next rotation
-					for (Ship s : sc) {
-						conflict = checkShipsConflict(newShip, s);
-						if (conflict) break;
-					}	
-					
-					// If we didn't find any issues with this ship placement, break out.
-					if (!conflict) break;					
-				}
-				
-				// If there was no conflict with the ships startPos and Direction, add it
-				if (!conflict) {
-					sc.addShip(newShip);
-					shipsAdded++;
-					break;
-				}
-			}
+	public BoardState state() {
+		if (lastState == null || lastStateVersion != version()) {
+			BoardState.Fleet fleet = lastState != null && lastState.fleet().matches(allShips) ? lastState.fleet() : new BoardState.Fleet(allShips);
+			lastState = BoardState.of(this, fleet);
+			lastStateVersion = version();
 		}
-		
-		return sc;
+		return lastState;
 	}
 	
 	/**
-	 * Check if two ships on the board conflict in their positioning
-	 * 
-	 * @param ship1	The first Ship to check for conflicts
-	 * @param ship2	The second Ship to check for conflicts
-	 * @return		True if the ships conflict, false if they do not
+	 * Determine whether a cell has been fired upon or shielded since a version of the board
+	 * @param x			X coordinate of the cell
+	 * @param y			Y coordinate of the cell
+	 * @param version	A version previously returned by version()
+	 * @return			True if the cell changed after that version
 	 */
-	private boolean checkShipsConflict(Ship ship1, Ship ship2) {
-		Point2D[] firstShipPos = ship1.toArray();
-		
-		for (Point2D pos : firstShipPos) {
-			if (ShipCollection.tryLengthOfShip(pos, ship2) != -1){
-				return true;
-			}
-		}
-		
-		return false;
+	public boolean cellChangedSince(int x, int y, long version) {
+		return cellVersions[y * 10 + x] > version;
 	}
 	
 	/**
-	 * Check that all squares a Ship is in are valid squares on the board
-	 * @param s	Ship to check
-	 * @return	false if the ship does not run off the board
+	 * Determine whether a cell has been fired upon or shielded since the board was created or reset
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	True if a move or shield has been made on the cell
 	 */
-	private boolean checkShipPlacementOnBoard(Ship s) {
-		double startX = s.getStartPos().getX();
-		double startY = s.getStartPos().getY();
-				
-		switch(s.getFacingDirection()) {
-			case UP: return startY - s.getLength() >= 0;
-			case RIGHT: return startX + s.getLength() < 10;
-			case DOWN: return startY + s.getLength() < 10;
-			default: return startX - s.getLength() >= 0;
-		}		
+	boolean isCellUsed(int x, int y) {
+		return cellChangedSince(x, y, resetVersion);
+	}
+	
+	/**
+	 * Determine whether this board has any valid targets left.
+	 * @return	True if all ships are sunk, false otherwise
+	 */
+	public boolean isEmpty() {
+		return allShips.isEmpty();
+	}
+	
+	/**
+	 * Get the logical size of the underlying ShipCollection
+	 * @return	Number of ships left on the board
+	 */
+	public int size() {
+		return allShips.size();
 	}
 	
 	/**
@@ -330,12 +425,12 @@ public class Board implements Serializable{
 			return false;
 		}
 		
-		if (!checkShipPlacementOnBoard(newShip)) {
+		if (!ShipCollection.fitsOnBoard(newShip)) {
 			return false;
 		}
 		
 		for (Ship currentShip : allShips) {
-			if(checkShipsConflict(currentShip, newShip)){
+			if(ShipCollection.shipsConflict(currentShip, newShip)){
 				return false;
 			}
 		}
@@ -344,12 +439,12 @@ public class Board implements Serializable{
 	}
 	
 	/**
-	 * Add a listener to this Board.
+	 * Get the events of this Board, to add listeners to
 	 * 
-	 * @param pcl	Object implementing PropertyChangeListener
+	 * @return	The bus which GAME_OVER, GAME_STATS_READY and UPDATE_SPECIAL are posted to
 	 */
-	public void addListener(PropertyChangeListener pcl) {
-		pcs.addPropertyChangeListener(pcl);
+	public EventBus events() {
+		return events;
 	}
 	
 	@Override
@@ -366,11 +461,34 @@ public class Board implements Serializable{
 	 * Called when the game begins.  All stats are reset and game begins from nothing
 	 */
 	public void startStats() {
-		startTime = LocalTime.now();
+		startNanos = GameClock.getDefault().now();
+		started = true;
+		movesCount = 0;
+		hitCount = 0;
+		
+		special.set(new SpecialCharge(0, 0, GameClock.getDefault().now()));
+	}
+	
+	/**
+	 * Clear this board for a new game and place its ships at random, reusing every object the
+	 * board holds, so a simulation can play many games on one board without creating new ones.
+	 * Listeners of the board are kept.
+	 * @param seed	Chooses where the ships are placed, so the same seed always gives the same board
+	 */
+	public void reset(long seed) {
+		allShips.reset(seed);
+		allMoves.clear();
+		shieldedBoxes.clear();
+		
 		movesCount = 0;
 		hitCount = 0;
+		started = false;
+		special.set(NO_CHARGE);
 		
-		specialAbilityCounter = 0;
+		// Every cell changed, so views redraw the whole board
+		cellChanges++;
+		resetVersion = version();
+		Arrays.fill(cellVersions, resetVersion);
 	}
 	
 	/**
@@ -450,7 +568,7 @@ public class Board implements Serializable{
 		
 		for (int i = 0; i < 3; i++) {
 			for (int j = 0; j < 3; j++) {
-				result[i * 3 + j] = enterMove(startPoint.add(i, j), false);
+				result[i * 3 + j] = makeMove(startPoint.add(i, j), false);
 			}
 		}	
 		
@@ -467,7 +585,7 @@ public class Board implements Serializable{
 		Point2D startPoint = new Point2D(mid.getX(), mid.getY() - 2);
 		
 		for (int i = 0; i < 5; i++) {
-			result[i] = enterMove(startPoint.add(0, i), false);
+			result[i] = makeMove(startPoint.add(0, i), false);
 		}
 		
 		return result;
@@ -490,10 +608,10 @@ public class Board implements Serializable{
 	
 	/**
 	 * Determine if a shield move should be allowed right now
-	 * @return	True if the special ability counter is at 100, false otherwise
+	 * @return	True if the special ability is fully charged, false otherwise
 	 */
 	public boolean canMakeShieldMove() {
-		return specialAbilityCounter >= 100;
+		return specialCharge() >= 100;
 	}
 	/**
 	 * Attempt to make a special move on this board
@@ -502,7 +620,9 @@ public class Board implements Serializable{
 	 * @return				false if The result of the hits
 	 */
 	public int[] attemptSpecialMove(String move, Point2D playerMove) {
-		if (specialAbilityCounter < 100) {
+		// Only one special move can spend a full charge, even if two are attempted at once
+		SpecialCharge full = special.get();
+		if (full.percent() < 100 || !special.compareAndSet(full, new SpecialCharge(0, 0, GameClock.getDefault().now()))) {
 			return new int[0];
 		}
 		
@@ -518,8 +638,7 @@ public class Board implements Serializable{
 			if (reveal(playerMove)) result = new int[1];			break;			
 		}
 		
-		specialAbilityCounter = 0;
-		pcs.firePropertyChange(AllProperties.UPDATE_SPECIAL.property(), 100, 0);
+		events.post(AllProperties.UPDATE_SPECIAL, 0);
 		
 		return result;
 	}
@@ -0,0 +1,58 @@
+package model.board;
+
+import model.battleship.Ship;
+import model.battleship.ShipCollection;
+
+/**
+ * What a Board looked like at the end of a move, handed from the game-logic thread to the
+ * screen which draws it.
+ *
+ * A snapshot never changes once it is taken.  Its ships are copies which nothing else refers
+ * to, and ships which did not change since the board's previous snapshot are shared with that
+ * snapshot rather than copied again, so a view can tell which ships to redraw by reference.
+ *
+ * @author Andrew Dennison
+ */
+public final class BoardSnapshot {
+
+	private final long version;
+	private final Ship[] ships;
+
+	/**
+	 * Take a snapshot of a board.  Must be called on the thread which changes the board.
+	 * @param b			The board to copy
+	 * @param previous	The board's previous snapshot, whose unchanged ships are reused, or null
+	 */
+	BoardSnapshot(Board b, BoardSnapshot previous) {
+		version = b.version();
+		ships = new Ship[5];
+
+		ShipCollection live = b.getCollection();
+		for (int i = 0; i < ships.length; i++) {
+			Ship s = live.getShip(i);
+			if (s == null) {
+				continue;
+			}
+
+			Ship old = previous == null ? null : previous.ships[i];
+			ships[i] = old != null && old.version() == s.version() && old.getStartPos().equals(s.getStartPos()) ? old : new Ship(s);
+		}
+	}
+
+	/**
+	 * Get the version of the board this snapshot was taken at
+	 * @return	The value of Board.version() when the snapshot was taken
+	 */
+	public long version() {
+		return version;
+	}
+
+	/**
+	 * Get the ships of the board as they were when the snapshot was taken.  The ships are
+	 * shared with other snapshots, so they must only be read.
+	 * @return	A collection holding the copied ships
+	 */
+	public ShipCollection getCollection() {
+		return new ShipCollection(ships.clone());
+	}
+}
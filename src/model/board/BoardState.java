@@ -0,0 +1,404 @@
+package model.board;
+
+import java.util.Arrays;
+
+import javafx.geometry.Point2D;
+import model.battleship.Ship;
+import model.battleship.ShipCollection;
+
+/**
+ * One version of a Board which can never change.  Firing on a state or shielding a cell of it
+ * returns a new state, and the old one stays valid, so any number of versions of a board can
+ * be kept for undo, replays or an AI searching ahead.
+ *
+ * The cells of a board are held as bitboards: two longs for the 100 cells fired upon and two
+ * for the cells shielded, with cell y * 10 + x in bit y * 10 + x of the pair.  The damage of
+ * every ship fits in one more long, five bits per ship.  Where the ships lie never changes
+ * during a game, so it is held in a Fleet which every version of the board shares, and each
+ * version costs only a few dozen bytes.  A game of 100 moves can be kept whole in a few KB.
+ *
+ * @author Andrew Dennison
+ */
+public final class BoardState {
+
+	/**
+	 * Where each ship of a board lies, shared by every state of that board
+	 */
+	public static final class Fleet {
+		private final int[] startX;
+		private final int[] startY;
+		private final Direction[] facing;
+		private final int[] lengths;
+		private final boolean[] subs;
+
+		/**
+		 * The ship covering each cell, or -1 for open water, and which part of the ship it is
+		 */
+		private final byte[] shipAt = new byte[100];
+		private final byte[] partAt = new byte[100];
+
+		/**
+		 * Record where the ships of a collection lie
+		 * @param ships	The ships, in the order of the collection
+		 */
+		Fleet(ShipCollection ships) {
+			int count = 0;
+			while (count < 5 && ships.getShip(count) != null) {
+				count++;
+			}
+
+			startX = new int[count];
+			startY = new int[count];
+			facing = new Direction[count];
+			lengths = new int[count];
+			subs = new boolean[count];
+			Arrays.fill(shipAt, (byte) -1);
+
+			for (int i = 0; i < count; i++) {
+				Ship s = ships.getShip(i);
+				startX[i] = (int) s.getStartPos().getX();
+				startY[i] = (int) s.getStartPos().getY();
+				facing[i] = s.getFacingDirection();
+				lengths[i] = s.getLength();
+				subs[i] = s.isSub();
+
+				Point2D[] cells = s.toArray();
+				for (int part = 0; part < cells.length; part++) {
+					int cell = (int) cells[part].getY() * 10 + (int) cells[part].getX();
+					shipAt[cell] = (byte) i;
+					partAt[cell] = (byte) part;
+				}
+			}
+		}
+
+		/**
+		 * Determine whether a collection of ships still lies where this fleet does
+		 * @param ships	The ships to compare
+		 * @return		True if every ship has the same position, direction and length
+		 */
+		boolean matches(ShipCollection ships) {
+			for (int i = 0; i < 5; i++) {
+				Ship s = ships.getShip(i);
+				if (i >= lengths.length || s == null) {
+					if (i < lengths.length || s != null) {
+						return false;
+					}
+					continue;
+				}
+
+				if (s.getStartPos().getX() != startX[i] || s.getStartPos().getY() != startY[i]
+						|| s.getFacingDirection() != facing[i] || s.getLength() != lengths[i]) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * Create new Ships lying where this fleet's ships do, undamaged and revealed
+		 * @return	The ships, in the same order
+		 */
+		Ship[] createShips() {
+			Ship[] ships = new Ship[lengths.length];
+			for (int i = 0; i < ships.length; i++) {
+				ships[i] = new Ship(new Point2D(startX[i], startY[i]), facing[i], lengths[i], subs[i]);
+			}
+			return ships;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (!(o instanceof Fleet)) {
+				return false;
+			}
+
+			Fleet other = (Fleet) o;
+			return Arrays.equals(startX, other.startX) && Arrays.equals(startY, other.startY)
+					&& Arrays.equals(facing, other.facing) && Arrays.equals(lengths, other.lengths)
+					&& Arrays.equals(subs, other.subs);
+		}
+
+		@Override
+		public int hashCode() {
+			return Arrays.hashCode(shipAt) * 31 + Arrays.hashCode(partAt);
+		}
+
+		/**
+		 * Get the number of ships in this fleet
+		 * @return	Usually 5
+		 */
+		public int size() {
+			return lengths.length;
+		}
+	}
+
+	/**
+	 * Bits per ship in the damage vector, enough for the longest ship
+	 */
+	private static final int DAMAGE_BITS = 5;
+
+	private final Fleet fleet;
+	private final long shotLow;
+	private final long shotHigh;
+	private final long shieldLow;
+	private final long shieldHigh;
+	private final long damage;
+
+	/**
+	 * The ships revealed, one bit per ship.  Sunk ships are always revealed.
+	 */
+	private final byte revealed;
+
+	/**
+	 * The cell of the move which made this state, or -1, and its result
+	 */
+	private final byte lastCell;
+	private final byte lastResult;
+
+	private BoardState(Fleet fleet, long shotLow, long shotHigh, long shieldLow, long shieldHigh, long damage,
+			int revealed, int lastCell, int lastResult) {
+		this.fleet = fleet;
+		this.shotLow = shotLow;
+		this.shotHigh = shotHigh;
+		this.shieldLow = shieldLow;
+		this.shieldHigh = shieldHigh;
+		this.damage = damage;
+		this.revealed = (byte) revealed;
+		this.lastCell = (byte) lastCell;
+		this.lastResult = (byte) lastResult;
+	}
+
+	/**
+	 * Create the state of a board which has not been fired on, with every ship revealed
+	 * @param ships	The ships of the board
+	 * @return		The first state of the board
+	 */
+	public static BoardState of(ShipCollection ships) {
+		Fleet f = new Fleet(ships);
+		return new BoardState(f, 0, 0, 0, 0, 0, (1 << f.size()) - 1, -1, 0);
+	}
+
+	/**
+	 * Read the state of a Board.  Used by Board.state(), which reuses the fleet of the
+	 * board's previous state while its ships have not moved.
+	 * @param b			The board to read
+	 * @param fleet		Where the board's ships lie
+	 * @return			The board as it is now
+	 */
+	static BoardState of(Board b, Fleet fleet) {
+		long[] shots = new long[2];
+		long[] shields = new long[2];
+		for (int cell = 0; cell < 100; cell++) {
+			Point2D p = new Point2D(cell % 10, cell / 10);
+			if (b.shieldedBoxes.contains(p)) {
+				shields[cell >> 6] |= 1L << cell;
+			} else if (b.isCellUsed(cell % 10, cell / 10)) {
+				shots[cell >> 6] |= 1L << cell;
+			}
+		}
+
+		long damage = 0;
+		int revealed = 0;
+		for (int i = 0; i < fleet.size(); i++) {
+			Ship s = b.getCollection().getShip(i);
+			for (int part = 0; part < s.getLength(); part++) {
+				if (s.isDamaged(part)) {
+					damage |= 1L << (i * DAMAGE_BITS + part);
+				}
+			}
+			if (s.isRevealed()) {
+				revealed |= 1 << i;
+			}
+		}
+
+		return new BoardState(fleet, shots[0], shots[1], shields[0], shields[1], damage, revealed, -1, 0);
+	}
+
+	/**
+	 * Get where the ships of this board lie
+	 * @return	The fleet shared by every state of this board
+	 */
+	public Fleet fleet() {
+		return fleet;
+	}
+
+	/**
+	 * Fire on a cell, following the same rules as Board.enterMove
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	The state after the move, whose lastResult() is the result of the move
+	 */
+	public BoardState fire(int x, int y) {
+		if (x < 0 || x > 9 || y < 0 || y > 9) {
+			return new BoardState(fleet, shotLow, shotHigh, shieldLow, shieldHigh, damage, revealed, -1, 0);
+		}
+
+		int cell = y * 10 + x;
+		long sLow = cell < 64 ? shotLow | 1L << cell : shotLow;
+		long sHigh = cell >= 64 ? shotHigh | 1L << cell : shotHigh;
+
+		// A shield stops one move, and is used up
+		if (isShielded(x, y)) {
+			long shLow = cell < 64 ? shieldLow & ~(1L << cell) : shieldLow;
+			long shHigh = cell >= 64 ? shieldHigh & ~(1L << cell) : shieldHigh;
+			return new BoardState(fleet, sLow, sHigh, shLow, shHigh, damage, revealed, cell, -1);
+		}
+
+		// Firing on any part of a ship still afloat counts as a hit, even if that part was already hit
+		int ship = fleet.shipAt[cell];
+		if (ship < 0 || isSunk(ship)) {
+			return new BoardState(fleet, sLow, sHigh, shieldLow, shieldHigh, damage, revealed, cell, 0);
+		}
+
+		long d = damage | 1L << (ship * DAMAGE_BITS + fleet.partAt[cell]);
+		return new BoardState(fleet, sLow, sHigh, shieldLow, shieldHigh, d, revealed, cell, 1);
+	}
+
+	/**
+	 * Shield a cell, following the same rules as Board.placeShield
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	The state after the shield, whose lastResult() is -1 if the shield was placed and 0 if not
+	 */
+	public BoardState shield(int x, int y) {
+		int cell = y * 10 + x;
+		int ship = x < 0 || x > 9 || y < 0 || y > 9 ? -1 : fleet.shipAt[cell];
+		if (ship < 0 || isSunk(ship) || isShielded(x, y)) {
+			return new BoardState(fleet, shotLow, shotHigh, shieldLow, shieldHigh, damage, revealed, -1, 0);
+		}
+
+		long shLow = cell < 64 ? shieldLow | 1L << cell : shieldLow;
+		long shHigh = cell >= 64 ? shieldHigh | 1L << cell : shieldHigh;
+		return new BoardState(fleet, shotLow, shotHigh, shLow, shHigh, damage, revealed, cell, -1);
+	}
+
+	/**
+	 * Reveal or hide a ship.  Sunk ships stay revealed.
+	 * @param ship		Index of the ship in its collection
+	 * @param status	True to reveal the ship, false to hide it
+	 * @return			The state with the ship revealed or hidden
+	 */
+	public BoardState reveal(int ship, boolean status) {
+		int r = status ? revealed | 1 << ship : revealed & ~(1 << ship);
+		return new BoardState(fleet, shotLow, shotHigh, shieldLow, shieldHigh, damage, r, -1, 0);
+	}
+
+	/**
+	 * Determine whether a cell has been fired upon
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	True if a move was made on the cell
+	 */
+	public boolean isShot(int x, int y) {
+		int cell = y * 10 + x;
+		
+		// Shifting a long only uses the low six bits of the distance, so this picks the bit from either half
+		return ((cell < 64 ? shotLow : shotHigh) & 1L << cell) != 0;
+	}
+
+	/**
+	 * Determine whether a cell has a shield on it
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	True if the cell is shielded
+	 */
+	public boolean isShielded(int x, int y) {
+		int cell = y * 10 + x;
+		return ((cell < 64 ? shieldLow : shieldHigh) & 1L << cell) != 0;
+	}
+
+	/**
+	 * Determine whether a cell holds a damaged part of a ship
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	True if a ship was hit on the cell
+	 */
+	public boolean isHit(int x, int y) {
+		int cell = y * 10 + x;
+		int ship = fleet.shipAt[cell];
+		return ship >= 0 && (damage & 1L << (ship * DAMAGE_BITS + fleet.partAt[cell])) != 0;
+	}
+
+	/**
+	 * Get which parts of a ship are damaged
+	 * @param ship	Index of the ship in its collection
+	 * @return		Bit i is set if part i of the ship is damaged
+	 */
+	public int damage(int ship) {
+		return (int) (damage >>> (ship * DAMAGE_BITS)) & ((1 << DAMAGE_BITS) - 1);
+	}
+
+	/**
+	 * Determine whether every part of a ship is damaged
+	 * @param ship	Index of the ship in its collection
+	 * @return		True if the ship is sunk
+	 */
+	public boolean isSunk(int ship) {
+		return damage(ship) == (1 << fleet.lengths[ship]) - 1;
+	}
+
+	/**
+	 * Determine whether a ship is drawn
+	 * @param ship	Index of the ship in its collection
+	 * @return		True if the ship is revealed or sunk
+	 */
+	public boolean isRevealed(int ship) {
+		return (revealed & 1 << ship) != 0 || isSunk(ship);
+	}
+
+	/**
+	 * Get the number of ships which are not sunk
+	 * @return	From 0 to 5
+	 */
+	public int shipsLeft() {
+		int left = 0;
+		for (int i = 0; i < fleet.size(); i++) {
+			if (!isSunk(i)) {
+				left++;
+			}
+		}
+		return left;
+	}
+
+	/**
+	 * Get the number of cells which have been fired upon
+	 * @return	From 0 to 100
+	 */
+	public int shotCount() {
+		return Long.bitCount(shotLow) + Long.bitCount(shotHigh);
+	}
+
+	/**
+	 * Get the cell of the move which made this state
+	 * @return	The cell as y * 10 + x, or -1 if this state was not made by a move or shield
+	 */
+	public int lastCell() {
+		return lastCell;
+	}
+
+	/**
+	 * Get the result of the move which made this state
+	 * @return	-1 if the move hit a Shield or placed one, 1 if it hit a Ship, 0 if it missed
+	 */
+	public int lastResult() {
+		return lastResult;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof BoardState)) {
+			return false;
+		}
+
+		BoardState other = (BoardState) o;
+		return (fleet == other.fleet || fleet.equals(other.fleet)) && shotLow == other.shotLow && shotHigh == other.shotHigh
+				&& shieldLow == other.shieldLow && shieldHigh == other.shieldHigh
+				&& damage == other.damage && revealed == other.revealed;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(shotLow * 31 + shotHigh) ^ Long.hashCode(damage * 31 + shieldLow + shieldHigh) ^ revealed;
+	}
+}
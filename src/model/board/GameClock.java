@@ -0,0 +1,336 @@
+package model.board;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+
+/**
+ * The one source of time for everything timed in a game: animations, turn pacing, the
+ * special ability meter and how long a game lasted.
+ *
+ * Game time is measured in nanoseconds from a monotonic source, and only moves while the
+ * clock is running.  Pausing the clock freezes game time, and with it every timer scheduled
+ * on the clock, and every animation which follows it.  The clock can also run faster or
+ * slower than real time.
+ *
+ * Timers are kept in one queue and fired by a single thread, which sleeps until the next
+ * timer is due.  A virtual clock has no thread and its time only moves when advance() is
+ * called, so tests of timed behavior run instantly.
+ *
+ * @author Andrew Dennison
+ */
+public class GameClock {
+
+	/**
+	 * Told whenever a clock is paused, resumed or changes speed
+	 */
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * Handle a change to the clock, on the thread which made it
+		 * @param clock	The clock, whose isPaused() and getScale() give its new state
+		 */
+		void clockChanged(GameClock clock);
+	}
+
+	/**
+	 * Work scheduled to run once the clock reaches a time
+	 */
+	public final class Timer implements Comparable<Timer> {
+		private final long due;
+		private final long order;
+		private final Executor executor;
+		private final Runnable task;
+		private volatile boolean cancelled;
+
+		private Timer(long due, long order, Executor executor, Runnable task) {
+			this.due = due;
+			this.order = order;
+			this.executor = executor;
+			this.task = task;
+		}
+
+		/**
+		 * Stop the work from running, if it has not started yet
+		 */
+		public void cancel() {
+			cancelled = true;
+			synchronized (GameClock.this) {
+				timers.remove(this);
+			}
+		}
+
+		@Override
+		public int compareTo(Timer o) {
+			return due != o.due ? Long.compare(due, o.due) : Long.compare(order, o.order);
+		}
+	}
+
+	private static GameClock defaultClock;
+
+	/**
+	 * Runs work on the clock's own thread, for work short enough not to delay other timers
+	 */
+	private static final Executor ON_CLOCK_THREAD = Runnable::run;
+
+	/**
+	 * True if time only moves when advance() is called
+	 */
+	private final boolean virtual;
+	private long virtualNanos;
+
+	/**
+	 * Game time and source time at the last pause, resume or change of speed
+	 */
+	private long anchorGame;
+	private long anchorSource;
+
+	private double scale = 1;
+	private boolean paused;
+
+	/**
+	 * The number of pauses not yet resumed
+	 */
+	private int pauses;
+
+	private final PriorityQueue<Timer> timers = new PriorityQueue<Timer>();
+	private long nextOrder;
+	private Thread thread;
+
+	private final List<Listener> listeners = new ArrayList<Listener>();
+
+	private GameClock(boolean virtual) {
+		this.virtual = virtual;
+		anchorSource = source();
+	}
+
+	/**
+	 * Get the clock the game runs on
+	 * @return	The clock which follows System.nanoTime, unless a test replaced it
+	 */
+	public static synchronized GameClock getDefault() {
+		if (defaultClock == null) {
+			defaultClock = new GameClock(false);
+		}
+		return defaultClock;
+	}
+
+	/**
+	 * Replace the clock the game runs on, so tests can drive a virtual clock
+	 * @param clock	The new clock, or null to go back to real time
+	 */
+	public static synchronized void setDefault(GameClock clock) {
+		defaultClock = clock;
+	}
+
+	/**
+	 * Create a clock whose time only moves when advance() is called
+	 * @return	A running virtual clock at time 0
+	 */
+	public static GameClock virtual() {
+		return new GameClock(true);
+	}
+
+	private long source() {
+		return virtual ? virtualNanos : System.nanoTime();
+	}
+
+	/**
+	 * Get the game time
+	 * @return	Nanoseconds of game time.  Only differences between two times are meaningful.
+	 */
+	public synchronized long now() {
+		if (paused) {
+			return anchorGame;
+		}
+		return anchorGame + (long) ((source() - anchorSource) * scale);
+	}
+
+	/**
+	 * Freeze game time and every timer, until the clock is resumed.  Pauses nest, so the clock
+	 * only runs again once every pause has been matched by a resume, such as when the window
+	 * regains focus while the options are still open.
+	 */
+	public void pause() {
+		synchronized (this) {
+			if (pauses++ > 0) {
+				return;
+			}
+			anchorGame = now();
+			paused = true;
+			notifyAll();
+		}
+		fireChanged();
+	}
+
+	/**
+	 * Undo one pause, letting game time move again from where it was paused once no pause is left
+	 */
+	public void resume() {
+		synchronized (this) {
+			if (pauses == 0 || --pauses > 0) {
+				return;
+			}
+			anchorSource = source();
+			paused = false;
+			notifyAll();
+		}
+		fireChanged();
+	}
+
+	/**
+	 * Determine whether game time is frozen
+	 * @return	True if the clock is paused
+	 */
+	public synchronized boolean isPaused() {
+		return paused;
+	}
+
+	/**
+	 * Change how fast game time moves compared to real time
+	 * @param s	1 for real time, 2 for twice as fast, 0.5 for half as fast
+	 */
+	public void setScale(double s) {
+		synchronized (this) {
+			anchorGame = now();
+			anchorSource = source();
+			scale = Math.max(0, s);
+			notifyAll();
+		}
+		fireChanged();
+	}
+
+	/**
+	 * Get how fast game time moves compared to real time
+	 * @return	1 for real time
+	 */
+	public synchronized double getScale() {
+		return scale;
+	}
+
+	/**
+	 * Be told whenever this clock is paused, resumed or changes speed
+	 * @param l	The listener to add
+	 */
+	public synchronized void addListener(Listener l) {
+		listeners.add(l);
+	}
+
+	/**
+	 * Stop telling a listener about changes to this clock
+	 * @param l	The listener to remove
+	 */
+	public synchronized void removeListener(Listener l) {
+		listeners.remove(l);
+	}
+
+	private void fireChanged() {
+		Listener[] copy;
+		synchronized (this) {
+			copy = listeners.toArray(new Listener[0]);
+		}
+		for (Listener l : copy) {
+			l.clockChanged(this);
+		}
+	}
+
+	/**
+	 * Run short work on the clock's thread once an amount of game time has passed
+	 * @param delayNanos	Nanoseconds of game time to wait
+	 * @param task			The work, which must not block
+	 * @return				The timer, which can be cancelled
+	 */
+	public Timer schedule(long delayNanos, Runnable task) {
+		return schedule(delayNanos, ON_CLOCK_THREAD, task);
+	}
+
+	/**
+	 * Run work once an amount of game time has passed
+	 * @param delayNanos	Nanoseconds of game time to wait
+	 * @param executor		Where the work runs, e.g. Platform::runLater
+	 * @param task			The work
+	 * @return				The timer, which can be cancelled
+	 */
+	public synchronized Timer schedule(long delayNanos, Executor executor, Runnable task) {
+		Timer t = new Timer(now() + Math.max(0, delayNanos), nextOrder++, executor, task);
+		timers.add(t);
+
+		if (!virtual && thread == null) {
+			thread = new Thread(this::fireTimers, "game-clock");
+			thread.setDaemon(true);
+			thread.start();
+		}
+		notifyAll();
+		return t;
+	}
+
+	/**
+	 * Move a virtual clock forwards, running every timer which comes due on the way in order
+	 * @param nanos	Nanoseconds of source time to move forwards by, which is scaled like real time
+	 */
+	public void advance(long nanos) {
+		if (!virtual) {
+			throw new IllegalStateException("Only a virtual clock can be advanced");
+		}
+
+		synchronized (this) {
+			virtualNanos += nanos;
+		}
+
+		Timer t;
+		while ((t = nextDue()) != null) {
+			run(t);
+		}
+	}
+
+	/**
+	 * Remove the earliest timer if it is due
+	 * @return	The timer, or null if none is due yet
+	 */
+	private synchronized Timer nextDue() {
+		Timer t = timers.peek();
+		if (t == null || t.due > now()) {
+			return null;
+		}
+		return timers.poll();
+	}
+
+	private void run(Timer t) {
+		if (t.cancelled) {
+			return;
+		}
+
+		try {
+			t.executor.execute(t.task);
+		} catch (RuntimeException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Sleep until the next timer is due, and run it, for as long as the game runs
+	 */
+	private void fireTimers() {
+		while (true) {
+			Timer due;
+			synchronized (this) {
+				try {
+					while ((due = nextDue()) == null) {
+						Timer next = timers.peek();
+						if (next == null || paused || scale == 0) {
+							wait();
+						} else {
+							// Sleep for the real time it takes game time to reach the timer
+							long sleep = (long) Math.ceil((next.due - now()) / scale);
+							wait(Math.max(1, sleep / 1000000));
+						}
+					}
+				} catch (InterruptedException ex) {
+					return;
+				}
+			}
+			run(due);
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package model.board;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * The single thread which owns the Boards and AI of a game while it is played.
+ *
+ * Screens hand rules and AI work to this thread instead of running it themselves, and the
+ * result of each piece of work is handed back through an executor the screen provides,
+ * normally Platform::runLater.  Since only this thread changes the model, the model needs no
+ * locks, and since screens are handed results rather than waiting for them, a slow AI turn
+ * never holds up a frame.  Results should be snapshots, never the model itself.
+ *
+ * @author Andrew Dennison
+ */
+public class GameThread {
+
+	private final ExecutorService logic = Executors.newSingleThreadExecutor((r) -> {
+		Thread t = new Thread(r, "game-logic");
+		t.setDaemon(true);
+		return t;
+	});
+
+	/**
+	 * Runs the callbacks which receive results, normally on the JavaFX application thread
+	 */
+	private final Executor publisher;
+
+	/**
+	 * Create a game-logic thread
+	 * @param publisher	Where results are handed back, e.g. Platform::runLater
+	 */
+	public GameThread(Executor publisher) {
+		this.publisher = publisher;
+	}
+
+	/**
+	 * Run work on the game-logic thread, after all work submitted before it
+	 * @param work	Changes the model, and must not touch the screen
+	 */
+	public void execute(Runnable work) {
+		logic.execute(() -> {
+			try {
+				work.run();
+			} catch (RuntimeException ex) {
+				ex.printStackTrace();
+			}
+		});
+	}
+
+	/**
+	 * Run work on the game-logic thread, then hand its result to the publisher
+	 * @param <T>		The type of result
+	 * @param work		Changes the model and returns what the screen should show, and must not touch the screen
+	 * @param publish	Receives the result through the publisher, so it may update the screen.  Receives
+	 * 					null if the work failed, so callers waiting on a result are never left waiting.
+	 */
+	public <T> void submit(Supplier<T> work, Consumer<T> publish) {
+		logic.execute(() -> {
+			T result = null;
+			try {
+				result = work.get();
+			} catch (RuntimeException ex) {
+				ex.printStackTrace();
+			}
+			
+			T published = result;
+			publisher.execute(() -> publish.accept(published));
+		});
+	}
+}
@@ -0,0 +1,12 @@
+package model.board;
+
+import javafx.geometry.Point2D;
+
+/**
+ * The outcome of one move, with the board it was made on as it was straight afterwards
+ * @param move	The cell fired upon or shielded
+ * @param hit	-1 if the move hit a Shield, 1 if it hit a Ship, 0 if it missed
+ * @param board	The board after the move
+ * @author Andrew Dennison
+ */
+public record MoveResult(Point2D move, int hit, BoardSnapshot board) {}
@@ -0,0 +1,121 @@
+package model.dataset;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The list of segment files making up a self-play dataset.
+ *
+ * The index is a small text file with one line per segment giving the segment's
+ * file name and the number of records it holds.  Segments are read by memory mapping
+ * them, so scanning a dataset never copies records onto the heap.
+ *
+ * @author Andrew Dennison
+ */
+public class DatasetIndex {
+
+	/**
+	 * Name of the index file within a dataset directory
+	 */
+	public static final String INDEX_FILE = "index.txt";
+
+	/**
+	 * One segment file of a dataset
+	 * @param file		Name of the file within the dataset directory
+	 * @param records	The number of complete records in the file
+	 */
+	public record Segment(String file, int records) {}
+
+	private final Path directory;
+	private final List<Segment> segments;
+
+	/**
+	 * Create an index over a list of segments
+	 * @param directory	The directory holding the segments
+	 * @param segments	Every segment of the dataset
+	 */
+	public DatasetIndex(Path directory, List<Segment> segments) {
+		this.directory = directory;
+		this.segments = segments;
+	}
+
+	/**
+	 * Read the index of a dataset directory
+	 * @param directory		The directory holding the dataset
+	 * @return				The dataset's index
+	 * @throws IOException	If the index could not be read
+	 */
+	public static DatasetIndex read(Path directory) throws IOException {
+		List<Segment> segments = new ArrayList<Segment>();
+
+		for (String line : Files.readAllLines(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+			String[] parts = line.trim().split("\\s+");
+			if (parts.length == 2) {
+				segments.add(new Segment(parts[0], Integer.parseInt(parts[1])));
+			}
+		}
+
+		return new DatasetIndex(directory, segments);
+	}
+
+	/**
+	 * Write this index into its dataset directory
+	 * @throws IOException	If the index could not be written
+	 */
+	public void write() throws IOException {
+		List<String> lines = new ArrayList<String>();
+		for (Segment s : segments) {
+			lines.add(s.file() + " " + s.records());
+		}
+
+		Files.write(directory.resolve(INDEX_FILE), lines, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Get the directory holding the dataset
+	 * @return	The directory containing the index and segment files
+	 */
+	public Path directory() {
+		return directory;
+	}
+
+	/**
+	 * Get every segment of the dataset
+	 * @return	The segments in the order they were indexed
+	 */
+	public List<Segment> segments() {
+		return segments;
+	}
+
+	/**
+	 * Get the total number of records across every segment
+	 * @return	The number of records in the dataset
+	 */
+	public long records() {
+		long total = 0;
+		for (Segment s : segments) {
+			total += s.records();
+		}
+		return total;
+	}
+
+	/**
+	 * Memory map one segment for reading.  Records are read from the mapping in place
+	 * with the accessors in GameRecordFormat.
+	 * @param s				The segment to map
+	 * @return				A read-only mapping of the segment's records
+	 * @throws IOException	If the segment could not be mapped
+	 */
+	public MappedByteBuffer map(Segment s) throws IOException {
+		try (FileChannel fc = FileChannel.open(directory.resolve(s.file()), StandardOpenOption.READ)) {
+			return fc.map(FileChannel.MapMode.READ_ONLY, 0, (long) s.records() * GameRecordFormat.RECORD_BYTES);
+		}
+	}
+}
@@ -0,0 +1,37 @@
+package model.dataset;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A query which can be answered by a single pass over every record of a dataset.
+ *
+ * The QueryEngine gives each scanning thread its own partial result, feeds it records
+ * with scan, and finally merges the partial results together.  Implementations should
+ * keep all of their working state in the partial result so scanning never allocates.
+ *
+ * @param <P> Type of the partial, and final, result
+ * @author Andrew Dennison
+ */
+public interface DatasetQuery<P> {
+
+	/**
+	 * Create an empty partial result for one scanning thread
+	 * @return	A partial result which has seen no records
+	 */
+	P newPartial();
+
+	/**
+	 * Fold one record into a partial result
+	 * @param partial	The scanning thread's partial result
+	 * @param buf		Buffer holding the record, read with GameRecordFormat
+	 * @param offset	Offset of the record's first byte
+	 */
+	void scan(P partial, ByteBuffer buf, int offset);
+
+	/**
+	 * Combine two partial results
+	 * @param into	The partial result to add to
+	 * @param from	The partial result to add, which is not used afterwards
+	 */
+	void merge(P into, P from);
+}
@@ -0,0 +1,245 @@
+package model.dataset;
+
+import java.nio.ByteBuffer;
+
+import model.battleship.Ship;
+import model.battleship.ShipCollection;
+
+/**
+ * Layout of one recorded attack in a self-play dataset.
+ *
+ * Every self-play game produces two fixed-width records, one for each player attacking
+ * the other's fleet, so record 2n is the first player of game n and record 2n + 1 is the
+ * second.  All values are single bytes, so records can be read in place from a memory
+ * mapped segment without decoding anything else.
+ *
+ * A record is 128 bytes, so a game takes 256 bytes.  Records are fixed width so the n-th
+ * record of a segment can be found without an index, and the shots are kept in the order
+ * they were fired, since queries ask what happened on each turn.  Weaker AIs fire at the
+ * same cell more than once, so a game can take more than 100 shots and the shot list is
+ * sized to leave room for them.
+ *
+ * <pre>
+ * offset  size  contents
+ *      0     1  difficulty ordinal of the attacking AI
+ *      1     1  flags: WON if the attacker sank every ship, TRUNCATED if shots did not fit
+ *      2     1  number of shots fired, unsigned, capped at 255
+ *      3     1  number of shots which hit a ship
+ *      4    10  defending fleet, two bytes per ship in ShipCollection order:
+ *               start cell (y * 10 + x), then direction | SUB if the ship is a submarine
+ *     14   114  shots in order, one byte each: cell | HIT if the shot hit a ship
+ * </pre>
+ *
+ * @author Andrew Dennison
+ */
+public final class GameRecordFormat {
+
+	/**
+	 * The size of one record in bytes
+	 */
+	public static final int RECORD_BYTES = 128;
+
+	/**
+	 * The most shots a record can hold before the remainder are dropped
+	 */
+	public static final int MAX_SHOTS = 114;
+
+	/**
+	 * Set in the flags byte if the attacker sank every ship
+	 */
+	public static final int WON = 1;
+
+	/**
+	 * Set in the flags byte if more than MAX_SHOTS shots were fired
+	 */
+	public static final int TRUNCATED = 2;
+
+	/**
+	 * Set in a shot byte if the shot hit a ship
+	 */
+	public static final int HIT = 0x80;
+
+	/**
+	 * Set in a fleet direction byte if the ship is a submarine
+	 */
+	public static final int SUB = 0x4;
+
+	private static final int ATTACKER_OFFSET = 0;
+	private static final int FLAGS_OFFSET = 1;
+	private static final int SHOT_COUNT_OFFSET = 2;
+	private static final int HIT_COUNT_OFFSET = 3;
+	private static final int FLEET_OFFSET = 4;
+	private static final int SHOTS_OFFSET = 14;
+
+	private GameRecordFormat() {
+	}
+
+	/**
+	 * Get the byte offset of a record within a segment
+	 * @param record	Index of the record within the segment
+	 * @return			Offset of the record's first byte
+	 */
+	public static int offset(int record) {
+		return record * RECORD_BYTES;
+	}
+
+	/**
+	 * Get the difficulty ordinal of the attacking AI
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @return			The attacker's Difficulties ordinal
+	 */
+	public static int attacker(ByteBuffer buf, int offset) {
+		return buf.get(offset + ATTACKER_OFFSET);
+	}
+
+	/**
+	 * Determine whether the attacker sank every ship
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @return			True if the attacker won, false otherwise
+	 */
+	public static boolean won(ByteBuffer buf, int offset) {
+		return (buf.get(offset + FLAGS_OFFSET) & WON) != 0;
+	}
+
+	/**
+	 * Get the number of shots stored in a record
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @return			Number of shots which can be read with shotCell, at most MAX_SHOTS
+	 */
+	public static int storedShots(ByteBuffer buf, int offset) {
+		return Math.min(MAX_SHOTS, shotCount(buf, offset));
+	}
+
+	/**
+	 * Get the number of shots fired, including any that did not fit in the record
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @return			Number of shots fired, capped at 255
+	 */
+	public static int shotCount(ByteBuffer buf, int offset) {
+		return buf.get(offset + SHOT_COUNT_OFFSET) & 0xFF;
+	}
+
+	/**
+	 * Get the number of shots which hit a ship
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @return			Number of hits
+	 */
+	public static int hitCount(ByteBuffer buf, int offset) {
+		return buf.get(offset + HIT_COUNT_OFFSET) & 0xFF;
+	}
+
+	/**
+	 * Get the start cell of a ship in the defending fleet
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @param ship		Index of the ship in ShipCollection order
+	 * @return			Cell index y * 10 + x
+	 */
+	public static int shipCell(ByteBuffer buf, int offset, int ship) {
+		return buf.get(offset + FLEET_OFFSET + 2 * ship);
+	}
+
+	/**
+	 * Get the direction of a ship in the defending fleet
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @param ship		Index of the ship in ShipCollection order
+	 * @return			The Direction ordinal the ship extends in
+	 */
+	public static int shipDirection(ByteBuffer buf, int offset, int ship) {
+		return buf.get(offset + FLEET_OFFSET + 2 * ship + 1) & (SUB - 1);
+	}
+
+	/**
+	 * Get the packed value of a shot
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @param shot		Index of the shot, from 0 to storedShots - 1
+	 * @return			Cell index, with HIT set if the shot hit a ship
+	 */
+	public static int shot(ByteBuffer buf, int offset, int shot) {
+		return buf.get(offset + SHOTS_OFFSET + shot) & 0xFF;
+	}
+
+	/**
+	 * Get the cell targeted by a shot
+	 * @param packedShot	Value returned by shot
+	 * @return				Cell index y * 10 + x
+	 */
+	public static int cell(int packedShot) {
+		return packedShot & ~HIT;
+	}
+
+	/**
+	 * Determine whether a shot hit a ship
+	 * @param packedShot	Value returned by shot
+	 * @return				True if the shot hit, false otherwise
+	 */
+	public static boolean isHit(int packedShot) {
+		return (packedShot & HIT) != 0;
+	}
+
+	/**
+	 * Write the header and defending fleet of a record, and clear its shots
+	 * @param buf		Buffer to write the record into
+	 * @param offset	Offset of the record's first byte
+	 * @param attacker	Difficulties ordinal of the attacking AI
+	 * @param fleet		The defending ships
+	 */
+	public static void begin(ByteBuffer buf, int offset, int attacker, ShipCollection fleet) {
+		for (int i = 0; i < RECORD_BYTES; i++) {
+			buf.put(offset + i, (byte) 0);
+		}
+
+		buf.put(offset + ATTACKER_OFFSET, (byte) attacker);
+
+		for (int i = 0; i < 5; i++) {
+			Ship s = fleet.getShip(i);
+			int cell = (int) s.getStartPos().getY() * 10 + (int) s.getStartPos().getX();
+			int direction = s.getFacingDirection().direction() | (s.isSub() ? SUB : 0);
+
+			buf.put(offset + FLEET_OFFSET + 2 * i, (byte) cell);
+			buf.put(offset + FLEET_OFFSET + 2 * i + 1, (byte) direction);
+		}
+	}
+
+	/**
+	 * Append a shot to a record started with begin
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 * @param x			X coordinate of the shot
+	 * @param y			Y coordinate of the shot
+	 * @param hit		True if the shot hit a ship, false otherwise
+	 */
+	public static void addShot(ByteBuffer buf, int offset, int x, int y, boolean hit) {
+		int shots = shotCount(buf, offset);
+
+		if (shots < MAX_SHOTS) {
+			buf.put(offset + SHOTS_OFFSET + shots, (byte) ((y * 10 + x) | (hit ? HIT : 0)));
+		} else {
+			buf.put(offset + FLAGS_OFFSET, (byte) (buf.get(offset + FLAGS_OFFSET) | TRUNCATED));
+		}
+
+		if (shots < 255) {
+			buf.put(offset + SHOT_COUNT_OFFSET, (byte) (shots + 1));
+		}
+
+		if (hit) {
+			buf.put(offset + HIT_COUNT_OFFSET, (byte) (hitCount(buf, offset) + 1));
+		}
+	}
+
+	/**
+	 * Mark the attacker of a record as having sunk every ship
+	 * @param buf		Buffer holding the record
+	 * @param offset	Offset of the record's first byte
+	 */
+	public static void setWon(ByteBuffer buf, int offset) {
+		buf.put(offset + FLAGS_OFFSET, (byte) (buf.get(offset + FLAGS_OFFSET) | WON));
+	}
+}
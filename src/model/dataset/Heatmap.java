@@ -0,0 +1,93 @@
+package model.dataset;
+
+/**
+ * A value for every cell of the board, scaled so the largest value is 1.
+ *
+ * Heatmaps are produced by dataset queries and can be drawn over a board with
+ * BoardContainer.showHeatmap.
+ *
+ * @author Andrew Dennison
+ */
+public class Heatmap {
+
+	/**
+	 * The number of rows and columns on the board
+	 */
+	public static final int BOARD_SIZE = 10;
+
+	private final double[] values;
+	private final double max;
+
+	/**
+	 * Create a heatmap from raw values
+	 * @param values	One value per cell, indexed by y * 10 + x
+	 */
+	public Heatmap(double[] values) {
+		this.values = values.clone();
+
+		double largest = 0;
+		for (double v : values) {
+			largest = Math.max(largest, v);
+		}
+		max = largest;
+	}
+
+	/**
+	 * Create a heatmap from counts, e.g. the number of times each cell was hit first
+	 * @param counts	One count per cell, indexed by y * 10 + x
+	 * @return			The heatmap of the counts
+	 */
+	public static Heatmap fromCounts(long[] counts) {
+		double[] values = new double[counts.length];
+		for (int i = 0; i < counts.length; i++) {
+			values[i] = counts[i];
+		}
+		return new Heatmap(values);
+	}
+
+	/**
+	 * Create a heatmap of the ratio of two counts, e.g. hits over shots
+	 * @param numerator		One count per cell, indexed by y * 10 + x
+	 * @param denominator	One count per cell, indexed by y * 10 + x
+	 * @return				The heatmap of the ratios, with 0 wherever the denominator is 0
+	 */
+	public static Heatmap fromRatio(long[] numerator, long[] denominator) {
+		double[] values = new double[numerator.length];
+		for (int i = 0; i < numerator.length; i++) {
+			values[i] = denominator[i] == 0 ? 0 : (double) numerator[i] / denominator[i];
+		}
+		return new Heatmap(values);
+	}
+
+	/**
+	 * Get the raw value of a cell
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	The value the heatmap was created with
+	 */
+	public double value(int x, int y) {
+		return values[y * BOARD_SIZE + x];
+	}
+
+	/**
+	 * Get the value of a cell relative to the hottest cell
+	 * @param x	X coordinate of the cell
+	 * @param y	Y coordinate of the cell
+	 * @return	Value from 0 to 1, where 1 is the largest value in the heatmap
+	 */
+	public double intensity(int x, int y) {
+		return max == 0 ? 0 : value(x, y) / max;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (int y = 0; y < BOARD_SIZE; y++) {
+			for (int x = 0; x < BOARD_SIZE; x++) {
+				sb.append(String.format("%4.2f ", intensity(x, y)));
+			}
+			sb.append('\n');
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,271 @@
+package model.dataset;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import model.ai.Difficulties;
+import model.battleship.ShipCollection;
+
+/**
+ * The standard queries over a self-play dataset.
+ *
+ * @author Andrew Dennison
+ */
+public final class Queries {
+
+	private static final int CELLS = Heatmap.BOARD_SIZE * Heatmap.BOARD_SIZE;
+
+	/**
+	 * The change in x and y for one step along each Direction, indexed by ordinal
+	 */
+	private static final int[] STEP_X = { 1, 0, -1, 0 };
+	private static final int[] STEP_Y = { 0, 1, 0, -1 };
+
+	private Queries() {
+	}
+
+	/**
+	 * Count where each attacker's first hit of a game landed
+	 * @param attacker	Only count records of this attacker, or null to count every record
+	 * @return			A query producing one count per cell, which Heatmap.fromCounts can draw
+	 */
+	public static DatasetQuery<long[]> firstHits(Difficulties attacker) {
+		int wanted = attacker == null ? -1 : attacker.ordinal();
+
+		return new DatasetQuery<long[]>() {
+			@Override
+			public long[] newPartial() {
+				return new long[CELLS];
+			}
+
+			@Override
+			public void scan(long[] counts, ByteBuffer buf, int offset) {
+				if (wanted != -1 && GameRecordFormat.attacker(buf, offset) != wanted) {
+					return;
+				}
+
+				int shots = GameRecordFormat.storedShots(buf, offset);
+				for (int i = 0; i < shots; i++) {
+					int shot = GameRecordFormat.shot(buf, offset, i);
+					if (GameRecordFormat.isHit(shot)) {
+						counts[GameRecordFormat.cell(shot)]++;
+						return;
+					}
+				}
+			}
+
+			@Override
+			public void merge(long[] into, long[] from) {
+				for (int i = 0; i < CELLS; i++) {
+					into[i] += from[i];
+				}
+			}
+		};
+	}
+
+	/**
+	 * Measure how many shots into a game each ship was sunk
+	 * @param attacker	Only count records of this attacker, or null to count every record
+	 * @return			A query producing the average number of shots to sink each length of ship
+	 */
+	public static DatasetQuery<SinkTimes> shotsToSink(Difficulties attacker) {
+		int wanted = attacker == null ? -1 : attacker.ordinal();
+
+		return new DatasetQuery<SinkTimes>() {
+			@Override
+			public SinkTimes newPartial() {
+				return new SinkTimes();
+			}
+
+			@Override
+			public void scan(SinkTimes partial, ByteBuffer buf, int offset) {
+				if (wanted == -1 || GameRecordFormat.attacker(buf, offset) == wanted) {
+					partial.scan(buf, offset);
+				}
+			}
+
+			@Override
+			public void merge(SinkTimes into, SinkTimes from) {
+				into.merge(from);
+			}
+		};
+	}
+
+	/**
+	 * Measure how often a shot at each cell hits, separately for every turn of the game
+	 * @param attacker	Only count records of this attacker, or null to count every record
+	 * @return			A query producing hit and shot counts by turn and cell
+	 */
+	public static DatasetQuery<TurnHitRates> hitRateByTurn(Difficulties attacker) {
+		int wanted = attacker == null ? -1 : attacker.ordinal();
+
+		return new DatasetQuery<TurnHitRates>() {
+			@Override
+			public TurnHitRates newPartial() {
+				return new TurnHitRates();
+			}
+
+			@Override
+			public void scan(TurnHitRates partial, ByteBuffer buf, int offset) {
+				if (wanted == -1 || GameRecordFormat.attacker(buf, offset) == wanted) {
+					partial.scan(buf, offset);
+				}
+			}
+
+			@Override
+			public void merge(TurnHitRates into, TurnHitRates from) {
+				into.merge(from);
+			}
+		};
+	}
+
+	/**
+	 * Partial result of shotsToSink
+	 */
+	public static class SinkTimes {
+
+		/**
+		 * Total shots taken to sink ships, indexed by ship length
+		 */
+		private final long[] shots = new long[6];
+
+		/**
+		 * Number of ships sunk, indexed by ship length
+		 */
+		private final long[] sinks = new long[6];
+
+		/**
+		 * Scratch space: the ship occupying each cell plus one, or 0 for open water
+		 */
+		private final byte[] shipAt = new byte[CELLS];
+		private final int[] damage = new int[5];
+
+		private void scan(ByteBuffer buf, int offset) {
+			Arrays.fill(shipAt, (byte) 0);
+
+			for (int s = 0; s < 5; s++) {
+				damage[s] = 0;
+				int cell = GameRecordFormat.shipCell(buf, offset, s);
+				int direction = GameRecordFormat.shipDirection(buf, offset, s);
+				int x = cell % Heatmap.BOARD_SIZE;
+				int y = cell / Heatmap.BOARD_SIZE;
+
+				for (int i = 0; i < ShipCollection.SHIP_LENGTHS[s]; i++) {
+					int px = x + i * STEP_X[direction];
+					int py = y + i * STEP_Y[direction];
+					if (px >= 0 && px < Heatmap.BOARD_SIZE && py >= 0 && py < Heatmap.BOARD_SIZE) {
+						shipAt[py * Heatmap.BOARD_SIZE + px] = (byte) (s + 1);
+					}
+				}
+			}
+
+			int stored = GameRecordFormat.storedShots(buf, offset);
+			for (int i = 0; i < stored; i++) {
+				int shot = GameRecordFormat.shot(buf, offset, i);
+				if (!GameRecordFormat.isHit(shot)) {
+					continue;
+				}
+
+				int cell = GameRecordFormat.cell(shot);
+				int s = shipAt[cell] - 1;
+				if (s < 0) {
+					continue;
+				}
+				
+				// Repeated shots at a damaged cell still report a hit, so only count each cell once
+				shipAt[cell] = 0;
+
+				int length = ShipCollection.SHIP_LENGTHS[s];
+				if (++damage[s] == length) {
+					shots[length] += i + 1;
+					sinks[length]++;
+				}
+			}
+		}
+
+		private void merge(SinkTimes from) {
+			for (int i = 0; i < shots.length; i++) {
+				shots[i] += from.shots[i];
+				sinks[i] += from.sinks[i];
+			}
+		}
+
+		/**
+		 * Get the average number of shots into a game at which a ship of a given length was sunk
+		 * @param length	Length of the ship, from 2 to 5
+		 * @return			The average shot number, or 0 if no such ship was sunk
+		 */
+		public double average(int length) {
+			return sinks[length] == 0 ? 0 : (double) shots[length] / sinks[length];
+		}
+
+		/**
+		 * Get the number of ships of a given length which were sunk
+		 * @param length	Length of the ship, from 2 to 5
+		 * @return			The number of ships sunk
+		 */
+		public long sunk(int length) {
+			return sinks[length];
+		}
+	}
+
+	/**
+	 * Partial result of hitRateByTurn
+	 */
+	public static class TurnHitRates {
+
+		private final long[][] hits = new long[GameRecordFormat.MAX_SHOTS][CELLS];
+		private final long[][] shots = new long[GameRecordFormat.MAX_SHOTS][CELLS];
+
+		private void scan(ByteBuffer buf, int offset) {
+			int stored = GameRecordFormat.storedShots(buf, offset);
+			for (int turn = 0; turn < stored; turn++) {
+				int shot = GameRecordFormat.shot(buf, offset, turn);
+				int cell = GameRecordFormat.cell(shot);
+
+				shots[turn][cell]++;
+				if (GameRecordFormat.isHit(shot)) {
+					hits[turn][cell]++;
+				}
+			}
+		}
+
+		private void merge(TurnHitRates from) {
+			for (int turn = 0; turn < hits.length; turn++) {
+				for (int cell = 0; cell < CELLS; cell++) {
+					hits[turn][cell] += from.hits[turn][cell];
+					shots[turn][cell] += from.shots[turn][cell];
+				}
+			}
+		}
+
+		/**
+		 * Get the chance a shot at each cell hit on a given turn
+		 * @param turn	The turn of the game, starting from 0
+		 * @return		Hit probability of each cell on that turn
+		 */
+		public Heatmap heatmap(int turn) {
+			return Heatmap.fromRatio(hits[turn], shots[turn]);
+		}
+
+		/**
+		 * Get the chance a shot at each cell hit on any turn within a range
+		 * @param firstTurn	The first turn to include, starting from 0
+		 * @param lastTurn	The last turn to include
+		 * @return			Hit probability of each cell over those turns
+		 */
+		public Heatmap heatmap(int firstTurn, int lastTurn) {
+			long[] rangeHits = new long[CELLS];
+			long[] rangeShots = new long[CELLS];
+
+			for (int turn = firstTurn; turn <= lastTurn && turn < hits.length; turn++) {
+				for (int cell = 0; cell < CELLS; cell++) {
+					rangeHits[cell] += hits[turn][cell];
+					rangeShots[cell] += shots[turn][cell];
+				}
+			}
+
+			return Heatmap.fromRatio(rangeHits, rangeShots);
+		}
+	}
+}
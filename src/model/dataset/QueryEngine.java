@@ -0,0 +1,128 @@
+package model.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import model.ai.Difficulties;
+
+/**
+ * Runs DatasetQueries over a memory mapped dataset in parallel.
+ *
+ * Every thread takes whole segments from a shared counter until none are left,
+ * scanning each into its own partial result, so threads share nothing while
+ * scanning.  The partial results are merged once every thread has finished.
+ *
+ * @author Andrew Dennison
+ */
+public class QueryEngine {
+
+	private final DatasetIndex index;
+	private final int threads;
+
+	/**
+	 * Create an engine over a dataset
+	 * @param index		The dataset to query
+	 * @param threads	The number of threads to scan with
+	 */
+	public QueryEngine(DatasetIndex index, int threads) {
+		this.index = index;
+		this.threads = Math.max(1, threads);
+	}
+
+	/**
+	 * Create an engine using one thread per processor
+	 * @param index		The dataset to query
+	 */
+	public QueryEngine(DatasetIndex index) {
+		this(index, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Answer a query by scanning every record of the dataset
+	 * @param <P>			Type of the query's result
+	 * @param query			The query to answer
+	 * @return				The merged result of every thread
+	 * @throws IOException	If a segment could not be mapped
+	 */
+	public <P> P run(DatasetQuery<P> query) throws IOException {
+		List<DatasetIndex.Segment> segments = index.segments();
+		AtomicInteger nextSegment = new AtomicInteger();
+		int workers = Math.min(threads, Math.max(1, segments.size()));
+
+		ExecutorService pool = Executors.newFixedThreadPool(workers);
+		List<Future<P>> partials = new ArrayList<Future<P>>();
+
+		for (int t = 0; t < workers; t++) {
+			partials.add(pool.submit(() -> {
+				P partial = query.newPartial();
+				int s;
+				while ((s = nextSegment.getAndIncrement()) < segments.size()) {
+					scanSegment(query, partial, segments.get(s));
+				}
+				return partial;
+			}));
+		}
+
+		try {
+			P result = partials.get(0).get();
+			for (int t = 1; t < partials.size(); t++) {
+				query.merge(result, partials.get(t).get());
+			}
+			return result;
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while running a query", ex);
+		} catch (ExecutionException ex) {
+			throw new IOException("A query thread failed", ex.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private <P> void scanSegment(DatasetQuery<P> query, P partial, DatasetIndex.Segment segment) throws IOException {
+		ByteBuffer buf = index.map(segment);
+		int end = GameRecordFormat.offset(segment.records());
+
+		for (int offset = 0; offset < end; offset += GameRecordFormat.RECORD_BYTES) {
+			query.scan(partial, buf, offset);
+		}
+	}
+
+	/**
+	 * Print the standard queries for a dataset from the command line.
+	 *
+	 * Usage: QueryEngine directory [attacker difficulty]
+	 * @param args			Command line arguments
+	 * @throws IOException	If the dataset could not be read
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 1) {
+			System.out.println("Usage: QueryEngine <directory> [attacker difficulty]");
+			return;
+		}
+
+		QueryEngine engine = new QueryEngine(DatasetIndex.read(Paths.get(args[0])));
+		Difficulties attacker = args.length > 1 ? Difficulties.valueOf(args[1].toUpperCase()) : null;
+
+		long start = System.nanoTime();
+		System.out.println("First hits:");
+		System.out.println(Heatmap.fromCounts(engine.run(Queries.firstHits(attacker))));
+
+		Queries.SinkTimes sinks = engine.run(Queries.shotsToSink(attacker));
+		for (int length = 2; length <= 5; length++) {
+			System.out.println(String.format("Length %d sunk on shot %.1f on average", length, sinks.average(length)));
+		}
+
+		System.out.println("\nHit rate over the first ten turns:");
+		System.out.println(engine.run(Queries.hitRateByTurn(attacker)).heatmap(0, 9));
+		System.out.println(String.format("Answered in %d ms", (System.nanoTime() - start) / 1000000));
+	}
+}
@@ -0,0 +1,133 @@
+package model.dataset;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes game records into a series of segment files.
+ *
+ * A SegmentWriter is owned by a single thread and is not thread safe.  Records are
+ * filled in place in a reusable batch buffer and written out a batch at a time, and
+ * a new segment file is started once the current one holds the configured number of
+ * records.  The two records of a game are always kept in the same segment.
+ *
+ * @author Andrew Dennison
+ */
+public class SegmentWriter implements Closeable {
+
+	/**
+	 * The number of games buffered before the batch is written to disk
+	 */
+	private static final int BATCH_GAMES = 256;
+
+	private final Path directory;
+	private final String prefix;
+	private final int recordsPerSegment;
+
+	private final ByteBuffer batch;
+	private final List<DatasetIndex.Segment> finished = new ArrayList<DatasetIndex.Segment>();
+
+	private FileChannel current;
+	private String currentName;
+	private int segmentNumber;
+	private int recordsInSegment;
+
+	/**
+	 * Create a new writer
+	 * @param directory			The directory to write segments into
+	 * @param prefix			Prefix of every segment file name, unique to this writer
+	 * @param gamesPerSegment	The number of games in each segment file
+	 */
+	public SegmentWriter(Path directory, String prefix, int gamesPerSegment) {
+		this.directory = directory;
+		this.prefix = prefix;
+		recordsPerSegment = 2 * gamesPerSegment;
+		batch = ByteBuffer.allocateDirect(2 * BATCH_GAMES * GameRecordFormat.RECORD_BYTES);
+	}
+
+	/**
+	 * Reserve space for the two records of the next game
+	 * @return				The buffer to write the records into with GameRecordFormat
+	 * @throws IOException	If a full batch could not be written
+	 */
+	public ByteBuffer nextGame() throws IOException {
+		if (recordsInSegment + batch.position() / GameRecordFormat.RECORD_BYTES >= recordsPerSegment
+				|| !batch.hasRemaining()) {
+			flush();
+		}
+
+		return batch;
+	}
+
+	/**
+	 * Get the offset of the first of the two records reserved by nextGame
+	 * @return	Offset of the first player's record, the second follows it directly
+	 */
+	public int gameOffset() {
+		return batch.position();
+	}
+
+	/**
+	 * Commit the two records of the game reserved by nextGame
+	 */
+	public void endGame() {
+		batch.position(batch.position() + 2 * GameRecordFormat.RECORD_BYTES);
+	}
+
+	private void flush() throws IOException {
+		if (batch.position() == 0) {
+			return;
+		}
+
+		if (current == null || recordsInSegment >= recordsPerSegment) {
+			startSegment();
+		}
+
+		recordsInSegment += batch.position() / GameRecordFormat.RECORD_BYTES;
+
+		batch.flip();
+		while (batch.hasRemaining()) {
+			current.write(batch);
+		}
+		batch.clear();
+	}
+
+	private void startSegment() throws IOException {
+		finishSegment();
+
+		currentName = String.format("%s-%05d.bin", prefix, segmentNumber++);
+		current = FileChannel.open(directory.resolve(currentName), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		recordsInSegment = 0;
+	}
+
+	private void finishSegment() throws IOException {
+		if (current == null) {
+			return;
+		}
+
+		current.close();
+		finished.add(new DatasetIndex.Segment(currentName, recordsInSegment));
+		current = null;
+	}
+
+	/**
+	 * Get every segment this writer has completed
+	 * @return	The finished segments, complete once close has been called
+	 */
+	public List<DatasetIndex.Segment> segments() {
+		return finished;
+	}
+
+	@Override
+	public void close() throws IOException {
+		flush();
+		finishSegment();
+	}
+}
@@ -0,0 +1,179 @@
+package model.dataset;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javafx.geometry.Point2D;
+import model.ai.Difficulties;
+import model.ai.Match;
+
+/**
+ * Plays AI-vs-AI games on several threads and records every game into a dataset.
+ *
+ * Each worker thread owns its own SegmentWriter, so threads never contend while
+ * recording.  Once every worker is finished, the segments of all workers are listed
+ * in a single DatasetIndex.
+ *
+ * @author Andrew Dennison
+ */
+public class SelfPlayGenerator {
+
+	/**
+	 * The default number of games in each segment file, about 128 MB per segment
+	 */
+	public static final int DEFAULT_GAMES_PER_SEGMENT = 1 << 19;
+
+	private final Difficulties first;
+	private final Difficulties second;
+	private final Path directory;
+	private final int threads;
+	private final int gamesPerSegment;
+
+	/**
+	 * Create a new generator
+	 * @param first				Difficulty of the first player
+	 * @param second			Difficulty of the second player
+	 * @param directory			The directory to write the dataset into
+	 * @param threads			The number of games to play at once
+	 * @param gamesPerSegment	The number of games in each segment file
+	 */
+	public SelfPlayGenerator(Difficulties first, Difficulties second, Path directory, int threads, int gamesPerSegment) {
+		this.first = first;
+		this.second = second;
+		this.directory = directory;
+		this.threads = threads;
+		this.gamesPerSegment = gamesPerSegment;
+	}
+
+	/**
+	 * Play and record a number of games
+	 * @param games			The total number of games to play
+	 * @return				The index of the finished dataset, which has also been written to disk
+	 * @throws IOException	If the dataset could not be written
+	 */
+	public DatasetIndex generate(long games) throws IOException {
+		Files.createDirectories(directory);
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		List<Future<List<DatasetIndex.Segment>>> workers = new ArrayList<Future<List<DatasetIndex.Segment>>>();
+
+		for (int t = 0; t < threads; t++) {
+			long share = games / threads + (t < games % threads ? 1 : 0);
+			String prefix = "selfplay-" + t;
+			workers.add(pool.submit(() -> playGames(prefix, share)));
+		}
+
+		List<DatasetIndex.Segment> segments = new ArrayList<DatasetIndex.Segment>();
+		try {
+			for (Future<List<DatasetIndex.Segment>> f : workers) {
+				segments.addAll(f.get());
+			}
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while generating games", ex);
+		} catch (ExecutionException ex) {
+			throw new IOException("A self-play worker failed", ex.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		DatasetIndex index = new DatasetIndex(directory, segments);
+		index.write();
+		return index;
+	}
+
+	/**
+	 * Body of one worker, which plays its share of games into its own writer on this thread's
+	 * pooled match, so every game resets the same boards and AIs
+	 */
+	private List<DatasetIndex.Segment> playGames(String prefix, long games) throws IOException {
+		Match match = Match.pooled(first, second);
+		Recorder recorder = new Recorder();
+		Random seeds = new Random();
+
+		// The last segment is only finished once the writer is closed
+		SegmentWriter writer = new SegmentWriter(directory, prefix, gamesPerSegment);
+		try (writer) {
+			for (long i = 0; i < games; i++) {
+				ByteBuffer buf = writer.nextGame();
+				playGame(match, seeds.nextLong(), recorder, buf, writer.gameOffset());
+				writer.endGame();
+			}
+		}
+		return writer.segments();
+	}
+
+	/**
+	 * Play one game, recording it as two records starting at offset
+	 * @param match		The match to play the game on
+	 * @param seed		Chooses both fleets and every guess
+	 * @param recorder	This worker's recorder
+	 * @param buf		Buffer to record into
+	 * @param offset	Offset of the first player's record
+	 */
+	private void playGame(Match match, long seed, Recorder recorder, ByteBuffer buf, int offset) {
+		int firstRecord = offset;
+		int secondRecord = offset + GameRecordFormat.RECORD_BYTES;
+
+		match.reset(seed);
+		GameRecordFormat.begin(buf, firstRecord, first.ordinal(), match.getSecondBoard().getCollection());
+		GameRecordFormat.begin(buf, secondRecord, second.ordinal(), match.getFirstBoard().getCollection());
+
+		recorder.buf = buf;
+		recorder.firstRecord = firstRecord;
+		recorder.secondRecord = secondRecord;
+		match.playOut(recorder);
+
+		// The game ends on the shot which sinks the last ship, so only one side ever wins
+		GameRecordFormat.setWon(buf, match.getSecondBoard().isEmpty() ? firstRecord : secondRecord);
+	}
+
+	/**
+	 * Records every shot of a game into the records of the player who took it.  Each worker
+	 * keeps one, pointed at the records of the game being played.
+	 */
+	private static class Recorder implements Match.ShotListener {
+
+		private ByteBuffer buf;
+		private int firstRecord;
+		private int secondRecord;
+
+		@Override
+		public void shot(boolean byFirst, Point2D move, int result) {
+			if (move.getX() >= 0 && move.getX() < 10 && move.getY() >= 0 && move.getY() < 10) {
+				GameRecordFormat.addShot(buf, byFirst ? firstRecord : secondRecord, (int) move.getX(), (int) move.getY(), result == 1);
+			}
+		}
+	}
+
+	/**
+	 * Generate a dataset from the command line.
+	 *
+	 * Usage: SelfPlayGenerator first second games directory [threads]
+	 * @param args			Command line arguments
+	 * @throws IOException	If the dataset could not be written
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 4) {
+			System.out.println("Usage: SelfPlayGenerator <first difficulty> <second difficulty> <games> <directory> [threads]");
+			return;
+		}
+
+		int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+		SelfPlayGenerator generator = new SelfPlayGenerator(Difficulties.valueOf(args[0].toUpperCase()),
+				Difficulties.valueOf(args[1].toUpperCase()), Paths.get(args[3]), threads, DEFAULT_GAMES_PER_SEGMENT);
+
+		DatasetIndex index = generator.generate(Long.parseLong(args[2]));
+		System.out.println(String.format("Wrote %d records in %d segments", index.records(), index.segments().size()));
+	}
+}
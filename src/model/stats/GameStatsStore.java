@@ -0,0 +1,213 @@
+package model.stats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import model.ai.Difficulties;
+import model.board.GameplayRecord;
+
+/**
+ * A local, append-only history of every finished game.
+ *
+ * Each field of a GameplayRecord is appended to its own column file as a fixed-width
+ * value, so a game costs 12 bytes on disk and any single statistic can be scanned
+ * without reading the others.  A small aggregates file holding a LifetimeStats is
+ * rewritten after every append, so the lifetime totals are available instantly no
+ * matter how many games have been recorded.
+ *
+ * @author Andrew Dennison
+ */
+public class GameStatsStore implements Closeable {
+
+	/**
+	 * Written to the start of the aggregates file to detect foreign or outdated files
+	 */
+	private static final int MAGIC = 0x42535331;
+
+	private static final String AGGREGATES_FILE = "aggregates.dat";
+
+	/**
+	 * Column files and the width in bytes of one value in each
+	 */
+	private static final String[] COLUMNS = { "hits.col", "ratio.col", "sunk.col", "duration.col", "difficulty.col" };
+	private static final int[] WIDTHS = { Short.BYTES, Float.BYTES, Byte.BYTES, Integer.BYTES, Byte.BYTES };
+
+	/**
+	 * Marks a game whose difficulty was not known in the difficulty column
+	 */
+	private static final byte NO_DIFFICULTY = -1;
+
+	private FileChannel[] columns;
+	private FileChannel aggregatesChannel;
+
+	private ByteBuffer rowBuffer;
+	private ByteBuffer aggregatesBuffer;
+
+	private LifetimeStats stats;
+
+	/**
+	 * Open or create a store inside the given directory
+	 * @param directory		Directory holding the column and aggregate files
+	 * @throws IOException	If the files could not be opened or created
+	 */
+	public GameStatsStore(Path directory) throws IOException {
+		Files.createDirectories(directory);
+
+		columns = new FileChannel[COLUMNS.length];
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columns[i] = FileChannel.open(directory.resolve(COLUMNS[i]), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE);
+		}
+
+		// Drop any partially written row so the columns stay aligned
+		long rows = size();
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columns[i].truncate(rows * WIDTHS[i]);
+		}
+
+		aggregatesChannel = FileChannel.open(directory.resolve(AGGREGATES_FILE), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+		rowBuffer = ByteBuffer.allocate(Integer.BYTES);
+		aggregatesBuffer = ByteBuffer.allocate(Integer.BYTES + LifetimeStats.BYTES);
+
+		stats = loadAggregates();
+	}
+
+	/**
+	 * Open the store kept in the user's home directory
+	 * @return				The default store
+	 * @throws IOException	If the files could not be opened or created
+	 */
+	public static GameStatsStore openDefault() throws IOException {
+		return new GameStatsStore(Paths.get(System.getProperty("user.home"), ".battleship", "stats"));
+	}
+
+	/**
+	 * Append a finished game to the history and update the lifetime statistics
+	 * @param gr			The statistics of the finished game
+	 * @param difficulty	The difficulty the game was played on, or null if unknown
+	 * @throws IOException	If the game could not be written
+	 */
+	public void append(GameplayRecord gr, Difficulties difficulty) throws IOException {
+		writeColumn(0, rowBuffer.putShort((short) gr.hits()));
+		writeColumn(1, rowBuffer.putFloat((float) gr.hitRatio()));
+		writeColumn(2, rowBuffer.put((byte) gr.shipsSunk()));
+		writeColumn(3, rowBuffer.putInt((int) gr.duration()));
+		writeColumn(4, rowBuffer.put(difficulty == null ? NO_DIFFICULTY : (byte) difficulty.ordinal()));
+
+		stats.accumulate(gr, difficulty);
+		saveAggregates();
+	}
+
+	/**
+	 * Get the lifetime statistics of every game in the store
+	 * @return	The running aggregates, which are updated in place by append
+	 */
+	public LifetimeStats getLifetimeStats() {
+		return stats;
+	}
+
+	/**
+	 * Get the number of games recorded in the store
+	 * @return				The number of rows in the column files
+	 * @throws IOException	If the column files could not be read
+	 */
+	public int size() throws IOException {
+		long rows = Long.MAX_VALUE;
+
+		// A crash part way through an append can leave the later columns one row short
+		for (int i = 0; i < COLUMNS.length; i++) {
+			rows = Math.min(rows, columns[i].size() / WIDTHS[i]);
+		}
+
+		return (int) rows;
+	}
+
+	/**
+	 * Recompute the lifetime statistics by scanning every column from the beginning.
+	 *
+	 * This is only needed if the aggregates file is missing or out of step with the columns.
+	 * @return				The rebuilt statistics
+	 * @throws IOException	If the column files could not be read
+	 */
+	public LifetimeStats rebuild() throws IOException {
+		int rows = size();
+		ByteBuffer[] data = new ByteBuffer[COLUMNS.length];
+
+		for (int i = 0; i < COLUMNS.length; i++) {
+			data[i] = ByteBuffer.allocate(rows * WIDTHS[i]);
+			while (data[i].hasRemaining() && columns[i].read(data[i], data[i].position()) > 0);
+			data[i].flip();
+		}
+
+		Difficulties[] difficulties = Difficulties.values();
+		LifetimeStats rebuilt = new LifetimeStats();
+
+		for (int row = 0; row < rows; row++) {
+			GameplayRecord gr = new GameplayRecord(data[0].getShort(), data[1].getFloat(), data[2].get(),
+					data[3].getInt());
+			byte d = data[4].get();
+			rebuilt.accumulate(gr, d == NO_DIFFICULTY ? null : difficulties[d]);
+		}
+
+		stats = rebuilt;
+		saveAggregates();
+		return stats;
+	}
+
+	private void writeColumn(int column, ByteBuffer value) throws IOException {
+		FileChannel fc = columns[column];
+		long position = fc.size();
+		
+		value.flip();
+		while (value.hasRemaining()) {
+			position += fc.write(value, position);
+		}
+		value.clear();
+	}
+
+	private LifetimeStats loadAggregates() throws IOException {
+		aggregatesBuffer.clear();
+		aggregatesChannel.read(aggregatesBuffer, 0);
+		aggregatesBuffer.flip();
+
+		if (aggregatesBuffer.remaining() == aggregatesBuffer.capacity() && aggregatesBuffer.getInt() == MAGIC) {
+			LifetimeStats loaded = LifetimeStats.readFrom(aggregatesBuffer);
+			if (loaded.gamesPlayed() == size()) {
+				return loaded;
+			}
+		}
+
+		// The aggregates are missing or stale, so fall back to a full scan once
+		stats = new LifetimeStats();
+		return rebuild();
+	}
+
+	private void saveAggregates() throws IOException {
+		aggregatesBuffer.clear();
+		aggregatesBuffer.putInt(MAGIC);
+		stats.writeTo(aggregatesBuffer);
+		aggregatesBuffer.flip();
+
+		long position = 0;
+		while (aggregatesBuffer.hasRemaining()) {
+			position += aggregatesChannel.write(aggregatesBuffer, position);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (FileChannel fc : columns) {
+			fc.close();
+		}
+
+		aggregatesChannel.close();
+	}
+}
@@ -0,0 +1,238 @@
+package model.stats;
+
+import java.nio.ByteBuffer;
+
+import model.ai.Difficulties;
+import model.board.GameplayRecord;
+
+/**
+ * Running totals over every game ever recorded by a GameStatsStore.
+ *
+ * Each aggregate is updated in constant time as a game is added, so reading the
+ * lifetime statistics never requires scanning the game history.
+ *
+ * @author Andrew Dennison
+ */
+public class LifetimeStats {
+
+	/**
+	 * The number of bytes a LifetimeStats occupies when written to a buffer
+	 */
+	public static final int BYTES = Integer.BYTES + 2 * Long.BYTES + 4 * Double.BYTES
+			+ Difficulties.values().length * (2 * Integer.BYTES + Long.BYTES);
+
+	/**
+	 * Weight given to the newest game in the moving averages, roughly the last 20 games
+	 */
+	private static final double SMOOTHING = 0.1;
+
+	/**
+	 * Stored in place of a best time when no game has been won on a difficulty
+	 */
+	public static final long NO_BEST_TIME = Long.MAX_VALUE;
+
+	private int gamesPlayed;
+	private long totalHits;
+	private long totalDuration;
+	private double totalHitRatio;
+	private double totalShipsSunk;
+	private double averageHitRatio;
+	private double averageDuration;
+
+	private int[] gamesByDifficulty;
+	private int[] winsByDifficulty;
+	private long[] bestTimeByDifficulty;
+
+	/**
+	 * Create a new set of statistics with no games recorded
+	 */
+	public LifetimeStats() {
+		int difficulties = Difficulties.values().length;
+		gamesByDifficulty = new int[difficulties];
+		winsByDifficulty = new int[difficulties];
+		bestTimeByDifficulty = new long[difficulties];
+
+		for (int i = 0; i < difficulties; i++) {
+			bestTimeByDifficulty[i] = NO_BEST_TIME;
+		}
+	}
+
+	/**
+	 * Fold one more game into the running totals
+	 * @param gr			The statistics of the finished game
+	 * @param difficulty	The difficulty the game was played on, or null if unknown
+	 */
+	public void accumulate(GameplayRecord gr, Difficulties difficulty) {
+		if (gamesPlayed == 0) {
+			averageHitRatio = gr.hitRatio();
+			averageDuration = gr.duration();
+		} else {
+			averageHitRatio += SMOOTHING * (gr.hitRatio() - averageHitRatio);
+			averageDuration += SMOOTHING * (gr.duration() - averageDuration);
+		}
+
+		gamesPlayed++;
+		totalHits += gr.hits();
+		totalDuration += gr.duration();
+		totalHitRatio += gr.hitRatio();
+		totalShipsSunk += gr.shipsSunk();
+
+		if (difficulty == null) {
+			return;
+		}
+
+		int d = difficulty.ordinal();
+		gamesByDifficulty[d]++;
+
+		if (isWin(gr)) {
+			winsByDifficulty[d]++;
+			bestTimeByDifficulty[d] = Math.min(bestTimeByDifficulty[d], gr.duration());
+		}
+	}
+
+	/**
+	 * Determine whether a game was won by the player
+	 * @param gr	The statistics of the game
+	 * @return		True if the player sank all five ships, false otherwise
+	 */
+	public static boolean isWin(GameplayRecord gr) {
+		return gr.shipsSunk() == 5;
+	}
+
+	/**
+	 * Get the number of games folded into these statistics
+	 * @return	The total number of games played
+	 */
+	public int gamesPlayed() {
+		return gamesPlayed;
+	}
+
+	/**
+	 * Get the total number of hits across all games
+	 * @return	The sum of all hits
+	 */
+	public long totalHits() {
+		return totalHits;
+	}
+
+	/**
+	 * Get the total time spent playing
+	 * @return	The sum of all game durations in seconds
+	 */
+	public long totalDuration() {
+		return totalDuration;
+	}
+
+	/**
+	 * Get the mean hit ratio across every game
+	 * @return	Hit ratio from 0 to 100, or 0 if no games were played
+	 */
+	public double meanHitRatio() {
+		return gamesPlayed == 0 ? 0 : totalHitRatio / gamesPlayed;
+	}
+
+	/**
+	 * Get the mean number of ships sunk across every game
+	 * @return	Ships sunk from 0 to 5, or 0 if no games were played
+	 */
+	public double meanShipsSunk() {
+		return gamesPlayed == 0 ? 0 : totalShipsSunk / gamesPlayed;
+	}
+
+	/**
+	 * Get the exponential moving average of the hit ratio, favoring recent games
+	 * @return	Hit ratio from 0 to 100
+	 */
+	public double movingAverageHitRatio() {
+		return averageHitRatio;
+	}
+
+	/**
+	 * Get the exponential moving average of the game length, favoring recent games
+	 * @return	Game length in seconds
+	 */
+	public double movingAverageDuration() {
+		return averageDuration;
+	}
+
+	/**
+	 * Get the number of games played on a difficulty
+	 * @param d	The difficulty to check
+	 * @return	The number of games played on that difficulty
+	 */
+	public int gamesPlayed(Difficulties d) {
+		return gamesByDifficulty[d.ordinal()];
+	}
+
+	/**
+	 * Get the number of games won on a difficulty
+	 * @param d	The difficulty to check
+	 * @return	The number of games won on that difficulty
+	 */
+	public int wins(Difficulties d) {
+		return winsByDifficulty[d.ordinal()];
+	}
+
+	/**
+	 * Get the percentage of games won on a difficulty
+	 * @param d	The difficulty to check
+	 * @return	Win rate from 0 to 100, or 0 if no games were played on that difficulty
+	 */
+	public double winRate(Difficulties d) {
+		int games = gamesPlayed(d);
+		return games == 0 ? 0 : 100.0 * wins(d) / games;
+	}
+
+	/**
+	 * Get the fastest win on a difficulty
+	 * @param d	The difficulty to check
+	 * @return	The shortest winning game in seconds, or NO_BEST_TIME if no game has been won
+	 */
+	public long bestTime(Difficulties d) {
+		return bestTimeByDifficulty[d.ordinal()];
+	}
+
+	/**
+	 * Write these statistics into a buffer at its current position
+	 * @param buf	Buffer with at least BYTES remaining
+	 */
+	public void writeTo(ByteBuffer buf) {
+		buf.putInt(gamesPlayed);
+		buf.putLong(totalHits);
+		buf.putLong(totalDuration);
+		buf.putDouble(totalHitRatio);
+		buf.putDouble(totalShipsSunk);
+		buf.putDouble(averageHitRatio);
+		buf.putDouble(averageDuration);
+
+		for (int i = 0; i < gamesByDifficulty.length; i++) {
+			buf.putInt(gamesByDifficulty[i]);
+			buf.putInt(winsByDifficulty[i]);
+			buf.putLong(bestTimeByDifficulty[i]);
+		}
+	}
+
+	/**
+	 * Read statistics previously written with writeTo
+	 * @param buf	Buffer positioned at the start of the statistics
+	 * @return		The statistics stored in the buffer
+	 */
+	public static LifetimeStats readFrom(ByteBuffer buf) {
+		LifetimeStats ls = new LifetimeStats();
+		ls.gamesPlayed = buf.getInt();
+		ls.totalHits = buf.getLong();
+		ls.totalDuration = buf.getLong();
+		ls.totalHitRatio = buf.getDouble();
+		ls.totalShipsSunk = buf.getDouble();
+		ls.averageHitRatio = buf.getDouble();
+		ls.averageDuration = buf.getDouble();
+
+		for (int i = 0; i < ls.gamesByDifficulty.length; i++) {
+			ls.gamesByDifficulty[i] = buf.getInt();
+			ls.winsByDifficulty[i] = buf.getInt();
+			ls.bestTimeByDifficulty[i] = buf.getLong();
+		}
+
+		return ls;
+	}
+}
@@ -0,0 +1,353 @@
+package model.stats;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPOutputStream;
+
+import controller_view.EventBus;
+import model.board.GameplayRecord;
+
+/**
+ * Streams game results to a CSV or JSON Lines file as they are produced.
+ *
+ * Results are handed to a single writer thread through a bounded queue.  When the
+ * writer falls behind, export blocks the producer until there is room again, so the
+ * memory used stays the same no matter how many games are exported.  Only the running
+ * totals are kept, and they are written as a final "total" row when the exporter is closed.
+ *
+ * The exporter can also listen directly to a Board for GAME_STATS_READY notifications,
+ * by subscribing it with board.events().subscribe(AllProperties.GAME_STATS_READY, exporter).
+ *
+ * @author Andrew Dennison
+ */
+public class ResultExporter implements Closeable, EventBus.Listener {
+
+	/**
+	 * The formats results can be written in
+	 */
+	public enum Format {
+		/**
+		 * Comma separated values with a header row
+		 */
+		CSV,
+
+		/**
+		 * One JSON object per line
+		 */
+		JSON_LINES
+	}
+
+	/**
+	 * The default number of results that may be waiting to be written
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * One result waiting to be written
+	 * @param label	A description of who played, e.g. a difficulty or "Hard vs Easy"
+	 * @param gr	The statistics of the game
+	 */
+	private record Result(String label, GameplayRecord gr) {}
+
+	/**
+	 * Placed on the queue to tell the writer thread there are no more results
+	 */
+	private static final Result END = new Result(null, null);
+
+	private static final String CSV_HEADER = "game,label,hits,hitRatio,shipsSunk,duration,won";
+
+	private final BlockingQueue<Result> queue;
+	private final Writer out;
+	private final Format format;
+	private final Thread writerThread;
+	private final StringBuilder line = new StringBuilder(128);
+
+	private long gamesWritten;
+	private long wins;
+	private long totalHits;
+	private long totalShipsSunk;
+	private long totalDuration;
+	private double totalHitRatio;
+
+	private volatile IOException failure;
+	private volatile boolean closed;
+
+	/**
+	 * The label attached to results received as a listener
+	 */
+	private volatile String listenerLabel = "";
+
+	/**
+	 * Create a new exporter writing to a stream, which will be closed with the exporter
+	 * @param stream	The stream to write results to
+	 * @param format	The format to write results in
+	 * @param capacity	The number of results that may wait to be written before export blocks
+	 */
+	public ResultExporter(OutputStream stream, Format format, int capacity) {
+		this.format = format;
+		queue = new ArrayBlockingQueue<Result>(capacity);
+		out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), 1 << 16);
+
+		writerThread = new Thread(this::drain, "result-exporter");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Open an exporter writing to a file
+	 * @param file			The file to create or overwrite
+	 * @param format		The format to write results in
+	 * @param gzip			True if the file should be gzip compressed, false otherwise
+	 * @return				The new exporter
+	 * @throws IOException	If the file could not be opened
+	 */
+	public static ResultExporter open(Path file, Format format, boolean gzip) throws IOException {
+		OutputStream stream = Files.newOutputStream(file);
+		if (gzip) {
+			stream = new GZIPOutputStream(stream, 1 << 16);
+		}
+
+		return new ResultExporter(stream, format, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Queue a result to be written, waiting for room if the writer has fallen behind
+	 * @param label			A description of who played, e.g. a difficulty or "Hard vs Easy"
+	 * @param gr			The statistics of the game
+	 * @throws IOException	If an earlier write failed or the exporter is closed
+	 */
+	public void export(String label, GameplayRecord gr) throws IOException {
+		checkOpen();
+
+		try {
+			queue.put(new Result(label == null ? "" : label, gr));
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting to export a result", ex);
+		}
+	}
+
+	/**
+	 * Set the label attached to results this exporter hears about as a listener
+	 * @param label	A description of who is playing
+	 */
+	public void setListenerLabel(String label) {
+		listenerLabel = label;
+	}
+
+	/**
+	 * Export the GameplayRecord carried by a GAME_STATS_READY event
+	 */
+	@Override
+	public void onEvent(Object source, Object oldValue, Object newValue) {
+		try {
+			export(listenerLabel, (GameplayRecord) newValue);
+		} catch (IOException ex) {
+			ex.printStackTrace();
+		}
+	}
+
+	/**
+	 * Body of the writer thread, which writes results until the end marker is reached
+	 */
+	private void drain() {
+		try {
+			if (format == Format.CSV) {
+				out.write(CSV_HEADER);
+				out.write('\n');
+			}
+		} catch (IOException ex) {
+			failure = ex;
+		}
+
+		while (true) {
+			Result r;
+			try {
+				r = queue.take();
+			} catch (InterruptedException ex) {
+				return;
+			}
+
+			if (r == END) {
+				break;
+			}
+
+			// After a failure keep taking results so producers are never left blocked
+			if (failure != null) {
+				continue;
+			}
+
+			try {
+				gamesWritten++;
+				writeResult(gamesWritten, r.label(), r.gr());
+				accumulate(r.gr());
+			} catch (IOException ex) {
+				failure = ex;
+			}
+		}
+
+		try {
+			if (failure == null) {
+				writeTotals();
+				out.flush();
+			}
+		} catch (IOException ex) {
+			failure = ex;
+		}
+	}
+
+	private void accumulate(GameplayRecord gr) {
+		if (LifetimeStats.isWin(gr)) {
+			wins++;
+		}
+
+		totalHits += gr.hits();
+		totalShipsSunk += gr.shipsSunk();
+		totalDuration += gr.duration();
+		totalHitRatio += gr.hitRatio();
+	}
+
+	private void writeTotals() throws IOException {
+		if (gamesWritten == 0) {
+			return;
+		}
+
+		// The totals row reuses the per-game columns: mean hit ratio, total hits, total ships sunk,
+		// total duration, and the number of games won
+		line.setLength(0);
+		if (format == Format.CSV) {
+			line.append("total,").append(gamesWritten).append(" games,").append(totalHits).append(',')
+				.append(totalHitRatio / gamesWritten).append(',').append(totalShipsSunk).append(',')
+				.append(totalDuration).append(',').append(wins);
+		} else {
+			line.append("{\"game\":\"total\",\"games\":").append(gamesWritten)
+				.append(",\"hits\":").append(totalHits)
+				.append(",\"hitRatio\":").append(totalHitRatio / gamesWritten)
+				.append(",\"shipsSunk\":").append(totalShipsSunk)
+				.append(",\"duration\":").append(totalDuration)
+				.append(",\"wins\":").append(wins).append('}');
+		}
+		line.append('\n');
+		out.append(line);
+	}
+
+	private void writeResult(long game, String label, GameplayRecord gr) throws IOException {
+		line.setLength(0);
+		if (format == Format.CSV) {
+			line.append(game).append(',');
+			appendCsvField(label);
+			line.append(',').append(gr.hits()).append(',')
+				.append(gr.hitRatio()).append(',').append(gr.shipsSunk()).append(',')
+				.append(gr.duration()).append(',').append(LifetimeStats.isWin(gr));
+		} else {
+			line.append("{\"game\":").append(game)
+				.append(",\"label\":\"");
+			appendEscaped(label);
+			line.append("\",\"hits\":").append(gr.hits())
+				.append(",\"hitRatio\":").append(gr.hitRatio())
+				.append(",\"shipsSunk\":").append(gr.shipsSunk())
+				.append(",\"duration\":").append(gr.duration())
+				.append(",\"won\":").append(LifetimeStats.isWin(gr)).append('}');
+		}
+		line.append('\n');
+		out.append(line);
+	}
+
+	/**
+	 * Append a string to the line as a CSV field, quoting it as RFC 4180 requires if it holds
+	 * a comma, quote or line break, so the row stays one row
+	 * @param s	The string to append
+	 */
+	private void appendCsvField(String s) {
+		boolean quote = false;
+		for (int i = 0; i < s.length() && !quote; i++) {
+			char c = s.charAt(i);
+			quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+		}
+
+		if (!quote) {
+			line.append(s);
+			return;
+		}
+
+		line.append('"');
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"') {
+				line.append('"');
+			}
+			line.append(c);
+		}
+		line.append('"');
+	}
+
+	/**
+	 * Append a string to the line as the inside of a JSON string, escaping quotes, backslashes
+	 * and every control character as RFC 8259 requires
+	 * @param s	The string to append
+	 */
+	private void appendEscaped(String s) {
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			switch (c) {
+			case '"':	line.append("\\\"");	break;
+			case '\\':	line.append("\\\\");	break;
+			case '\b':	line.append("\\b");	break;
+			case '\f':	line.append("\\f");	break;
+			case '\n':	line.append("\\n");	break;
+			case '\r':	line.append("\\r");	break;
+			case '\t':	line.append("\\t");	break;
+			default:
+				if (c < 0x20) {
+					line.append(String.format("\\u%04x", (int) c));
+				} else {
+					line.append(c);
+				}
+				break;
+			}
+		}
+	}
+
+	private void checkOpen() throws IOException {
+		if (failure != null) {
+			throw failure;
+		}
+
+		if (closed) {
+			throw new IOException("Exporter is closed");
+		}
+	}
+
+	/**
+	 * Write every queued result and the totals row, then close the underlying stream
+	 */
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+
+		try {
+			queue.put(END);
+			writerThread.join();
+		} catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		} finally {
+			out.close();
+		}
+
+		if (failure != null) {
+			throw failure;
+		}
+	}
+}
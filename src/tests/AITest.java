@@ -2,14 +2,20 @@ package tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
 import org.junit.Test;
 
 import javafx.geometry.Point2D;
-import model.ai.BattleshipAI;
+import model.ai.Difficulties;
 import model.ai.EasyAI;
-import model.ai.ExtremeAI;
 import model.ai.HardAI;
+import model.ai.Match;
 import model.ai.ModerateAI;
+import model.ai.PlacementModel;
 import model.board.Board;
 
 
@@ -62,6 +68,39 @@ public class AITest {
 		assertEquals(true, hiWins > (numGames / 2));
 	}
 	
+	@Test
+	public void testPlacementModel() {
+		try {
+			Path file = Files.createTempDirectory("placements").resolve("placements.dat");
+			PlacementModel model = new PlacementModel(file);
+			Board b = new Board();
+			
+			for (int i = 0; i < 3; i++) {
+				model.recordFleet(b.getCollection());
+			}
+			
+			// Reopening sees the counts written through the first mapping
+			PlacementModel reopened = new PlacementModel(file);
+			assertEquals(3, reopened.fleets());
+			
+			long total = 0;
+			for (long w : reopened.cellWeights()) {
+				total += w;
+			}
+			assertEquals(3 * 17, total);
+			
+			HardAI ai = new HardAI(b);
+			ai.usePlacementModel(reopened);
+			for (int i = 0; i < 100; i++) {
+				Point2D move = ai.nextMove();
+				ai.registerHit(move, b.enterMove(move, true));
+			}
+			assertEquals(true, b.isEmpty());
+		} catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+	
 	@Test
 	public void testModerateBetterThanEasy() {
 		int hiWins = simulateGames("Easy", "Moderate", numGames);
@@ -71,63 +110,39 @@ public class AITest {
 	
 	
 	private int simulateGames(String firstAI, String secondAI, int numGames) {
-		Board loBoard = new Board(); 	
-		Board hiBoard = new Board();
-		
-		BattleshipAI aiOne = generateAI(hiBoard, firstAI);
-		BattleshipAI aiTwo = generateAI(loBoard, secondAI);
+		// The same boards and AIs are reset for every game
+		Match match = Match.pooled(difficulty(firstAI), difficulty(secondAI));
+		Random seeds = new Random();
 		
 		int hiWins = 0;
 		int totalPlays = 0;
 		
 		for (; totalPlays < numGames; totalPlays++) {
-			loBoard.startStats();
-			hiBoard.startStats();
-			while (!loBoard.isEmpty() && !hiBoard.isEmpty()) {
-				makeOneMove(hiBoard, aiOne);
-				makeOneMove(loBoard, aiTwo);
-			}
+			match.play(seeds.nextLong());
 			
-			if (loBoard.isEmpty()) {
+			if (match.getFirstBoard().isEmpty()) {
 				hiWins++;
 			}
-			
-			loBoard = new Board();
-			hiBoard = new Board();
-			aiOne = generateAI(hiBoard, firstAI);
-			aiTwo = generateAI(loBoard, secondAI);
 		}
 		
 		return hiWins;
 	}
 	
-	private BattleshipAI generateAI(Board board, String ai) {
-		if (ai.equals("Easy")) {
-			return new EasyAI();
-		}
-		
-		if (ai.equals("Moderate")) {
-			return new ModerateAI();
-		}
-		
-		if (ai.equals("Hard")) {
-			return new HardAI(board);
+	private Difficulties difficulty(String ai) {
+		switch (ai) {
+			case "Easy":		return Difficulties.EASY;
+			case "Moderate":	return Difficulties.MEDIUM;
+			case "Hard":		return Difficulties.HARD;
+			default:			return Difficulties.EXTREME;
 		}
-		
-		return new ExtremeAI(board);
-	}
-
-	private void makeOneMove(Board b, BattleshipAI ai) {
-		Point2D next = ai.nextMove();
-		int result = b.enterMove(next, true);
-		ai.registerHit(next, result);
 	}
-
+	
 	public void testAll(int games) {
 		numGames = games;
 		
 		testEasyAI();
 		testModerateAI();
+		testPlacementModel();
 		
 		testModerateBetterThanEasy();
 		testHardBetterThanEasy();
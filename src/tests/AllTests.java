@@ -18,6 +18,30 @@ public class AllTests {
 		board.testAll();
 	}
 	
+	@Test
+	public void testStats() {
+		StatsTest stats = new StatsTest();
+		stats.testAll();
+	}
+	
+	@Test
+	public void testDataset() {
+		DatasetTest dataset = new DatasetTest();
+		dataset.testAll();
+	}
+	
+	@Test
+	public void testClock() {
+		ClockTest clock = new ClockTest();
+		clock.testAll();
+	}
+	
+	@Test
+	public void testInput() {
+		InputTest input = new InputTest();
+		input.testAll();
+	}
+	
 	@Test
 	public void testAI() {
 		AITest ai = new AITest();
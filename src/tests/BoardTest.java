@@ -2,9 +2,6 @@ package tests;
 
 import static org.junit.Assert.assertEquals;
 
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-
 import org.junit.Test;
 
 import controller_view.AllProperties;
@@ -12,25 +9,37 @@ import javafx.geometry.Point2D;
 import model.battleship.Ship;
 import model.battleship.ShipCollection;
 import model.board.Board;
+import model.board.BoardState;
 import model.board.Direction;
 import model.board.GameplayRecord;
 
-public class BoardTest implements PropertyChangeListener{
+public class BoardTest {
 	
 	private Board playerBoard;
 	private Board aiBoard;
 	
-	Ship[] ships = new Ship[] {
-    		new Ship(new Point2D(0, 0), Direction.DOWN, 2, false),
-    		new Ship(new Point2D(1, 0), Direction.DOWN, 3, false),
-    		new Ship(new Point2D(2, 0), Direction.DOWN, 3, true),
-    		new Ship(new Point2D(3, 0), Direction.DOWN, 4, false),
-    		new Ship(new Point2D(4, 0), Direction.DOWN, 5, false)
-    };
+	Ship[] ships = fleet();
+	
+	/**
+	 * Build a new copy of the test fleet, since moves change the ships they hit
+	 */
+	private static Ship[] fleet() {
+		return new Ship[] {
+	    		new Ship(new Point2D(0, 0), Direction.DOWN, 2, false),
+	    		new Ship(new Point2D(1, 0), Direction.DOWN, 3, false),
+	    		new Ship(new Point2D(2, 0), Direction.DOWN, 3, true),
+	    		new Ship(new Point2D(3, 0), Direction.DOWN, 4, false),
+	    		new Ship(new Point2D(4, 0), Direction.DOWN, 5, false)
+	    };
+	}
 	
 	public void testAll() {
 		testInitBoards();
 		testBoardBuilding();
+		testVersions();
+		testStates();
+		testReset();
+		testSpecialCharge();
 	}
 	
 	@Test
@@ -42,8 +51,10 @@ public class BoardTest implements PropertyChangeListener{
 		
 		System.out.println(aiBoard.toString());
 		
-		playerBoard.addListener(this);
-		aiBoard.addListener(this);
+		for (Board b : new Board[] { playerBoard, aiBoard }) {
+			b.events().subscribe(AllProperties.GAME_OVER, this::gameOver);
+			b.events().subscribe(AllProperties.GAME_STATS_READY, this::statsReady);
+		}
 		
 		aiBoard.startStats();
 		
@@ -91,17 +102,141 @@ public class BoardTest implements PropertyChangeListener{
 		}
 	}
 
-	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		if (evt.getPropertyName().equals(AllProperties.GAME_OVER.property())) {
-			assertEquals((boolean) evt.getNewValue(), true);
+	@Test
+	public void testVersions() {
+		Ship[] fleet = fleet();
+		Board b = new Board(new ShipCollection(fleet));
+		long start = b.version();
+		
+		// A miss only changes its own cell
+		b.enterMove(new Point2D(9, 9), true);
+		long afterMiss = b.version();
+		assertEquals(true, afterMiss > start);
+		assertEquals(true, b.cellChangedSince(9, 9, start));
+		assertEquals(false, b.cellChangedSince(0, 0, start));
+		assertEquals(0, fleet[0].version());
+		
+		// A hit changes the cell and the ship it hit, but no other ship
+		b.enterMove(new Point2D(0, 1), true);
+		assertEquals(true, b.version() > afterMiss);
+		assertEquals(true, b.cellChangedSince(0, 1, afterMiss));
+		assertEquals(false, b.cellChangedSince(9, 9, afterMiss));
+		assertEquals(1, fleet[0].version());
+		assertEquals(0, fleet[1].version());
+		
+		// Hiding ships changes their versions without touching any cell
+		long beforeHide = b.version();
+		b.setShipRendering(false);
+		assertEquals(true, b.version() > beforeHide);
+		assertEquals(false, b.cellChangedSince(0, 1, beforeHide));
+		
+		// Removing a ship never makes the version go backwards
+		long beforeRemove = b.version();
+		b.remove(fleet[0]);
+		assertEquals(true, b.version() > beforeRemove);
+	}
+	
+	@Test
+	public void testStates() {
+		Board b = new Board(new ShipCollection(fleet()));
+		BoardState start = b.state();
+		
+		// Moves on a state follow the same rules as moves on the board
+		BoardState s = start;
+		int[][] moves = { { 0, 0 }, { 9, 9 }, { 0, 1 }, { 0, 0 }, { 4, 4 } };
+		for (int[] m : moves) {
+			s = s.fire(m[0], m[1]);
+			assertEquals(b.enterMove(new Point2D(m[0], m[1]), true), s.lastResult());
 		}
+		assertEquals(true, s.isSunk(0));
+		assertEquals(false, s.isSunk(4));
+		assertEquals(4, s.shipsLeft());
+		assertEquals(s, b.state());
 		
-		if (evt.getPropertyName().equals(AllProperties.GAME_STATS_READY.property())) {
-			GameplayRecord gr = (GameplayRecord) evt.getNewValue();
-			System.out.println(gr.duration());
-			System.out.println(gr.hits());
-			System.out.println(gr.shipsSunk());
+		// Older states are untouched, and every state shares one fleet
+		assertEquals(false, start.isShot(0, 0));
+		assertEquals(true, s.fleet() == start.fleet());
+		
+		// A shield stops one move
+		BoardState shielded = s.shield(4, 3);
+		assertEquals(-1, shielded.lastResult());
+		assertEquals(-1, shielded.fire(4, 3).lastResult());
+		assertEquals(false, shielded.fire(4, 3).isShielded(4, 3));
+		
+		// A board rebuilt from a state reads back as the same state
+		Board rebuilt = new Board(shielded);
+		assertEquals(shielded, rebuilt.state());
+		assertEquals(4, rebuilt.size());
+		assertEquals(shielded.shotCount(), rebuilt.moveCount());
+	}
+	
+	private void gameOver(Object source, Object oldValue, Object newValue) {
+		assertEquals((boolean) newValue, true);
+	}
+	
+	private void statsReady(Object source, Object oldValue, Object newValue) {
+		GameplayRecord gr = (GameplayRecord) newValue;
+		System.out.println(gr.duration());
+		System.out.println(gr.hits());
+		System.out.println(gr.shipsSunk());
+	}
+	
+	@Test
+	public void testReset() {
+		Board board = new Board();
+		board.reset(42);
+		String layout = board.toString();
+		ShipCollection ships = board.getCollection();
+		Ship first = ships.getShip(0);
+		
+		board.enterMove(board.cheatMove(), true);
+		board.placeShield(new Point2D(9, 9));
+		assertEquals(1, board.moveCount());
+		
+		// The same seed places the same ships in the same spots, reusing the same objects
+		long before = board.version();
+		board.reset(42);
+		assertEquals(layout, board.toString());
+		assertEquals(ships, board.getCollection());
+		assertEquals(first, ships.getShip(0));
+		assertEquals(0, board.moveCount());
+		assertEquals(5, board.size());
+		assertEquals(0, board.state().shotCount());
+		assertEquals(true, board.version() > before);
+		
+		// Every ship fits on the board without overlapping another
+		for (long seed = 0; seed < 200; seed++) {
+			board.reset(seed);
+			int cells = 0;
+			for (int x = 0; x < 10; x++) {
+				for (int y = 0; y < 10; y++) {
+					for (Ship s : board.getCollection()) {
+						if (ShipCollection.tryLengthOfShip(x, y, s) != -1) {
+							cells++;
+						}
+					}
+				}
+			}
+			assertEquals(17, cells);
+		}
+	}
+	
+	@Test
+	public void testSpecialCharge() {
+		Board board = new Board();
+		
+		// The cells a special move hits do not charge the next one
+		for (String special : new String[] { "nuke", "strafing run" }) {
+			for (int x = 0; x < 10; x++) {
+				board.enterMove(new Point2D(x, special.equals("nuke") ? 0 : 9), false);
+			}
+			assertEquals(100, board.specialCharge());
+			
+			board.attemptSpecialMove(special, new Point2D(5, 5));
+			assertEquals(0, board.specialCharge());
 		}
+		
+		board.enterMove(new Point2D(0, 1), false);
+		assertEquals(Board.SPECIAL_PER_MOVE, board.specialCharge());
 	}
 }
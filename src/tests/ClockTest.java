@@ -0,0 +1,117 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import model.board.Board;
+import model.board.GameClock;
+
+public class ClockTest {
+
+	private static final long SECOND = 1000000000L;
+
+	public void testAll() {
+		testAdvance();
+		testTimerOrder();
+		testPause();
+		testScale();
+		testGameLength();
+	}
+
+	@Test
+	public void testAdvance() {
+		GameClock clock = GameClock.virtual();
+		long start = clock.now();
+		clock.advance(5 * SECOND);
+		assertEquals(5 * SECOND, clock.now() - start);
+	}
+
+	@Test
+	public void testTimerOrder() {
+		GameClock clock = GameClock.virtual();
+		List<Integer> fired = new ArrayList<Integer>();
+
+		clock.schedule(3 * SECOND, () -> fired.add(3));
+		clock.schedule(1 * SECOND, () -> fired.add(1));
+		clock.schedule(2 * SECOND, () -> fired.add(2));
+		clock.schedule(2 * SECOND, () -> fired.add(4)).cancel();
+
+		clock.advance(SECOND + SECOND / 2);
+		assertEquals(List.of(1), fired);
+
+		clock.advance(2 * SECOND);
+		assertEquals(List.of(1, 2, 3), fired);
+	}
+
+	@Test
+	public void testPause() {
+		GameClock clock = GameClock.virtual();
+		List<Integer> fired = new ArrayList<Integer>();
+		clock.schedule(SECOND, () -> fired.add(1));
+
+		clock.pause();
+		long paused = clock.now();
+		clock.advance(10 * SECOND);
+		assertTrue(clock.isPaused());
+		assertEquals(paused, clock.now());
+		assertTrue(fired.isEmpty());
+
+		// Time carries on from where it was paused
+		clock.resume();
+		clock.advance(SECOND / 2);
+		assertTrue(fired.isEmpty());
+		clock.advance(SECOND / 2);
+		assertEquals(List.of(1), fired);
+
+		// The clock only runs once every pause has been resumed
+		clock.pause();
+		clock.pause();
+		clock.resume();
+		assertTrue(clock.isPaused());
+		clock.resume();
+		assertFalse(clock.isPaused());
+	}
+
+	@Test
+	public void testScale() {
+		GameClock clock = GameClock.virtual();
+		List<Integer> fired = new ArrayList<Integer>();
+		clock.schedule(2 * SECOND, () -> fired.add(1));
+
+		clock.setScale(2);
+		clock.advance(SECOND);
+		assertEquals(2 * SECOND, clock.now());
+		assertEquals(List.of(1), fired);
+
+		clock.setScale(0.5);
+		clock.advance(2 * SECOND);
+		assertEquals(3 * SECOND, clock.now());
+	}
+
+	@Test
+	public void testGameLength() {
+		GameClock clock = GameClock.virtual();
+		GameClock.setDefault(clock);
+		try {
+			Board board = new Board();
+			board.startStats();
+			clock.advance(30 * SECOND);
+
+			// Time in the options screen is not part of the game
+			clock.pause();
+			clock.advance(60 * SECOND);
+			clock.resume();
+			clock.advance(15 * SECOND);
+
+			assertEquals(45, board.getGameplayRecord().duration());
+		} finally {
+			GameClock.setDefault(null);
+		}
+	}
+}
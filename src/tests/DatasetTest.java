@@ -0,0 +1,96 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import model.ai.Difficulties;
+import model.dataset.DatasetIndex;
+import model.dataset.GameRecordFormat;
+import model.dataset.Heatmap;
+import model.dataset.Queries;
+import model.dataset.QueryEngine;
+import model.dataset.SelfPlayGenerator;
+
+public class DatasetTest {
+
+	private int numGames = 60;
+
+	public void testAll() {
+		testGenerate();
+		testQueries();
+	}
+
+	private DatasetIndex generate() throws IOException {
+		Path dir = Files.createTempDirectory("selfplay");
+
+		// Small segments so every worker rolls over to new segment files
+		SelfPlayGenerator generator = new SelfPlayGenerator(Difficulties.HARD, Difficulties.EXTREME, dir, 2, 7);
+		return generator.generate(numGames);
+	}
+
+	@Test
+	public void testGenerate() {
+		try {
+			DatasetIndex index = generate();
+			DatasetIndex reread = DatasetIndex.read(index.directory());
+
+			assertEquals(2 * numGames, index.records());
+			assertEquals(index.records(), reread.records());
+			assertTrue(index.segments().size() > 2);
+
+			int games = 0;
+			for (DatasetIndex.Segment s : reread.segments()) {
+				ByteBuffer buf = reread.map(s);
+				for (int r = 0; r < s.records(); r += 2) {
+					int first = GameRecordFormat.offset(r);
+					int second = GameRecordFormat.offset(r + 1);
+
+					assertEquals(Difficulties.HARD.ordinal(), GameRecordFormat.attacker(buf, first));
+					assertEquals(Difficulties.EXTREME.ordinal(), GameRecordFormat.attacker(buf, second));
+
+					// The game ends as soon as one side sinks the last ship, so exactly one side won
+					assertTrue(GameRecordFormat.won(buf, first) ^ GameRecordFormat.won(buf, second));
+					games++;
+				}
+			}
+
+			assertEquals(numGames, games);
+		} catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+
+	@Test
+	public void testQueries() {
+		try {
+			QueryEngine engine = new QueryEngine(generate(), 3);
+
+			long[] firstHits = engine.run(Queries.firstHits(Difficulties.HARD));
+			long total = 0;
+			for (long count : firstHits) {
+				total += count;
+			}
+			assertEquals(numGames, total);
+
+			Queries.SinkTimes sinks = engine.run(Queries.shotsToSink(null));
+			assertTrue(sinks.sunk(3) > sinks.sunk(5));
+			assertTrue(sinks.average(5) > 5);
+
+			Heatmap h = engine.run(Queries.hitRateByTurn(Difficulties.EXTREME)).heatmap(0, 20);
+			for (int x = 0; x < Heatmap.BOARD_SIZE; x++) {
+				for (int y = 0; y < Heatmap.BOARD_SIZE; y++) {
+					assertTrue(h.intensity(x, y) >= 0 && h.intensity(x, y) <= 1);
+				}
+			}
+		} catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+}
@@ -0,0 +1,81 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import controller_view.InputQueue;
+import model.board.GameClock;
+
+public class InputTest {
+
+	private static final long MILLI = 1000000L;
+
+	public void testAll() {
+		testOrder();
+		testDuplicates();
+		testCapacity();
+	}
+
+	@Test
+	public void testOrder() {
+		GameClock clock = GameClock.virtual();
+		GameClock.setDefault(clock);
+		try {
+			InputQueue<Integer> q = new InputQueue<Integer>();
+			assertTrue(q.offer(12));
+			clock.advance(5 * MILLI);
+			assertTrue(q.offer(40));
+
+			InputQueue.Timed<Integer> first = q.poll();
+			assertEquals(12, (int) first.command());
+			assertEquals(0, first.time());
+			assertEquals(5 * MILLI, q.poll().time());
+			assertNull(q.poll());
+		} finally {
+			GameClock.setDefault(null);
+		}
+	}
+
+	@Test
+	public void testDuplicates() {
+		GameClock clock = GameClock.virtual();
+		GameClock.setDefault(clock);
+		try {
+			InputQueue<Integer> q = new InputQueue<Integer>(100 * MILLI, 16);
+
+			// A double click is only played once
+			assertTrue(q.offer(7));
+			clock.advance(30 * MILLI);
+			assertFalse(q.offer(7));
+
+			// Nor is a command still waiting, however long ago it was given
+			assertTrue(q.offer(8));
+			clock.advance(500 * MILLI);
+			assertFalse(q.offer(7));
+			assertEquals(2, q.size());
+
+			// Once taken, a command may be given again
+			q.poll();
+			assertTrue(q.offer(7));
+		} finally {
+			GameClock.setDefault(null);
+		}
+	}
+
+	@Test
+	public void testCapacity() {
+		InputQueue<Integer> q = new InputQueue<Integer>(0, 3);
+		assertTrue(q.offer(1));
+		assertTrue(q.offer(2));
+		assertTrue(q.offer(3));
+		assertFalse(q.offer(4));
+
+		q.clear();
+		assertTrue(q.isEmpty());
+		assertTrue(q.offer(1));
+	}
+}
@@ -0,0 +1,135 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.Test;
+
+import model.ai.Difficulties;
+import model.board.GameplayRecord;
+import model.stats.GameStatsStore;
+import model.stats.LifetimeStats;
+import model.stats.ResultExporter;
+
+public class StatsTest {
+
+	public void testAll() {
+		testAggregates();
+		testReopenStore();
+		testRebuild();
+		testExport();
+	}
+
+	@Test
+	public void testAggregates() {
+		LifetimeStats ls = new LifetimeStats();
+		ls.accumulate(new GameplayRecord(17, 50.0, 5, 120), Difficulties.HARD);
+		ls.accumulate(new GameplayRecord(10, 25.0, 3, 200), Difficulties.HARD);
+		ls.accumulate(new GameplayRecord(17, 75.0, 5, 90), Difficulties.HARD);
+
+		assertEquals(3, ls.gamesPlayed());
+		assertEquals(44, ls.totalHits());
+		assertEquals(2, ls.wins(Difficulties.HARD));
+		assertEquals(0, ls.gamesPlayed(Difficulties.EASY));
+		assertEquals(90, ls.bestTime(Difficulties.HARD));
+		assertEquals(LifetimeStats.NO_BEST_TIME, ls.bestTime(Difficulties.EASY));
+		assertEquals(50.0, ls.meanHitRatio(), 0.001);
+		assertEquals(200.0 / 3, ls.winRate(Difficulties.HARD), 0.001);
+	}
+
+	@Test
+	public void testReopenStore() {
+		try {
+			Path dir = Files.createTempDirectory("stats");
+
+			GameStatsStore store = new GameStatsStore(dir);
+			store.append(new GameplayRecord(17, 40.0, 5, 300), Difficulties.MEDIUM);
+			store.append(new GameplayRecord(8, 20.0, 2, 400), Difficulties.EASY);
+			store.close();
+
+			store = new GameStatsStore(dir);
+			LifetimeStats ls = store.getLifetimeStats();
+			assertEquals(2, store.size());
+			assertEquals(2, ls.gamesPlayed());
+			assertEquals(1, ls.wins(Difficulties.MEDIUM));
+			assertEquals(300, ls.bestTime(Difficulties.MEDIUM));
+			store.close();
+		} catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+
+	@Test
+	public void testRebuild() {
+		try {
+			Path dir = Files.createTempDirectory("stats");
+
+			GameStatsStore store = new GameStatsStore(dir);
+			store.append(new GameplayRecord(17, 40.0, 5, 300), Difficulties.EXTREME);
+			store.append(new GameplayRecord(17, 60.0, 5, 200), null);
+			store.close();
+
+			// Losing the aggregates file forces a scan of the columns
+			Files.delete(dir.resolve("aggregates.dat"));
+
+			store = new GameStatsStore(dir);
+			LifetimeStats ls = store.getLifetimeStats();
+			assertEquals(2, ls.gamesPlayed());
+			assertEquals(34, ls.totalHits());
+			assertEquals(1, ls.gamesPlayed(Difficulties.EXTREME));
+			assertEquals(50.0, ls.meanHitRatio(), 0.001);
+			store.close();
+		} catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+
+	@Test
+	public void testExport() {
+		try {
+			ByteArrayOutputStream csv = new ByteArrayOutputStream();
+			
+			// A capacity of one forces the producer to wait on the writer
+			ResultExporter exporter = new ResultExporter(csv, ResultExporter.Format.CSV, 1);
+			for (int i = 0; i < 50; i++) {
+				exporter.export("Hard vs Easy", new GameplayRecord(17, 50.0, 5, 10));
+			}
+			exporter.close();
+
+			String[] lines = csv.toString().split("\n");
+			assertEquals(52, lines.length);
+			assertEquals("game,label,hits,hitRatio,shipsSunk,duration,won", lines[0]);
+			assertEquals("1,Hard vs Easy,17,50.0,5,10,true", lines[1]);
+			assertEquals("total,50 games,850,50.0,250,500,50", lines[51]);
+
+			// A label with a line break or quote is quoted, so it stays in one row
+			csv = new ByteArrayOutputStream();
+			exporter = new ResultExporter(csv, ResultExporter.Format.CSV, 4);
+			exporter.export("Hard, \"fast\"\nvs Easy", new GameplayRecord(17, 50.0, 5, 10));
+			exporter.close();
+
+			assertEquals("game,label,hits,hitRatio,shipsSunk,duration,won\n"
+					+ "1,\"Hard, \"\"fast\"\"\nvs Easy\",17,50.0,5,10,true\n"
+					+ "total,1 games,17,50.0,5,10,1\n", csv.toString());
+
+			ByteArrayOutputStream json = new ByteArrayOutputStream();
+			exporter = new ResultExporter(json, ResultExporter.Format.JSON_LINES, 4);
+			exporter.export("Easy", new GameplayRecord(3, 10.0, 1, 20));
+			exporter.export("\"Hard\"\\\n\t\u0001", new GameplayRecord(3, 10.0, 1, 20));
+			exporter.close();
+			
+			lines = json.toString().split("\n");
+			assertEquals(3, lines.length);
+			assertEquals("{\"game\":1,\"label\":\"Easy\",\"hits\":3,\"hitRatio\":10.0,\"shipsSunk\":1,\"duration\":20,\"won\":false}", lines[0]);
+			
+			// Labels are escaped as JSON strings, so every result stays on one line
+			assertEquals("{\"game\":2,\"label\":\"\\\"Hard\\\"\\\\\\n\\t\\u0001\",\"hits\":3,\"hitRatio\":10.0,\"shipsSunk\":1,\"duration\":20,\"won\":false}", lines[1]);
+		} catch (IOException ex) {
+			throw new AssertionError(ex);
+		}
+	}
+}